@@ -0,0 +1,75 @@
+package app.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import krug.daan.easynosql.common.KeyValue;
+import krug.daan.easynosql.common.metadata.EntityDescriptorRegistry;
+import krug.daan.easynosql.common.metadata.EntityProperty;
+
+import com.datastax.driver.core.Row;
+
+/**
+ * Sample data of the benchmarks: synthetic entities of 5, 20 and 100 attributes
+ * filled whit deterministic values.
+ */
+class BenchmarkData {
+
+	private BenchmarkData(){
+	}
+
+	static Object sampleValue(Class<?> type, int index){
+		if(type.equals(String.class)){
+			return "value" + index;
+		}else if(type.equals(Integer.class)){
+			return Integer.valueOf(index);
+		}else if(type.equals(Long.class)){
+			return Long.valueOf(index * 1000L);
+		}else if(type.equals(Double.class)){
+			return Double.valueOf(index * 1.5d);
+		}else if(type.equals(java.util.Date.class)){
+			return new java.util.Date(1500000000000L + index);
+		}else if(type.equals(BigDecimal.class)){
+			return BigDecimal.valueOf(index);
+		}
+		return null;
+	}
+
+	static <T> T createEntity(Class<T> clazz, Class<?> baseClass) throws Exception{
+		T entity = clazz.newInstance();
+		int index = 0;
+		for(EntityProperty property: EntityDescriptorRegistry.getDescriptor(clazz, baseClass).getProperties()){
+			property.setValue(entity, sampleValue(property.getType(), index++));
+		}
+		return entity;
+	}
+
+	static List<KeyValue> createKeyValues(Class<?> clazz, Class<?> baseClass) throws Exception{
+		List<KeyValue> keyValues = new ArrayList<KeyValue>();
+		int index = 0;
+		for(EntityProperty property: EntityDescriptorRegistry.getDescriptor(clazz, baseClass).getProperties()){
+			keyValues.add(new KeyValue(property.getName(), sampleValue(property.getType(), index++)));
+		}
+		return keyValues;
+	}
+
+	/**
+	 * Row whit the [values], answering only getObject(name) and getString(name)
+	 */
+	static Row createRow(final Map<String, Object> values){
+		return (Row)Proxy.newProxyInstance(Row.class.getClassLoader(), new Class<?>[]{Row.class}, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if((method.getName().equals("getObject") || method.getName().equals("getString"))
+						&& null!=args && args.length == 1 && args[0] instanceof String){
+					return values.get(args[0]);
+				}
+				throw new UnsupportedOperationException(method.getName());
+			}
+		});
+	}
+}
@@ -0,0 +1,48 @@
+package app.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the mapping benchmarks (MongoMappingBenchmark, CassandraMappingBenchmark and
+ * CouchMappingBenchmark) whit JMH. Each benchmark runs on its own forked JVMs, so the
+ * JIT profile of a benchmark dont leak to the next one, and the GC profiler reports
+ * the bytes allocated by operation (gc.alloc.rate.norm).
+ * The benchmark classes must be compiled whit the jmh-generator-annprocess on the
+ * classpath (lib/benchmark), so the JMH harness is generated.
+ *
+ * Usage: BenchmarkRunner [warmup seconds] [measurement seconds] [forks] [benchmark regexp]
+ */
+public class BenchmarkRunner {
+
+	private static final String DEFAULT_INCLUDE = BenchmarkRunner.class.getPackage().getName() + ".*MappingBenchmark";
+
+	public static void main(String[] args) {
+		try {
+			int warmupSeconds = (args.length > 0 ? Integer.parseInt(args[0]) : 2);
+			int measurementSeconds = (args.length > 1 ? Integer.parseInt(args[1]) : 5);
+			int forks = (args.length > 2 ? Integer.parseInt(args[2]) : 2);
+			String include = (args.length > 3 ? args[3] : DEFAULT_INCLUDE);
+			Options options = new OptionsBuilder()
+					.include(include)
+					.mode(Mode.Throughput)
+					.timeUnit(TimeUnit.SECONDS)
+					.warmupIterations(3)
+					.warmupTime(TimeValue.seconds(warmupSeconds))
+					.measurementIterations(5)
+					.measurementTime(TimeValue.seconds(measurementSeconds))
+					.forks(forks)
+					.addProfiler(GCProfiler.class)
+					.build();
+			new Runner(options).run();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+}
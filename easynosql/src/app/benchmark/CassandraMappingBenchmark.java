@@ -0,0 +1,76 @@
+package app.benchmark;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import krug.daan.easynosql.cassandradb.dto.BaseDTO;
+import krug.daan.easynosql.cassandradb.util.DtoUtil;
+import krug.daan.easynosql.common.KeyValue;
+
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import app.benchmark.model.CassandraEntity100;
+import app.benchmark.model.CassandraEntity20;
+import app.benchmark.model.CassandraEntity5;
+
+import com.datastax.driver.core.Row;
+
+/**
+ * Benchmarks of the CassandraDB object mapping hot paths, whithout database access.
+ */
+@State(Scope.Thread)
+public class CassandraMappingBenchmark {
+
+	@Param({"5", "20", "100"})
+	public int size;
+
+	private BaseDTO dto;
+	private BaseDTO target;
+	private List<KeyValue> keyValues;
+	private List<KeyValue> searchConditions;
+	private Row row;
+
+	@Setup
+	public void setup() throws Exception{
+		Class<? extends BaseDTO> clazz = (size == 5 ? CassandraEntity5.class : size == 20 ? CassandraEntity20.class : CassandraEntity100.class);
+		dto = BenchmarkData.createEntity(clazz, BaseDTO.class);
+		dto.setId(new ObjectId().toHexString());
+		keyValues = BenchmarkData.createKeyValues(clazz, BaseDTO.class);
+		searchConditions = keyValues.subList(0, 2);
+		Map<String, Object> values = new HashMap<String, Object>();
+		for(KeyValue keyValue: keyValues){
+			values.put(keyValue.getKey(), keyValue.getValue());
+		}
+		values.put(BaseDTO.ID_ATTR_DESCRIPTOR, dto.getId());
+		row = BenchmarkData.createRow(values);
+		target = clazz.newInstance();
+	}
+
+	@Benchmark
+	public Object generateInsertCQL() throws Exception{
+		return DtoUtil.generateInsertCQL(dto);
+	}
+
+	@Benchmark
+	public Object generateSelectCQL() throws Exception{
+		return DtoUtil.generateSelectCQL(dto, searchConditions);
+	}
+
+	@Benchmark
+	public Object setValuesFromRow() throws Exception{
+		DtoUtil.setValues(target, row);
+		return target;
+	}
+
+	@Benchmark
+	public Object setValuesFromKeyValues() throws Exception{
+		DtoUtil.setValues(target, keyValues);
+		return target;
+	}
+}
@@ -0,0 +1,41 @@
+package app.benchmark;
+
+import java.util.List;
+
+import krug.daan.easynosql.common.KeyValue;
+import krug.daan.easynosql.couchdb.dto.BaseDTO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import app.benchmark.model.CouchEntity100;
+import app.benchmark.model.CouchEntity20;
+import app.benchmark.model.CouchEntity5;
+
+/**
+ * Benchmarks of the CouchDB object mapping hot paths, whithout database access.
+ */
+@State(Scope.Thread)
+public class CouchMappingBenchmark {
+
+	@Param({"5", "20", "100"})
+	public int size;
+
+	private BaseDTO dto;
+	private List<KeyValue> keyValues;
+
+	@Setup
+	public void setup() throws Exception{
+		Class<? extends BaseDTO> clazz = (size == 5 ? CouchEntity5.class : size == 20 ? CouchEntity20.class : CouchEntity100.class);
+		dto = BenchmarkData.createEntity(clazz, BaseDTO.class);
+		keyValues = BenchmarkData.createKeyValues(clazz, BaseDTO.class);
+	}
+
+	@Benchmark
+	public boolean matchKeyValues() throws Exception{
+		return dto.matchKeyValues(keyValues);
+	}
+}
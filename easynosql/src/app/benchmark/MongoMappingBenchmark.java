@@ -0,0 +1,94 @@
+package app.benchmark;
+
+import java.nio.ByteBuffer;
+
+import krug.daan.easynosql.mongodb.codec.BaseDTOCodecProvider;
+import krug.daan.easynosql.mongodb.dto.BaseDTO;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import app.benchmark.model.MongoEntity100;
+import app.benchmark.model.MongoEntity20;
+import app.benchmark.model.MongoEntity5;
+
+import com.mongodb.MongoClient;
+
+/**
+ * Benchmarks of the MongoDB object mapping hot paths, whithout database access.
+ */
+@State(Scope.Thread)
+public class MongoMappingBenchmark {
+
+	private static final EncoderContext COLLECTIBLE_ENCODER_CONTEXT = EncoderContext.builder().isEncodingCollectibleDocument(true).build();
+	private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+	@Param({"5", "20", "100"})
+	public int size;
+
+	private BaseDTO dto;
+	private Codec<BaseDTO> codec;
+	private byte[] bson;
+	private String relatedObjectsIdsJson;
+
+	@Setup
+	@SuppressWarnings(value="unchecked")
+	public void setup() throws Exception{
+		Class<? extends BaseDTO> clazz = (size == 5 ? MongoEntity5.class : size == 20 ? MongoEntity20.class : MongoEntity100.class);
+		dto = BenchmarkData.createEntity(clazz, BaseDTO.class);
+		dto.setId(new ObjectId());
+		for(int i = 0; i < size; i++){
+			dto.addRelatedObject(new ObjectId(), dto);
+		}
+		CodecRegistry registry = CodecRegistries.fromRegistries(
+				CodecRegistries.fromProviders(new BaseDTOCodecProvider()), MongoClient.getDefaultCodecRegistry());
+		codec = (Codec<BaseDTO>)registry.get(clazz);
+		BasicOutputBuffer encoded = new BasicOutputBuffer();
+		codec.encode(new BsonBinaryWriter(encoded), dto, COLLECTIBLE_ENCODER_CONTEXT);
+		bson = encoded.toByteArray();
+		relatedObjectsIdsJson = dto.getRelatedObjectsIdsJson();
+	}
+
+	@Benchmark
+	public Object generateKeyValues() throws Exception{
+		dto.generateKeyValues();
+		return dto.getAllAttributeValues();
+	}
+
+	@Benchmark
+	public Object encode(){
+		BasicOutputBuffer buffer = new BasicOutputBuffer(bson.length);
+		codec.encode(new BsonBinaryWriter(buffer), dto, COLLECTIBLE_ENCODER_CONTEXT);
+		return buffer;
+	}
+
+	@Benchmark
+	public Object decode(){
+		return codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), DECODER_CONTEXT);
+	}
+
+	@Benchmark
+	public Object populateRelatedObjectsIdsJson() throws Exception{
+		dto.populateRelatedObjectsIdsJson();
+		return dto.getRelatedObjectsIdsJson();
+	}
+
+	@Benchmark
+	public Object populateRelatedObjectsIds() throws Exception{
+		dto.setRelatedObjectsIdsJson(relatedObjectsIdsJson);
+		dto.populateRelatedObjectsIds();
+		return dto.getRelatedObjectsIds();
+	}
+}
@@ -0,0 +1,712 @@
+package app.benchmark.model;
+
+import krug.daan.easynosql.cassandradb.dto.BaseDTO;
+
+public class CassandraEntity100 extends BaseDTO{
+	
+	private String field0;
+	private Integer field1;
+	private Long field2;
+	private Double field3;
+	private java.util.Date field4;
+	private String field5;
+	private Integer field6;
+	private Long field7;
+	private Double field8;
+	private java.util.Date field9;
+	private String field10;
+	private Integer field11;
+	private Long field12;
+	private Double field13;
+	private java.util.Date field14;
+	private String field15;
+	private Integer field16;
+	private Long field17;
+	private Double field18;
+	private java.util.Date field19;
+	private String field20;
+	private Integer field21;
+	private Long field22;
+	private Double field23;
+	private java.util.Date field24;
+	private String field25;
+	private Integer field26;
+	private Long field27;
+	private Double field28;
+	private java.util.Date field29;
+	private String field30;
+	private Integer field31;
+	private Long field32;
+	private Double field33;
+	private java.util.Date field34;
+	private String field35;
+	private Integer field36;
+	private Long field37;
+	private Double field38;
+	private java.util.Date field39;
+	private String field40;
+	private Integer field41;
+	private Long field42;
+	private Double field43;
+	private java.util.Date field44;
+	private String field45;
+	private Integer field46;
+	private Long field47;
+	private Double field48;
+	private java.util.Date field49;
+	private String field50;
+	private Integer field51;
+	private Long field52;
+	private Double field53;
+	private java.util.Date field54;
+	private String field55;
+	private Integer field56;
+	private Long field57;
+	private Double field58;
+	private java.util.Date field59;
+	private String field60;
+	private Integer field61;
+	private Long field62;
+	private Double field63;
+	private java.util.Date field64;
+	private String field65;
+	private Integer field66;
+	private Long field67;
+	private Double field68;
+	private java.util.Date field69;
+	private String field70;
+	private Integer field71;
+	private Long field72;
+	private Double field73;
+	private java.util.Date field74;
+	private String field75;
+	private Integer field76;
+	private Long field77;
+	private Double field78;
+	private java.util.Date field79;
+	private String field80;
+	private Integer field81;
+	private Long field82;
+	private Double field83;
+	private java.util.Date field84;
+	private String field85;
+	private Integer field86;
+	private Long field87;
+	private Double field88;
+	private java.util.Date field89;
+	private String field90;
+	private Integer field91;
+	private Long field92;
+	private Double field93;
+	private java.util.Date field94;
+	private String field95;
+	private Integer field96;
+	private Long field97;
+	private Double field98;
+	private java.util.Date field99;
+	
+	public CassandraEntity100(){
+		super(CassandraEntity100.class);
+	}
+
+	public String getField0() {
+		return field0;
+	}
+	public void setField0(String field0) {
+		this.field0 = field0;
+	}
+	public Integer getField1() {
+		return field1;
+	}
+	public void setField1(Integer field1) {
+		this.field1 = field1;
+	}
+	public Long getField2() {
+		return field2;
+	}
+	public void setField2(Long field2) {
+		this.field2 = field2;
+	}
+	public Double getField3() {
+		return field3;
+	}
+	public void setField3(Double field3) {
+		this.field3 = field3;
+	}
+	public java.util.Date getField4() {
+		return field4;
+	}
+	public void setField4(java.util.Date field4) {
+		this.field4 = field4;
+	}
+	public String getField5() {
+		return field5;
+	}
+	public void setField5(String field5) {
+		this.field5 = field5;
+	}
+	public Integer getField6() {
+		return field6;
+	}
+	public void setField6(Integer field6) {
+		this.field6 = field6;
+	}
+	public Long getField7() {
+		return field7;
+	}
+	public void setField7(Long field7) {
+		this.field7 = field7;
+	}
+	public Double getField8() {
+		return field8;
+	}
+	public void setField8(Double field8) {
+		this.field8 = field8;
+	}
+	public java.util.Date getField9() {
+		return field9;
+	}
+	public void setField9(java.util.Date field9) {
+		this.field9 = field9;
+	}
+	public String getField10() {
+		return field10;
+	}
+	public void setField10(String field10) {
+		this.field10 = field10;
+	}
+	public Integer getField11() {
+		return field11;
+	}
+	public void setField11(Integer field11) {
+		this.field11 = field11;
+	}
+	public Long getField12() {
+		return field12;
+	}
+	public void setField12(Long field12) {
+		this.field12 = field12;
+	}
+	public Double getField13() {
+		return field13;
+	}
+	public void setField13(Double field13) {
+		this.field13 = field13;
+	}
+	public java.util.Date getField14() {
+		return field14;
+	}
+	public void setField14(java.util.Date field14) {
+		this.field14 = field14;
+	}
+	public String getField15() {
+		return field15;
+	}
+	public void setField15(String field15) {
+		this.field15 = field15;
+	}
+	public Integer getField16() {
+		return field16;
+	}
+	public void setField16(Integer field16) {
+		this.field16 = field16;
+	}
+	public Long getField17() {
+		return field17;
+	}
+	public void setField17(Long field17) {
+		this.field17 = field17;
+	}
+	public Double getField18() {
+		return field18;
+	}
+	public void setField18(Double field18) {
+		this.field18 = field18;
+	}
+	public java.util.Date getField19() {
+		return field19;
+	}
+	public void setField19(java.util.Date field19) {
+		this.field19 = field19;
+	}
+	public String getField20() {
+		return field20;
+	}
+	public void setField20(String field20) {
+		this.field20 = field20;
+	}
+	public Integer getField21() {
+		return field21;
+	}
+	public void setField21(Integer field21) {
+		this.field21 = field21;
+	}
+	public Long getField22() {
+		return field22;
+	}
+	public void setField22(Long field22) {
+		this.field22 = field22;
+	}
+	public Double getField23() {
+		return field23;
+	}
+	public void setField23(Double field23) {
+		this.field23 = field23;
+	}
+	public java.util.Date getField24() {
+		return field24;
+	}
+	public void setField24(java.util.Date field24) {
+		this.field24 = field24;
+	}
+	public String getField25() {
+		return field25;
+	}
+	public void setField25(String field25) {
+		this.field25 = field25;
+	}
+	public Integer getField26() {
+		return field26;
+	}
+	public void setField26(Integer field26) {
+		this.field26 = field26;
+	}
+	public Long getField27() {
+		return field27;
+	}
+	public void setField27(Long field27) {
+		this.field27 = field27;
+	}
+	public Double getField28() {
+		return field28;
+	}
+	public void setField28(Double field28) {
+		this.field28 = field28;
+	}
+	public java.util.Date getField29() {
+		return field29;
+	}
+	public void setField29(java.util.Date field29) {
+		this.field29 = field29;
+	}
+	public String getField30() {
+		return field30;
+	}
+	public void setField30(String field30) {
+		this.field30 = field30;
+	}
+	public Integer getField31() {
+		return field31;
+	}
+	public void setField31(Integer field31) {
+		this.field31 = field31;
+	}
+	public Long getField32() {
+		return field32;
+	}
+	public void setField32(Long field32) {
+		this.field32 = field32;
+	}
+	public Double getField33() {
+		return field33;
+	}
+	public void setField33(Double field33) {
+		this.field33 = field33;
+	}
+	public java.util.Date getField34() {
+		return field34;
+	}
+	public void setField34(java.util.Date field34) {
+		this.field34 = field34;
+	}
+	public String getField35() {
+		return field35;
+	}
+	public void setField35(String field35) {
+		this.field35 = field35;
+	}
+	public Integer getField36() {
+		return field36;
+	}
+	public void setField36(Integer field36) {
+		this.field36 = field36;
+	}
+	public Long getField37() {
+		return field37;
+	}
+	public void setField37(Long field37) {
+		this.field37 = field37;
+	}
+	public Double getField38() {
+		return field38;
+	}
+	public void setField38(Double field38) {
+		this.field38 = field38;
+	}
+	public java.util.Date getField39() {
+		return field39;
+	}
+	public void setField39(java.util.Date field39) {
+		this.field39 = field39;
+	}
+	public String getField40() {
+		return field40;
+	}
+	public void setField40(String field40) {
+		this.field40 = field40;
+	}
+	public Integer getField41() {
+		return field41;
+	}
+	public void setField41(Integer field41) {
+		this.field41 = field41;
+	}
+	public Long getField42() {
+		return field42;
+	}
+	public void setField42(Long field42) {
+		this.field42 = field42;
+	}
+	public Double getField43() {
+		return field43;
+	}
+	public void setField43(Double field43) {
+		this.field43 = field43;
+	}
+	public java.util.Date getField44() {
+		return field44;
+	}
+	public void setField44(java.util.Date field44) {
+		this.field44 = field44;
+	}
+	public String getField45() {
+		return field45;
+	}
+	public void setField45(String field45) {
+		this.field45 = field45;
+	}
+	public Integer getField46() {
+		return field46;
+	}
+	public void setField46(Integer field46) {
+		this.field46 = field46;
+	}
+	public Long getField47() {
+		return field47;
+	}
+	public void setField47(Long field47) {
+		this.field47 = field47;
+	}
+	public Double getField48() {
+		return field48;
+	}
+	public void setField48(Double field48) {
+		this.field48 = field48;
+	}
+	public java.util.Date getField49() {
+		return field49;
+	}
+	public void setField49(java.util.Date field49) {
+		this.field49 = field49;
+	}
+	public String getField50() {
+		return field50;
+	}
+	public void setField50(String field50) {
+		this.field50 = field50;
+	}
+	public Integer getField51() {
+		return field51;
+	}
+	public void setField51(Integer field51) {
+		this.field51 = field51;
+	}
+	public Long getField52() {
+		return field52;
+	}
+	public void setField52(Long field52) {
+		this.field52 = field52;
+	}
+	public Double getField53() {
+		return field53;
+	}
+	public void setField53(Double field53) {
+		this.field53 = field53;
+	}
+	public java.util.Date getField54() {
+		return field54;
+	}
+	public void setField54(java.util.Date field54) {
+		this.field54 = field54;
+	}
+	public String getField55() {
+		return field55;
+	}
+	public void setField55(String field55) {
+		this.field55 = field55;
+	}
+	public Integer getField56() {
+		return field56;
+	}
+	public void setField56(Integer field56) {
+		this.field56 = field56;
+	}
+	public Long getField57() {
+		return field57;
+	}
+	public void setField57(Long field57) {
+		this.field57 = field57;
+	}
+	public Double getField58() {
+		return field58;
+	}
+	public void setField58(Double field58) {
+		this.field58 = field58;
+	}
+	public java.util.Date getField59() {
+		return field59;
+	}
+	public void setField59(java.util.Date field59) {
+		this.field59 = field59;
+	}
+	public String getField60() {
+		return field60;
+	}
+	public void setField60(String field60) {
+		this.field60 = field60;
+	}
+	public Integer getField61() {
+		return field61;
+	}
+	public void setField61(Integer field61) {
+		this.field61 = field61;
+	}
+	public Long getField62() {
+		return field62;
+	}
+	public void setField62(Long field62) {
+		this.field62 = field62;
+	}
+	public Double getField63() {
+		return field63;
+	}
+	public void setField63(Double field63) {
+		this.field63 = field63;
+	}
+	public java.util.Date getField64() {
+		return field64;
+	}
+	public void setField64(java.util.Date field64) {
+		this.field64 = field64;
+	}
+	public String getField65() {
+		return field65;
+	}
+	public void setField65(String field65) {
+		this.field65 = field65;
+	}
+	public Integer getField66() {
+		return field66;
+	}
+	public void setField66(Integer field66) {
+		this.field66 = field66;
+	}
+	public Long getField67() {
+		return field67;
+	}
+	public void setField67(Long field67) {
+		this.field67 = field67;
+	}
+	public Double getField68() {
+		return field68;
+	}
+	public void setField68(Double field68) {
+		this.field68 = field68;
+	}
+	public java.util.Date getField69() {
+		return field69;
+	}
+	public void setField69(java.util.Date field69) {
+		this.field69 = field69;
+	}
+	public String getField70() {
+		return field70;
+	}
+	public void setField70(String field70) {
+		this.field70 = field70;
+	}
+	public Integer getField71() {
+		return field71;
+	}
+	public void setField71(Integer field71) {
+		this.field71 = field71;
+	}
+	public Long getField72() {
+		return field72;
+	}
+	public void setField72(Long field72) {
+		this.field72 = field72;
+	}
+	public Double getField73() {
+		return field73;
+	}
+	public void setField73(Double field73) {
+		this.field73 = field73;
+	}
+	public java.util.Date getField74() {
+		return field74;
+	}
+	public void setField74(java.util.Date field74) {
+		this.field74 = field74;
+	}
+	public String getField75() {
+		return field75;
+	}
+	public void setField75(String field75) {
+		this.field75 = field75;
+	}
+	public Integer getField76() {
+		return field76;
+	}
+	public void setField76(Integer field76) {
+		this.field76 = field76;
+	}
+	public Long getField77() {
+		return field77;
+	}
+	public void setField77(Long field77) {
+		this.field77 = field77;
+	}
+	public Double getField78() {
+		return field78;
+	}
+	public void setField78(Double field78) {
+		this.field78 = field78;
+	}
+	public java.util.Date getField79() {
+		return field79;
+	}
+	public void setField79(java.util.Date field79) {
+		this.field79 = field79;
+	}
+	public String getField80() {
+		return field80;
+	}
+	public void setField80(String field80) {
+		this.field80 = field80;
+	}
+	public Integer getField81() {
+		return field81;
+	}
+	public void setField81(Integer field81) {
+		this.field81 = field81;
+	}
+	public Long getField82() {
+		return field82;
+	}
+	public void setField82(Long field82) {
+		this.field82 = field82;
+	}
+	public Double getField83() {
+		return field83;
+	}
+	public void setField83(Double field83) {
+		this.field83 = field83;
+	}
+	public java.util.Date getField84() {
+		return field84;
+	}
+	public void setField84(java.util.Date field84) {
+		this.field84 = field84;
+	}
+	public String getField85() {
+		return field85;
+	}
+	public void setField85(String field85) {
+		this.field85 = field85;
+	}
+	public Integer getField86() {
+		return field86;
+	}
+	public void setField86(Integer field86) {
+		this.field86 = field86;
+	}
+	public Long getField87() {
+		return field87;
+	}
+	public void setField87(Long field87) {
+		this.field87 = field87;
+	}
+	public Double getField88() {
+		return field88;
+	}
+	public void setField88(Double field88) {
+		this.field88 = field88;
+	}
+	public java.util.Date getField89() {
+		return field89;
+	}
+	public void setField89(java.util.Date field89) {
+		this.field89 = field89;
+	}
+	public String getField90() {
+		return field90;
+	}
+	public void setField90(String field90) {
+		this.field90 = field90;
+	}
+	public Integer getField91() {
+		return field91;
+	}
+	public void setField91(Integer field91) {
+		this.field91 = field91;
+	}
+	public Long getField92() {
+		return field92;
+	}
+	public void setField92(Long field92) {
+		this.field92 = field92;
+	}
+	public Double getField93() {
+		return field93;
+	}
+	public void setField93(Double field93) {
+		this.field93 = field93;
+	}
+	public java.util.Date getField94() {
+		return field94;
+	}
+	public void setField94(java.util.Date field94) {
+		this.field94 = field94;
+	}
+	public String getField95() {
+		return field95;
+	}
+	public void setField95(String field95) {
+		this.field95 = field95;
+	}
+	public Integer getField96() {
+		return field96;
+	}
+	public void setField96(Integer field96) {
+		this.field96 = field96;
+	}
+	public Long getField97() {
+		return field97;
+	}
+	public void setField97(Long field97) {
+		this.field97 = field97;
+	}
+	public Double getField98() {
+		return field98;
+	}
+	public void setField98(Double field98) {
+		this.field98 = field98;
+	}
+	public java.util.Date getField99() {
+		return field99;
+	}
+	public void setField99(java.util.Date field99) {
+		this.field99 = field99;
+	}
+}
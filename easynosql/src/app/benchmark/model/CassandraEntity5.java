@@ -0,0 +1,47 @@
+package app.benchmark.model;
+
+import krug.daan.easynosql.cassandradb.dto.BaseDTO;
+
+public class CassandraEntity5 extends BaseDTO{
+	
+	private String field0;
+	private Integer field1;
+	private Long field2;
+	private Double field3;
+	private java.util.Date field4;
+	
+	public CassandraEntity5(){
+		super(CassandraEntity5.class);
+	}
+
+	public String getField0() {
+		return field0;
+	}
+	public void setField0(String field0) {
+		this.field0 = field0;
+	}
+	public Integer getField1() {
+		return field1;
+	}
+	public void setField1(Integer field1) {
+		this.field1 = field1;
+	}
+	public Long getField2() {
+		return field2;
+	}
+	public void setField2(Long field2) {
+		this.field2 = field2;
+	}
+	public Double getField3() {
+		return field3;
+	}
+	public void setField3(Double field3) {
+		this.field3 = field3;
+	}
+	public java.util.Date getField4() {
+		return field4;
+	}
+	public void setField4(java.util.Date field4) {
+		this.field4 = field4;
+	}
+}
@@ -0,0 +1,152 @@
+package app.benchmark.model;
+
+import krug.daan.easynosql.couchdb.dto.BaseDTO;
+
+public class CouchEntity20 extends BaseDTO{
+	
+	private String field0;
+	private Integer field1;
+	private Long field2;
+	private Double field3;
+	private java.util.Date field4;
+	private String field5;
+	private Integer field6;
+	private Long field7;
+	private Double field8;
+	private java.util.Date field9;
+	private String field10;
+	private Integer field11;
+	private Long field12;
+	private Double field13;
+	private java.util.Date field14;
+	private String field15;
+	private Integer field16;
+	private Long field17;
+	private Double field18;
+	private java.util.Date field19;
+	
+	public CouchEntity20(){
+		super(CouchEntity20.class);
+	}
+
+	public String getField0() {
+		return field0;
+	}
+	public void setField0(String field0) {
+		this.field0 = field0;
+	}
+	public Integer getField1() {
+		return field1;
+	}
+	public void setField1(Integer field1) {
+		this.field1 = field1;
+	}
+	public Long getField2() {
+		return field2;
+	}
+	public void setField2(Long field2) {
+		this.field2 = field2;
+	}
+	public Double getField3() {
+		return field3;
+	}
+	public void setField3(Double field3) {
+		this.field3 = field3;
+	}
+	public java.util.Date getField4() {
+		return field4;
+	}
+	public void setField4(java.util.Date field4) {
+		this.field4 = field4;
+	}
+	public String getField5() {
+		return field5;
+	}
+	public void setField5(String field5) {
+		this.field5 = field5;
+	}
+	public Integer getField6() {
+		return field6;
+	}
+	public void setField6(Integer field6) {
+		this.field6 = field6;
+	}
+	public Long getField7() {
+		return field7;
+	}
+	public void setField7(Long field7) {
+		this.field7 = field7;
+	}
+	public Double getField8() {
+		return field8;
+	}
+	public void setField8(Double field8) {
+		this.field8 = field8;
+	}
+	public java.util.Date getField9() {
+		return field9;
+	}
+	public void setField9(java.util.Date field9) {
+		this.field9 = field9;
+	}
+	public String getField10() {
+		return field10;
+	}
+	public void setField10(String field10) {
+		this.field10 = field10;
+	}
+	public Integer getField11() {
+		return field11;
+	}
+	public void setField11(Integer field11) {
+		this.field11 = field11;
+	}
+	public Long getField12() {
+		return field12;
+	}
+	public void setField12(Long field12) {
+		this.field12 = field12;
+	}
+	public Double getField13() {
+		return field13;
+	}
+	public void setField13(Double field13) {
+		this.field13 = field13;
+	}
+	public java.util.Date getField14() {
+		return field14;
+	}
+	public void setField14(java.util.Date field14) {
+		this.field14 = field14;
+	}
+	public String getField15() {
+		return field15;
+	}
+	public void setField15(String field15) {
+		this.field15 = field15;
+	}
+	public Integer getField16() {
+		return field16;
+	}
+	public void setField16(Integer field16) {
+		this.field16 = field16;
+	}
+	public Long getField17() {
+		return field17;
+	}
+	public void setField17(Long field17) {
+		this.field17 = field17;
+	}
+	public Double getField18() {
+		return field18;
+	}
+	public void setField18(Double field18) {
+		this.field18 = field18;
+	}
+	public java.util.Date getField19() {
+		return field19;
+	}
+	public void setField19(java.util.Date field19) {
+		this.field19 = field19;
+	}
+}
@@ -6,7 +6,9 @@ import com.datastax.driver.mapping.annotations.Column;
 
 import krug.daan.easynosql.cassandradb.annotation.SecondaryIndex;
 import krug.daan.easynosql.cassandradb.dto.BaseDTO;
+import krug.daan.easynosql.common.mapper.GenerateMapper;
 
+@GenerateMapper
 public class CassandraUser extends BaseDTO{
 	
 	@SecondaryIndex
@@ -5,9 +5,11 @@ import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAutoGeneratedKey;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
 
+import krug.daan.easynosql.common.mapper.GenerateMapper;
 import krug.daan.easynosql.dynamodb.dto.BaseDTO;
 
 
+@GenerateMapper
 @DynamoDBTable(tableName="DynamoUser")
 public class DynamoUser  extends BaseDTO{
 	
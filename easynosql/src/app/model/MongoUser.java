@@ -1,14 +1,19 @@
 package app.model;
 
+import krug.daan.easynosql.common.mapper.GenerateMapper;
+import krug.daan.easynosql.mongodb.annotation.Indexed;
 import krug.daan.easynosql.mongodb.dto.BaseDTO;
 
+@GenerateMapper
 public class MongoUser extends BaseDTO{
 	
 	public MongoUser(){
 		super(MongoUser.class);
 	}
 	
+	@Indexed
 	private String name;
+	@Indexed
 	private String email;
 	private Integer old;
 	private java.util.Date created;
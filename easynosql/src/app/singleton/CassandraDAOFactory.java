@@ -3,6 +3,7 @@ package app.singleton;
 import java.util.logging.Level;
 
 import krug.daan.easynosql.cassandradb.config.CassandraConfig;
+import krug.daan.easynosql.cassandradb.dao.AsyncBaseDAO;
 import krug.daan.easynosql.cassandradb.dao.BaseDAO;
 import krug.daan.easynosql.cassandradb.dao.CassandraDAO;
 
@@ -34,4 +35,8 @@ public class CassandraDAOFactory {
 	public static BaseDAO getBaseDAO(){
 		return BaseDAO.getInstance(csc);
 	}
+	
+	public static AsyncBaseDAO getAsyncBaseDAO(){
+		return AsyncBaseDAO.getInstance(csc);
+	}
 }
@@ -1,6 +1,7 @@
 package app.singleton;
 
 import krug.daan.easynosql.mongodb.config.MongoConfig;
+import krug.daan.easynosql.mongodb.dao.AsyncBaseDAO;
 import krug.daan.easynosql.mongodb.dao.BaseDAO;
 
 public class MongoDAOFactory {
@@ -20,4 +21,8 @@ public class MongoDAOFactory {
 	public static BaseDAO getBaseDAO(){
 		return BaseDAO.getInstance(mgc);
 	}
+	
+	public static AsyncBaseDAO getAsyncBaseDAO(){
+		return AsyncBaseDAO.getInstance(mgc);
+	}
 }
@@ -4,6 +4,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import krug.daan.easynosql.cassandradb.dao.BaseDTOCursor;
+import krug.daan.easynosql.cassandradb.dao.Page;
+import krug.daan.easynosql.cassandradb.dao.SaveResult;
 import krug.daan.easynosql.cassandradb.dto.BaseDTO;
 import krug.daan.easynosql.cassandradb.dto.RelationalIntegrityDTO;
 import krug.daan.easynosql.common.KeyValue;
@@ -142,6 +145,18 @@ public class CassandraTest {
 	}
 	
 	
+	private static void printSaveResults(List<SaveResult> results, String operation){
+		int saved = 0;
+		for(SaveResult result: results){
+			if(result.isSaved()){
+				saved ++;
+			}else{
+				System.out.println("cassandra user not saved by " + operation + " [status: " + result.getStatus() + ", error: " + result.getErrorMessage() + "]");
+			}
+		}
+		System.out.println("saved " + saved + " cassandra users by " + operation);
+	}
+	
 	private static void printUsers(Collection<BaseDTO> users, boolean printRelateds, boolean printRelations){
 		try {
 			System.out.println("cassandra users size => " + users.size());
@@ -165,11 +180,13 @@ public class CassandraTest {
 				}
 			}
 			if(printRelations){
-				Collection<BaseDTO> ridtos = CassandraDAOFactory.getBaseDAO().find(new RelationalIntegrityDTO(), null);
+				List<RelationalIntegrityDTO> ridtos = new ArrayList<RelationalIntegrityDTO>();
+				for(BaseDTO dto : users){
+					ridtos.addAll(CassandraDAOFactory.getBaseDAO().getReferencedByRelationalIntegrity(dto));
+				}
 				System.out.println("relational integrities size => " + ridtos.size());
-				for(BaseDTO dto : ridtos){
-					RelationalIntegrityDTO ridto = (RelationalIntegrityDTO) dto;
-					System.out.println("\t\tid: " + ridto.getId() + " Owner: " + ridto.getOwnerId() + " Related: " + ridto.getRelatedId());
+				for(RelationalIntegrityDTO ridto : ridtos){
+					System.out.println("\t\tOwner: " + ridto.getOwnerId() + " Related: " + ridto.getRelatedId());
 				}
 			}
 		} catch (Exception e) {
@@ -177,16 +194,21 @@ public class CassandraTest {
 		}
 	}
 	
+	private static CassandraUser newUser(String email){
+		java.util.Date now = new java.util.Date();
+		CassandraUser u = new CassandraUser();
+		u.setCreated(now);
+		u.setEmail(email);
+		u.setOld(1 + new Double(Math.random() * 100).intValue());
+		u.setName("cassandra_user_" + now.getTime());
+		u.setPoints(new Double(Math.random() * 100000).longValue());
+		u.setRating(1D + new Double(Math.random() * 10000));
+		return u;
+	}
+	
 	private static void createUser(String email){
 		try {
-			java.util.Date now = new java.util.Date();
-			CassandraUser u = new CassandraUser();
-			u.setCreated(now);
-			u.setEmail(email);
-			u.setOld(1 + new Double(Math.random() * 100).intValue());
-			u.setName("cassandra_user_" + now.getTime());
-			u.setPoints(new Double(Math.random() * 100000).longValue());
-			u.setRating(1D + new Double(Math.random() * 10000));
+			CassandraUser u = newUser(email);
 			CassandraDAOFactory.getBaseDAO().saveOrUpdate(u);
 			System.out.println("created cassandra user with email: " + email);
 		} catch (Exception e) {
@@ -194,6 +216,91 @@ public class CassandraTest {
 		}
 	}
 	
+	/**
+	 * Each user has its own "id", so the users are spread over many partitions
+	 */
+	private static void saveAllUsers(String[] emails){
+		try {
+			List<CassandraUser> users = new ArrayList<CassandraUser>();
+			for(String email: emails){
+				users.add(newUser(email));
+			}
+			List<SaveResult> results = CassandraDAOFactory.getBaseDAO().saveAll(users);
+			printSaveResults(results, "saveAll");
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	private static void listUsersByPage(int pageSize){
+		try {
+			String pagingState = null;
+			int pageNumber = 0;
+			do {
+				Page page = CassandraDAOFactory.getBaseDAO().findPage(new CassandraUser(), null, pageSize, pagingState, false);
+				pageNumber ++;
+				System.out.println("page " + pageNumber + " paging state => " + pagingState);
+				printUsers(page.getItems(), false, false);
+				pagingState = page.getPagingState();
+				if(!page.hasNextPage()){
+					break;
+				}
+			} while(true);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	private static void listUsersByCursor(int fetchSize){
+		try {
+			BaseDTOCursor cursor = CassandraDAOFactory.getBaseDAO().findCursor(new CassandraUser(), null, fetchSize, false);
+			int count = 0;
+			while(cursor.hasNext()){
+				CassandraUser u = (CassandraUser)cursor.next();
+				count ++;
+				System.out.println("cursor user " + count + " [id: " + u.getId() + " , email: " + u.getEmail() 
+						+ "] available whithout fetching => " + cursor.getAvailableWithoutFetching());
+			}
+			System.out.println("cassandra users read by cursor => " + count);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	private static void asyncUserOperations(String email){
+		try {
+			CassandraUser u = newUser(email);
+			CassandraDAOFactory.getAsyncBaseDAO().saveOrUpdate(u).join();
+			System.out.println("created cassandra user by async saveOrUpdate whit [id: " + u.getId() + ", email: " + email + "]");
+			
+			List<KeyValue> searchParameters = new ArrayList<KeyValue>();
+			searchParameters.add(new KeyValue("email", email));
+			Collection<BaseDTO> users = CassandraDAOFactory.getAsyncBaseDAO().find(new CassandraUser(), searchParameters).join();
+			System.out.println("Searching cassandra users by async find whit email = [" + email + "]");
+			printUsers(users, false, false);
+			
+			CassandraUser search = new CassandraUser();
+			search.setId(u.getId());
+			CassandraUser found = (CassandraUser)CassandraDAOFactory.getAsyncBaseDAO().findById(search, false).join();
+			System.out.println("found cassandra user by async findById whit [id: " + found.getId() + ", email: " + found.getEmail() + "]");
+			
+			List<CassandraUser> batch = new ArrayList<CassandraUser>();
+			for(int i = 0; i < 3; i++){
+				batch.add(newUser(i + "_" + email));
+			}
+			List<SaveResult> results = CassandraDAOFactory.getAsyncBaseDAO().saveAll(batch).join();
+			printSaveResults(results, "async saveAll");
+			
+			batch.add(found);
+			for(CassandraUser toDelete: batch){
+				CassandraDAOFactory.getAsyncBaseDAO().deleteById(toDelete).join();
+				System.out.println("deleted cassandra user by async deleteById whit [id: " + toDelete.getId() + "]");
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
 	private static void listUsers(){
 		try {
 			Collection<BaseDTO> users = CassandraDAOFactory.getBaseDAO().find(new CassandraUser(), null);
@@ -393,6 +500,39 @@ public class CassandraTest {
 		}
 		System.out.println("###### [end] test "+ testNumber +" search users by old ############\n\n");
 		
+		//
+		testNumber ++;
+		System.out.println("###### [begin]test "+ testNumber +" save users by saveAll ############");
+		String[] userEmailsBatch = new String[25];
+		for(int i = 0; i < userEmailsBatch.length; i++){
+			userEmailsBatch[i] = "batch" + i + "@star.com";
+		}
+		saveAllUsers(userEmailsBatch);
+		listUsers();
+		System.out.println("###### [end] test "+ testNumber +" save users by saveAll ############\n\n");
+		
+		//
+		testNumber ++;
+		System.out.println("###### [begin]test "+ testNumber +" list users by pages ############");
+		listUsersByPage(7);
+		System.out.println("###### [end] test "+ testNumber +" list users by pages ############\n\n");
+		
+		//
+		testNumber ++;
+		System.out.println("###### [begin]test "+ testNumber +" list users by cursor ############");
+		listUsersByCursor(7);
+		for(String email: userEmailsBatch){
+			deleteUser(email);
+		}
+		System.out.println("###### [end] test "+ testNumber +" list users by cursor ############\n\n");
+		
+		//
+		testNumber ++;
+		System.out.println("###### [begin]test "+ testNumber +" async operations ############");
+		asyncUserOperations("async@star.com");
+		listUsers();
+		System.out.println("###### [end] test "+ testNumber +" async operations ############\n\n");
+		
 		//
 		testNumber ++;
 		System.out.println("###### [begin]test "+ testNumber +" associate users ############");
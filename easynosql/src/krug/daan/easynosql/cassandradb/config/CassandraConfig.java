@@ -1,10 +1,15 @@
 package krug.daan.easynosql.cassandradb.config;
 
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 import java.util.logging.Logger;
 
+import krug.daan.easynosql.cassandradb.util.CqlStatement;
+
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
 
 /**
@@ -50,9 +55,41 @@ public class CassandraConfig {
 	private Level logLevel;
 	
 	/**
-	 * CassandraDB session
+	 * CassandraDB session, published after the connection
+	 */
+	private volatile Session session;
+	
+	/**
+	 * Registry of the databases, tables and indexes of the actual [cluster],
+	 * created on the cluster connection
+	 */
+	private volatile SchemaRegistry schemaRegistry;
+	
+	/**
+	 * Cache of the statements prepared on the actual [session], by CQL command.
+	 * Replaced (never cleared) when a new session is connected.
+	 */
+	private volatile ConcurrentHashMap<String, PreparedStatement> preparedStatements = new ConcurrentHashMap<String, PreparedStatement>();
+	
+	/**
+	 * Default number of rows read by page on the searches
+	 */
+	public static final int DEFAULT_FETCH_SIZE = 5000;
+	
+	/**
+	 * Number of rows read by page on the searches
+	 */
+	private int fetchSize = DEFAULT_FETCH_SIZE;
+	
+	/**
+	 * Default maximum number of asynchronous requests in flight on the session
 	 */
-	private Session session;
+	public static final int DEFAULT_MAX_REQUESTS_IN_FLIGHT = 1024;
+	
+	/**
+	 * Maximum number of asynchronous requests in flight on the session
+	 */
+	private int maxRequestsInFlight = DEFAULT_MAX_REQUESTS_IN_FLIGHT;
 	
 	/**
 	 * CassandraDB networkStrategy
@@ -113,28 +150,98 @@ public class CassandraConfig {
 		}else{
 			cluster = Cluster.builder().addContactPoint(host).withPort(port).build();
 		}
+		schemaRegistry = null;
 	}
 	
 	/**
+	 * Return the session, connected on the first call (or after a shutdown). The connection
+	 * is synchronized, so concurrent callers share a single cluster and session.
 	 * @return session
 	 */
 	public Session getSession() {
+		Session actualSession = session;
+		if(null==actualSession || actualSession.isClosed()){
+			synchronized (this) {
+				if(null==session || session.isClosed()){
+					connect();
+				}
+				actualSession = session;
+			}
+		}
+		return actualSession;
+	}
+	
+	/**
+	 * Connect a new session, initializing the cluster if it is closed. The SchemaRegistry of a new
+	 * cluster is created, and the statements prepared on the previous session are discarded,
+	 * before the new session is published.
+	 * Should be called synchronized on this configuration.
+	 */
+	private void connect() {
 		if(null==cluster || cluster.isClosed()){
 			initialize();
 		}
-		if(null==session || session.isClosed()){
-			session = cluster.connect();
+		Session connected = cluster.connect();
+		if(null==schemaRegistry){
+			schemaRegistry = new SchemaRegistry(cluster);
+		}
+		if(null!=session){
+			preparedStatements = new ConcurrentHashMap<String, PreparedStatement>();
 		}
-		return session;
+		session = connected;
+	}
+	
+	/**
+	 * Return the registry of the databases, tables and indexes of the cluster, 
+	 * created on the cluster connection. Connects the cluster only when it is not connected yet.
+	 */
+	public SchemaRegistry getSchemaRegistry() {
+		SchemaRegistry registry = schemaRegistry;
+		if(null==registry){
+			synchronized (this) {
+				getSession();
+				registry = schemaRegistry;
+			}
+		}
+		return registry;
+	}
+	
+	/**
+	 * Return the [cql] command prepared on the actual session. The command is prepared
+	 * (parsed by the CassandraDB mechanism) only on the first call, the next calls
+	 * whit the same [cql] reuse the cached PreparedStatement.
+	 */
+	public PreparedStatement getPreparedStatement(String cql){
+		// the cache is read before the session, so a statement prepared on a replaced session never reaches the cache of the new one
+		ConcurrentHashMap<String, PreparedStatement> cache = preparedStatements;
+		Session actualSession = getSession();
+		PreparedStatement prepared = cache.get(cql);
+		if(null==prepared){
+			prepared = actualSession.prepare(cql);
+			PreparedStatement existing = cache.putIfAbsent(cql, prepared);
+			if(null!=existing){
+				prepared = existing;
+			}
+		}
+		return prepared;
+	}
+	
+	/**
+	 * Return the [statement] command prepared on the actual session, whit the [statement] values bound
+	 */
+	public BoundStatement bind(CqlStatement statement){
+		return getPreparedStatement(statement.getCql()).bind(statement.getValues());
 	}
 	
 	/**
 	 * Shutdown the CassandraDB mechanism
 	 */
-	public void shutdown(){
+	public synchronized void shutdown(){
 		if(null!=session && !session.isClosed()){
 			session.close();
 		}
+		preparedStatements = new ConcurrentHashMap<String, PreparedStatement>();
+		schemaRegistry = null;
 		if(null!=cluster && !cluster.isClosed()){
 			cluster.close();
 		}
@@ -216,4 +323,35 @@ public class CassandraConfig {
 		this.durableWrites = durableWrites;
 	}
 
+	/**
+	 * Return the number of rows read by page on the searches
+	 */
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * Set the number of rows read by page on the searches
+	 * @param fetchSize
+	 */
+	public void setFetchSize(int fetchSize) {
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * Return the maximum number of asynchronous requests in flight on the session
+	 */
+	public int getMaxRequestsInFlight() {
+		return maxRequestsInFlight;
+	}
+
+	/**
+	 * Set the maximum number of asynchronous requests in flight on the session.
+	 * Should be set before the first use of the AsyncBaseDAO.
+	 * @param maxRequestsInFlight
+	 */
+	public void setMaxRequestsInFlight(int maxRequestsInFlight) {
+		this.maxRequestsInFlight = maxRequestsInFlight;
+	}
+
 }
@@ -0,0 +1,177 @@
+package krug.daan.easynosql.cassandradb.config;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.IndexMetadata;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.SchemaChangeListenerBase;
+import com.datastax.driver.core.TableMetadata;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Class to keep the databases (keyspaces), tables and indexed columns that exist on the
+ * CassandraDB cluster. Seeded from the Cluster metadata and kept up to date by the schema
+ * change events of the cluster, so the verification of a existing table dont need a round trip
+ * and dont lock. The creations should be synchronized on the registry (see getCreationLock()),
+ * so each database, table and index is created a single time by process.
+ * The names are not quoted on the CQL commands, so they are kept in lower case, as the CassandraDB does.
+ */
+public class SchemaRegistry extends SchemaChangeListenerBase {
+
+	/**
+	 * Existing databases (keyspaces)
+	 */
+	private Set<String> keyspaces = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/**
+	 * Existing tables, as "keyspace.table"
+	 */
+	private Set<String> tables = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/**
+	 * Existing indexed columns, as "keyspace.table.column"
+	 */
+	private Set<String> indexes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/**
+	 * Lock of the databases, tables and indexes creation
+	 */
+	private final Object creationLock = new Object();
+
+	/**
+	 * Constructor. Seed the registry whit the [cluster] metadata and register it as
+	 * schema change listener of the [cluster].
+	 */
+	public SchemaRegistry(Cluster cluster){
+		for(KeyspaceMetadata keyspace: cluster.getMetadata().getKeyspaces()){
+			onKeyspaceAdded(keyspace);
+		}
+		cluster.register(this);
+	}
+
+	/**
+	 * Return the lock to be synchronized during the creation of databases, tables and indexes
+	 */
+	public Object getCreationLock(){
+		return creationLock;
+	}
+
+	/**
+	 * Return true if the [keyspace] exists
+	 */
+	public boolean containsKeyspace(String keyspace){
+		return keyspaces.contains(keyspace.toLowerCase());
+	}
+
+	/**
+	 * Return true if the [table] exists on the [keyspace]
+	 */
+	public boolean containsTable(String keyspace, String table){
+		return tables.contains(toKey(keyspace, table));
+	}
+
+	/**
+	 * Return true if the [column] of the [table] on the [keyspace] is indexed
+	 */
+	public boolean containsIndex(String keyspace, String table, String column){
+		return indexes.contains(toKey(keyspace, table) + "." + column.toLowerCase());
+	}
+
+	/**
+	 * Register a created [keyspace]
+	 */
+	public void addKeyspace(String keyspace){
+		keyspaces.add(keyspace.toLowerCase());
+	}
+
+	/**
+	 * Register a dropped [keyspace], whit its tables and indexes
+	 */
+	public void removeKeyspace(String keyspace){
+		String prefix = keyspace.toLowerCase() + ".";
+		keyspaces.remove(keyspace.toLowerCase());
+		removeByPrefix(tables, prefix);
+		removeByPrefix(indexes, prefix);
+	}
+
+	/**
+	 * Register a created [table] on the [keyspace]
+	 */
+	public void addTable(String keyspace, String table){
+		tables.add(toKey(keyspace, table));
+	}
+
+	/**
+	 * Register a dropped [table] of the [keyspace], whit its indexes
+	 */
+	public void removeTable(String keyspace, String table){
+		tables.remove(toKey(keyspace, table));
+		removeByPrefix(indexes, toKey(keyspace, table) + ".");
+	}
+
+	/**
+	 * Register a created index of the [column] of the [table] on the [keyspace]
+	 */
+	public void addIndex(String keyspace, String table, String column){
+		indexes.add(toKey(keyspace, table) + "." + column.toLowerCase());
+	}
+
+	/**
+	 * Return the "keyspace.table" key
+	 */
+	private static String toKey(String keyspace, String table){
+		return keyspace.toLowerCase() + "." + table.toLowerCase();
+	}
+
+	/**
+	 * Remove from [names] the names that starts whit [prefix]
+	 */
+	private static void removeByPrefix(Set<String> names, String prefix){
+		for(String name: names){
+			if(name.startsWith(prefix)){
+				names.remove(name);
+			}
+		}
+	}
+
+	@Override
+	public void onKeyspaceAdded(KeyspaceMetadata keyspace) {
+		addKeyspace(keyspace.getName());
+		for(TableMetadata table: keyspace.getTables()){
+			onTableAdded(table);
+		}
+	}
+
+	@Override
+	public void onKeyspaceRemoved(KeyspaceMetadata keyspace) {
+		removeKeyspace(keyspace.getName());
+	}
+
+	@Override
+	public void onTableAdded(TableMetadata table) {
+		addTable(table.getKeyspace().getName(), table.getName());
+		for(IndexMetadata index: table.getIndexes()){
+			addIndex(table.getKeyspace().getName(), table.getName(), index.getTarget());
+		}
+	}
+
+	@Override
+	public void onTableRemoved(TableMetadata table) {
+		removeTable(table.getKeyspace().getName(), table.getName());
+	}
+
+	@Override
+	public void onTableChanged(TableMetadata current, TableMetadata previous) {
+		// the current indexes are added before the dropped ones are removed, so the table never seems missing
+		onTableAdded(current);
+		for(IndexMetadata index: previous.getIndexes()){
+			if(null==current.getIndex(index.getName())){
+				indexes.remove(toKey(previous.getKeyspace().getName(), previous.getName()) + "." + index.getTarget().toLowerCase());
+			}
+		}
+	}
+}
@@ -0,0 +1,780 @@
+package krug.daan.easynosql.cassandradb.dao;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import krug.daan.easynosql.cassandradb.config.CassandraConfig;
+import krug.daan.easynosql.cassandradb.dto.BaseDTO;
+import krug.daan.easynosql.cassandradb.dto.RelationalIntegrityDTO;
+import krug.daan.easynosql.cassandradb.enums.SaveStatus;
+import krug.daan.easynosql.cassandradb.exception.CassandraDataException;
+import krug.daan.easynosql.cassandradb.util.CqlStatement;
+import krug.daan.easynosql.cassandradb.util.DtoUtil;
+import krug.daan.easynosql.common.KeyValue;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Class to handle the basic CRUD operations on the CassandraDB mechanism whithout block the
+ * caller thread: the CQL commands are executed by Session.executeAsync() and each operation
+ * returns a CompletableFuture, completed whit the operation result or, exceptionally, whit
+ * the CassandraDataException the BaseDAO Method throws.
+ *
+ * The number of requests in flight is limited by the CassandraConfig maxRequestsInFlight:
+ * when the limit is reached the caller thread waits until a previous request finishes, so a
+ * caller can pipeline thousands of writes whithout overwhelming the coordinator.
+ * The follow-up requests of a operation (relational integrity, related objects and the next
+ * pages of a search) are also limited, but wait their permits whithout block a thread, and
+ * receive the released permits before the caller threads.
+ * The conversion of the rows and the binding of the follow-up commands are executed on a
+ * dedicated thread pool, never on the driver threads. The pool threads never wait a request.
+ */
+public class AsyncBaseDAO {
+
+	/**
+	 * TABLE_NAME_EMPTY_EXCEPTION
+	 */
+	private static final String TABLE_NAME_EMPTY_EXCEPTION = "<tableName> parameter couldnt be null or empty.";
+
+	/**
+	 * OBJECT_ID_PARAMETER_EMPTY_EXCEPTION
+	 */
+	private static final String OBJECT_ID_PARAMETER_EMPTY_EXCEPTION = "<BaseDTO.id> attribute couldnt be null or empty.";
+
+	/**
+	 * DTOS_PARAMETER_NULL_EXCEPTION
+	 */
+	private static final String DTOS_PARAMETER_NULL_EXCEPTION = "<dtos> parameter couldnt be null.";
+
+	/**
+	 * RELATED_OBJECT_NOT_READ_WARNING
+	 */
+	private static final String RELATED_OBJECT_NOT_READ_WARNING = "The related object could not be read and was ignored: ";
+
+	/**
+	 * Maximum number of statements by UNLOGGED batch of the saveAll() Method, all of a same partition
+	 */
+	private static final int MAX_STATEMENTS_BY_BATCH = 100;
+
+	/**
+	 * Name prefix of the pool threads
+	 */
+	private static final String THREAD_NAME_PREFIX = "easynosql-cassandradb-async-";
+
+	/**
+	 * Cassandra DB configuration Object
+	 */
+	private CassandraConfig csc;
+
+	/**
+	 * BaseDAO that handles the tables, the rows conversion and the relational integrity
+	 */
+	private BaseDAO dao;
+
+	/**
+	 * Permits of the requests in flight
+	 */
+	private Semaphore requestsInFlight;
+
+	/**
+	 * Follow-up requests waiting a permit of the requests in flight
+	 */
+	private ConcurrentLinkedQueue<CompletableFuture<Void>> permitWaiters = new ConcurrentLinkedQueue<CompletableFuture<Void>>();
+
+	/**
+	 * Thread pool that executes the blocking work after the requests
+	 */
+	private ExecutorService executor;
+
+	/**
+	 * Singleton instance
+	 */
+	private static AsyncBaseDAO instance;
+
+	/**
+	 * Return the singleton instance
+	 */
+	public static synchronized AsyncBaseDAO getInstance(CassandraConfig csc){
+		if(null==instance){
+			instance = new AsyncBaseDAO(csc);
+		}
+		return instance;
+	}
+
+	/**
+	 * Constructor
+	 */
+	protected AsyncBaseDAO(CassandraConfig csc){
+		this.csc = csc;
+		this.dao = BaseDAO.getInstance(csc);
+		this.requestsInFlight = new Semaphore(csc.getMaxRequestsInFlight());
+		final AtomicInteger threadCount = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Execute the [statement] by Session.executeAsync(), whit the values bound to the command
+	 * prepared on the session
+	 */
+	private CompletableFuture<ResultSet> executeAsync(CqlStatement statement, int fetchSize){
+		BoundStatement bound = null;
+		try {
+			csc.logInfo(statement.toString());
+			bound = csc.bind(statement);
+			if(fetchSize > 0){
+				bound.setFetchSize(fetchSize);
+			}
+		} catch (Exception e) {
+			return failed(e);
+		}
+		return executeAsync(bound);
+	}
+
+	/**
+	 * Execute the [statement] by Session.executeAsync(), after obtain a permit of the requests
+	 * in flight. The permit is released when the first page of the result is received.
+	 */
+	private CompletableFuture<ResultSet> executeAsync(Statement statement){
+		try {
+			acquirePermit();
+		} catch (CassandraDataException cde) {
+			return failed(cde);
+		}
+		return executeWithPermit(statement);
+	}
+
+	/**
+	 * Obtain a permit of the requests in flight, waiting on the caller thread while the limit is reached
+	 */
+	private void acquirePermit() throws CassandraDataException{
+		try {
+			requestsInFlight.acquire();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new CassandraDataException(ie);
+		}
+	}
+
+	/**
+	 * Return a future completed when a permit of the requests in flight is obtained, whithout
+	 * block the thread while the limit is reached
+	 */
+	private CompletableFuture<Void> acquirePermitAsync(){
+		if(requestsInFlight.tryAcquire()){
+			return done();
+		}
+		CompletableFuture<Void> waiter = new CompletableFuture<Void>();
+		permitWaiters.add(waiter);
+		// a permit released before the waiter was queued is not handed to it, so it is tried again
+		if(requestsInFlight.tryAcquire()){
+			if(permitWaiters.remove(waiter)){
+				waiter.complete(null);
+			}else{
+				releasePermit();
+			}
+		}
+		return waiter;
+	}
+
+	/**
+	 * Release a permit of the requests in flight, handing it to the first waiting follow-up request
+	 */
+	private void releasePermit(){
+		CompletableFuture<Void> waiter = permitWaiters.poll();
+		if(null!=waiter){
+			waiter.complete(null);
+		}else{
+			requestsInFlight.release();
+		}
+	}
+
+	/**
+	 * Execute the [statement] by Session.executeAsync(), whit a permit of the requests in flight
+	 * already obtained. The permit is released when the first page of the result is received.
+	 */
+	private CompletableFuture<ResultSet> executeWithPermit(Statement statement){
+		ResultSetFuture rsf = null;
+		try {
+			rsf = csc.getSession().executeAsync(statement);
+		} catch (Exception e) {
+			releasePermit();
+			return failed(e);
+		}
+		return releaseOnCompletion(rsf);
+	}
+
+	/**
+	 * Execute the follow-up [statement] of a operation, whit a permit of the requests in flight
+	 * obtained whithout block the thread
+	 */
+	private CompletableFuture<ResultSet> executeFollowUp(final Statement statement){
+		return acquirePermitAsync().thenCompose(new Function<Void, CompletableFuture<ResultSet>>() {
+			@Override
+			public CompletableFuture<ResultSet> apply(Void v) {
+				return executeWithPermit(statement);
+			}
+		});
+	}
+
+	/**
+	 * Read the next page of the [rs] by ResultSet.fetchMoreResults(), whit a permit of the requests
+	 * in flight obtained whithout block the thread
+	 */
+	private CompletableFuture<ResultSet> fetchMoreResults(final ResultSet rs){
+		return acquirePermitAsync().thenCompose(new Function<Void, CompletableFuture<ResultSet>>() {
+			@Override
+			public CompletableFuture<ResultSet> apply(Void v) {
+				ListenableFuture<ResultSet> fetched = null;
+				try {
+					fetched = rs.fetchMoreResults();
+				} catch (Exception e) {
+					releasePermit();
+					return failed(e);
+				}
+				return releaseOnCompletion(fetched);
+			}
+		});
+	}
+
+	/**
+	 * Return a future completed whit the result of the driver [rsf] future, releasing
+	 * the permit of the request when the result is received
+	 */
+	private CompletableFuture<ResultSet> releaseOnCompletion(ListenableFuture<ResultSet> rsf){
+		final CompletableFuture<ResultSet> future = new CompletableFuture<ResultSet>();
+		Futures.addCallback(rsf, new FutureCallback<ResultSet>() {
+			@Override
+			public void onSuccess(ResultSet rs) {
+				releasePermit();
+				future.complete(rs);
+			}
+			@Override
+			public void onFailure(Throwable t) {
+				releasePermit();
+				future.completeExceptionally(toCassandraDataException(t));
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Read all the rows of the [rs] into [rows], the next pages read by fetchMoreResults()
+	 */
+	private CompletableFuture<List<Row>> fetchAll(final ResultSet rs, final List<Row> rows){
+		int available = rs.getAvailableWithoutFetching();
+		for(int i = 0; i < available; i++){
+			rows.add(rs.one());
+		}
+		if(rs.isFullyFetched()){
+			return CompletableFuture.completedFuture(rows);
+		}
+		return fetchMoreResults(rs).thenCompose(new Function<ResultSet, CompletableFuture<List<Row>>>() {
+			@Override
+			public CompletableFuture<List<Row>> apply(ResultSet next) {
+				return fetchAll(rs, rows);
+			}
+		});
+	}
+
+	/**
+	 * Return a future completed exceptionally whit the [t] error
+	 */
+	private static <T> CompletableFuture<T> failed(Throwable t){
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		future.completeExceptionally(toCassandraDataException(t));
+		return future;
+	}
+
+	/**
+	 * Return a future completed whit null
+	 */
+	private static CompletableFuture<Void> done(){
+		return CompletableFuture.completedFuture(null);
+	}
+
+	/**
+	 * Wrap the [t] error on a CassandraDataException, if it is not one
+	 */
+	private static Throwable toCassandraDataException(Throwable t){
+		if(t instanceof CassandraDataException || !(t instanceof Exception)){
+			return t;
+		}
+		return new CassandraDataException((Exception)t);
+	}
+
+	/**
+	 * Asynchronous BaseDAO.saveOrUpdate(). The table creation, when the table of the [dto]
+	 * class was not created yet, is executed on the caller thread.
+	 */
+	public CompletableFuture<Void> saveOrUpdate(final BaseDTO dto){
+		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+			return failed(new CassandraDataException(TABLE_NAME_EMPTY_EXCEPTION));
+		}
+		final boolean toUpdate = (null!=dto.getId() && dto.getId().trim().length() > 0);
+		CqlStatement statement = null;
+		try {
+			dao.ensureTable(dto);
+			if(!(dto instanceof RelationalIntegrityDTO)){
+				dto.populateRelatedObjectsIdsJson();
+			}
+			if(toUpdate){
+				statement = DtoUtil.generateUpdateCQL(dto,null,null);
+			}else{
+				dto.generateId();
+				statement = DtoUtil.generateInsertCQL(dto);
+			}
+		} catch (Exception e) {
+			return failed(e);
+		}
+		return executeAsync(statement, 0).thenComposeAsync(new Function<ResultSet, CompletableFuture<Void>>() {
+			@Override
+			public CompletableFuture<Void> apply(ResultSet rs) {
+				if(toUpdate && !(dto instanceof RelationalIntegrityDTO)){
+					return updateRelationalIntegrity(dto);
+				}
+				return done();
+			}
+		}, executor);
+	}
+
+	/**
+	 * Asynchronous RelationalIntegrityDAO.updateRelationalIntegrityDTO(): the references of the [dto]
+	 * are read and written by follow-up requests. Should be called on the thread pool.
+	 */
+	private CompletableFuture<Void> updateRelationalIntegrity(final BaseDTO dto){
+		final RelationalIntegrityDAO ridao = RelationalIntegrityDAO.getInstance(csc);
+		Statement bound = null;
+		try {
+			ridao.ensureTables();
+			CqlStatement statement = RelationalIntegrityDAO.generateFindByOwnerCQL(dto.getTableName(), dto.getId());
+			csc.logInfo(statement.toString());
+			bound = csc.bind(statement);
+		} catch (Exception e) {
+			return failed(e);
+		}
+		return executeFollowUp(bound).thenCompose(new Function<ResultSet, CompletableFuture<List<Row>>>() {
+			@Override
+			public CompletableFuture<List<Row>> apply(ResultSet rs) {
+				return fetchAll(rs, new ArrayList<Row>());
+			}
+		}).thenComposeAsync(new Function<List<Row>, CompletableFuture<Void>>() {
+			@Override
+			public CompletableFuture<Void> apply(List<Row> rows) {
+				BatchStatement batch = null;
+				try {
+					batch = ridao.generateUpdateBatch(dto, RelationalIntegrityDAO.toReferencesByOwner(dto.getTableName(), dto.getId(), rows));
+				} catch (Exception e) {
+					return failed(e);
+				}
+				if(batch.size() == 0){
+					return done();
+				}
+				return executeFollowUp(batch).thenApply(new Function<ResultSet, Void>() {
+					@Override
+					public Void apply(ResultSet rs) {
+						return null;
+					}
+				});
+			}
+		}, executor);
+	}
+
+	/**
+	 * Save (insert or update, as the saveOrUpdate() Method) all the [dtos] whit few round trips.
+	 * Only the writes of a same partition (the same routing key of the statement) are grouped, by
+	 * UNLOGGED batches of at most MAX_STATEMENTS_BY_BATCH statements, as the replicas apply a batch
+	 * of a single partition as a single mutation. The writes of distinct partitions, or whithout a
+	 * routing key, are executed as individual requests, so the token aware policy routes each one
+	 * directly to a replica of its partition. All the batches and individual requests are executed
+	 * concurrently, limited by the CassandraConfig maxRequestsInFlight.
+	 * A failed request dont stop the others: its objects stay whit the FAILED status, and the id
+	 * generated for a new object is cleared, so the object is inserted again when saved later.
+	 * The relational integrity of the updated objects is updated even when other objects failed.
+	 * Return the result of each object, on the same order of [dtos].
+	 */
+	public CompletableFuture<List<SaveResult>> saveAll(final Collection<? extends BaseDTO> dtos){
+		if(null==dtos){
+			return failed(new CassandraDataException(DTOS_PARAMETER_NULL_EXCEPTION));
+		}
+		final List<SaveResult> results = new ArrayList<SaveResult>();
+		final Set<SaveResult> inserts = new HashSet<SaveResult>();
+		final List<Statement> statements = new ArrayList<Statement>();
+		List<List<Integer>> writes = new ArrayList<List<Integer>>();
+		try {
+			Map<ByteBuffer, List<Integer>> partitions = new LinkedHashMap<ByteBuffer, List<Integer>>();
+			Set<String> checkedTables = new HashSet<String>();
+			Cluster cluster = csc.getSession().getCluster();
+			ProtocolVersion protocolVersion = cluster.getConfiguration().getProtocolOptions().getProtocolVersion();
+			CodecRegistry codecRegistry = cluster.getConfiguration().getCodecRegistry();
+			for(BaseDTO dto: dtos){
+				if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+					throw new CassandraDataException(TABLE_NAME_EMPTY_EXCEPTION);
+				}
+				if(checkedTables.add(dto.getTableName())){
+					dao.ensureTable(dto);
+				}
+				if(!(dto instanceof RelationalIntegrityDTO)){
+					dto.populateRelatedObjectsIdsJson();
+				}
+				SaveResult result = new SaveResult(dto);
+				results.add(result);
+				CqlStatement statement = null;
+				if(null!=dto.getId() && dto.getId().trim().length() > 0){
+					statement = DtoUtil.generateUpdateCQL(dto,null,null);
+				}else{
+					dto.generateId();
+					inserts.add(result);
+					statement = DtoUtil.generateInsertCQL(dto);
+				}
+				csc.logInfo(statement.toString());
+				BoundStatement bound = csc.bind(statement);
+				statements.add(bound);
+				Integer index = statements.size() - 1;
+				ByteBuffer routingKey = bound.getRoutingKey(protocolVersion, codecRegistry);
+				if(null==routingKey){
+					writes.add(Collections.singletonList(index));
+					continue;
+				}
+				List<Integer> partition = partitions.get(routingKey);
+				if(null==partition){
+					partition = new ArrayList<Integer>();
+					partitions.put(routingKey, partition);
+				}
+				partition.add(index);
+			}
+			for(List<Integer> partition: partitions.values()){
+				for(int start = 0; start < partition.size(); start += MAX_STATEMENTS_BY_BATCH){
+					writes.add(partition.subList(start, Math.min(start + MAX_STATEMENTS_BY_BATCH, partition.size())));
+				}
+			}
+		} catch (Exception e) {
+			for(SaveResult result: inserts){
+				result.getDto().setId(null);
+			}
+			return failed(e);
+		}
+		List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+		for(final List<Integer> write: writes){
+			Statement statement = null;
+			if(write.size() == 1){
+				statement = statements.get(write.get(0));
+			}else{
+				BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+				for(Integer index: write){
+					batch.add(statements.get(index));
+				}
+				statement = batch;
+			}
+			futures.add(executeAsync(statement).handle(new BiFunction<ResultSet, Throwable, Void>() {
+				@Override
+				public Void apply(ResultSet rs, Throwable t) {
+					for(Integer index: write){
+						SaveResult result = results.get(index);
+						if(null==t){
+							result.setStatus(inserts.contains(result) ? SaveStatus.INSERTED : SaveStatus.UPDATED);
+						}else{
+							result.setStatus(SaveStatus.FAILED);
+							result.setErrorMessage(getErrorMessage(t));
+							if(inserts.contains(result)){
+								result.getDto().setId(null);
+							}
+						}
+					}
+					return null;
+				}
+			}));
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+				.thenComposeAsync(new Function<Void, CompletableFuture<Void>>() {
+			@Override
+			public CompletableFuture<Void> apply(Void v) {
+				List<CompletableFuture<Void>> updates = new ArrayList<CompletableFuture<Void>>();
+				for(final SaveResult result: results){
+					if(result.getStatus() != SaveStatus.UPDATED || result.getDto() instanceof RelationalIntegrityDTO){
+						continue;
+					}
+					updates.add(updateRelationalIntegrity(result.getDto()).handle(new BiFunction<Void, Throwable, Void>() {
+						@Override
+						public Void apply(Void v, Throwable t) {
+							if(null!=t){
+								result.setErrorMessage(getErrorMessage(t));
+							}
+							return null;
+						}
+					}));
+				}
+				return CompletableFuture.allOf(updates.toArray(new CompletableFuture<?>[updates.size()]));
+			}
+		}, executor).thenApply(new Function<Void, List<SaveResult>>() {
+			@Override
+			public List<SaveResult> apply(Void v) {
+				return results;
+			}
+		});
+	}
+
+	/**
+	 * Return the message of the [t] error, whithout the CompletionException wrapper
+	 */
+	private static String getErrorMessage(Throwable t){
+		if(t instanceof CompletionException && null!=t.getCause()){
+			t = t.getCause();
+		}
+		return t.getMessage();
+	}
+
+	/**
+	 * Asynchronous BaseDAO.find(). The rows are read in pages of the CassandraConfig fetchSize,
+	 * each page converted before the next one is requested.
+	 */
+	public CompletableFuture<Collection<BaseDTO>> find(final BaseDTO dto, List<KeyValue> searchParameters){
+		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+			return failed(new CassandraDataException(TABLE_NAME_EMPTY_EXCEPTION));
+		}
+		CqlStatement statement = null;
+		try {
+			statement = DtoUtil.generateSelectCQL(dto,searchParameters);
+		} catch (Exception e) {
+			return failed(e);
+		}
+		return executeAsync(statement, csc.getFetchSize()).thenComposeAsync(new Function<ResultSet, CompletableFuture<Collection<BaseDTO>>>() {
+			@Override
+			public CompletableFuture<Collection<BaseDTO>> apply(ResultSet rs) {
+				return toDTOs(dto, rs, true, new ArrayList<BaseDTO>());
+			}
+		}, executor);
+	}
+
+	/**
+	 * Asynchronous BaseDAO.findById()
+	 */
+	public CompletableFuture<BaseDTO> findById(final BaseDTO dto, final boolean initializeRelatedObjects){
+		if(null==dto.getId() || dto.getId().trim().length() == 0){
+			return failed(new CassandraDataException(OBJECT_ID_PARAMETER_EMPTY_EXCEPTION));
+		}
+		CqlStatement statement = null;
+		try {
+			statement = DtoUtil.generateSelectCQL(dto,null);
+		} catch (Exception e) {
+			return failed(e);
+		}
+		return executeAsync(statement, 0).thenComposeAsync(new Function<ResultSet, CompletableFuture<Collection<BaseDTO>>>() {
+			@Override
+			public CompletableFuture<Collection<BaseDTO>> apply(ResultSet rs) {
+				return toDTOs(dto, rs, initializeRelatedObjects, new ArrayList<BaseDTO>());
+			}
+		}, executor).thenApply(new Function<Collection<BaseDTO>, BaseDTO>() {
+			@Override
+			public BaseDTO apply(Collection<BaseDTO> dtos) {
+				try {
+					return dao.uniqueResult(dto, dtos);
+				} catch (CassandraDataException cde) {
+					throw new CompletionException(cde);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous BaseDAO.deleteById(). The references to the [dto] are read by a request
+	 * whose permit is obtained on the caller thread, as on the other operations, and the DELETE
+	 * command is executed as a follow-up request after the relational integrity validation.
+	 */
+	public CompletableFuture<Void> deleteById(final BaseDTO dto){
+		if(null==dto.getId() || dto.getId().trim().length() == 0){
+			return failed(new CassandraDataException(OBJECT_ID_PARAMETER_EMPTY_EXCEPTION));
+		}
+		final Statement deleteBound;
+		Statement locksBound = null;
+		try {
+			CqlStatement statement = DtoUtil.generateDeleteCQL(dto,null);
+			csc.logInfo(statement.toString());
+			deleteBound = csc.bind(statement);
+			if(!(dto instanceof RelationalIntegrityDTO)){
+				RelationalIntegrityDAO.getInstance(csc).ensureTables();
+				CqlStatement locksStatement = RelationalIntegrityDAO.generateFindByRelatedCQL(dto);
+				csc.logInfo(locksStatement.toString());
+				locksBound = csc.bind(locksStatement);
+			}
+		} catch (Exception e) {
+			return failed(e);
+		}
+		CompletableFuture<ResultSet> deleted = null;
+		if(null==locksBound){
+			deleted = executeAsync(deleteBound);
+		}else{
+			deleted = executeAsync(locksBound).thenCompose(new Function<ResultSet, CompletableFuture<List<Row>>>() {
+				@Override
+				public CompletableFuture<List<Row>> apply(ResultSet rs) {
+					return fetchAll(rs, new ArrayList<Row>());
+				}
+			}).thenCompose(new Function<List<Row>, CompletableFuture<ResultSet>>() {
+				@Override
+				public CompletableFuture<ResultSet> apply(List<Row> rows) {
+					try {
+						BaseDAO.validateExclusion(dto, RelationalIntegrityDAO.toReferencesByRelated(dto, rows));
+					} catch (CassandraDataException cde) {
+						return failed(cde);
+					}
+					return executeFollowUp(deleteBound);
+				}
+			});
+		}
+		return deleted.thenApply(new Function<ResultSet, Void>() {
+			@Override
+			public Void apply(ResultSet rs) {
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Convert the rows of the actual page of the [rs] to objects of the [dto] class, added to the [dtos],
+	 * and initialize its related objects, before request the next page. Should be called on the thread pool.
+	 */
+	private CompletableFuture<Collection<BaseDTO>> toDTOs(final BaseDTO dto, final ResultSet rs, final boolean initializeRelatedObjects,
+			final Collection<BaseDTO> dtos){
+		List<BaseDTO> page = new ArrayList<BaseDTO>();
+		try {
+			int available = rs.getAvailableWithoutFetching();
+			for(int i = 0; i < available; i++){
+				page.add(dao.toDTO(dto, rs.one(), true, false));
+			}
+		} catch (Exception e) {
+			return failed(e);
+		}
+		dtos.addAll(page);
+		CompletableFuture<Void> related = (initializeRelatedObjects ? initializeRelatedObjects(page) : done());
+		if(rs.isFullyFetched()){
+			return related.thenApply(new Function<Void, Collection<BaseDTO>>() {
+				@Override
+				public Collection<BaseDTO> apply(Void v) {
+					return dtos;
+				}
+			});
+		}
+		return related.thenCompose(new Function<Void, CompletableFuture<ResultSet>>() {
+			@Override
+			public CompletableFuture<ResultSet> apply(Void v) {
+				return fetchMoreResults(rs);
+			}
+		}).thenComposeAsync(new Function<ResultSet, CompletableFuture<Collection<BaseDTO>>>() {
+			@Override
+			public CompletableFuture<Collection<BaseDTO>> apply(ResultSet next) {
+				return toDTOs(dto, rs, initializeRelatedObjects, dtos);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Initialize the related objects of the [dtos] as the BaseDTO.toDTO() Method does, each related
+	 * object read by a follow-up request. The related objects that could not be read are ignored.
+	 * Should be called on the thread pool.
+	 */
+	private CompletableFuture<Void> initializeRelatedObjects(Collection<BaseDTO> dtos){
+		List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+		for(final BaseDTO dto: dtos){
+			final List<CompletableFuture<BaseDTO>> reads = new ArrayList<CompletableFuture<BaseDTO>>();
+			for(KeyValue keyValue: dto.getRelatedObjectsIds()){
+				reads.add(findRelated(keyValue.getKey(), (String)keyValue.getValue()));
+			}
+			futures.add(CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[reads.size()])).handle(new BiFunction<Void, Throwable, Void>() {
+				@Override
+				public Void apply(Void v, Throwable t) {
+					List<KeyValue> relatedObjects = new ArrayList<KeyValue>();
+					for(int i = 0; i < reads.size(); i++){
+						KeyValue keyValue = dto.getRelatedObjectsIds().get(i);
+						try {
+							relatedObjects.add(new KeyValue(keyValue.getKey(), reads.get(i).join()));
+						} catch (CompletionException ce) {
+							csc.logWarn(RELATED_OBJECT_NOT_READ_WARNING + keyValue.getKey() + " " + keyValue.getValue() + " " + ce.getCause());
+						}
+					}
+					dto.setRelatedObjects(relatedObjects);
+					return null;
+				}
+			}));
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+	}
+
+	/**
+	 * Read the related object of the [className] class whit the [id] by a follow-up request
+	 */
+	private CompletableFuture<BaseDTO> findRelated(final String className, final String id){
+		final BaseDTO relatedDTO;
+		Statement bound = null;
+		try {
+			relatedDTO = Class.forName(className).asSubclass(BaseDTO.class).getDeclaredConstructor().newInstance();
+			relatedDTO.setId(id);
+			CqlStatement statement = DtoUtil.generateSelectCQL(relatedDTO,null);
+			csc.logInfo(statement.toString());
+			bound = csc.bind(statement);
+		} catch (Exception e) {
+			return failed(e);
+		}
+		return executeFollowUp(bound).thenCompose(new Function<ResultSet, CompletableFuture<List<Row>>>() {
+			@Override
+			public CompletableFuture<List<Row>> apply(ResultSet rs) {
+				return fetchAll(rs, new ArrayList<Row>());
+			}
+		}).thenApplyAsync(new Function<List<Row>, BaseDTO>() {
+			@Override
+			public BaseDTO apply(List<Row> rows) {
+				try {
+					Collection<BaseDTO> found = new ArrayList<BaseDTO>();
+					for(Row row: rows){
+						found.add(dao.toDTO(relatedDTO, row, true, false));
+					}
+					return dao.uniqueResult(relatedDTO, found);
+				} catch (Exception e) {
+					throw new CompletionException(toCassandraDataException(e));
+				}
+			}
+		}, executor);
+	}
+
+	/**
+	 * Shutdown the thread pool, after the execution of the operations already submitted
+	 */
+	public void shutdown(){
+		executor.shutdown();
+	}
+}
@@ -4,16 +4,21 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 import krug.daan.easynosql.cassandradb.config.CassandraConfig;
 import krug.daan.easynosql.cassandradb.dto.BaseDTO;
 import krug.daan.easynosql.cassandradb.dto.RelationalIntegrityDTO;
 import krug.daan.easynosql.cassandradb.exception.CassandraDataException;
+import krug.daan.easynosql.cassandradb.util.CqlStatement;
 import krug.daan.easynosql.cassandradb.util.DtoUtil;
 import krug.daan.easynosql.common.KeyValue;
 
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PagingState;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
+import com.datastax.driver.core.exceptions.PagingStateException;
 
 /**
  * @author Daniel Augusto Krug
@@ -64,14 +69,24 @@ public class BaseDAO {
 	private static final String RELATED_OBJECTS_INTEGRITY_EXCEPTION = "These Objects can not be deleted due to existing Relational Integrity: ";
 	
 	/**
-	 * Cassandra DB configuration Object
+	 * FETCH_SIZE_INVALID_EXCEPTION
 	 */
-	private CassandraConfig csc;
+	private static final String FETCH_SIZE_INVALID_EXCEPTION = "<fetchSize> parameter should be greater than zero.";
 	
 	/**
-	 * Already created tables
+	 * PAGE_SIZE_INVALID_EXCEPTION
 	 */
-	private List<String> existingTables;
+	private static final String PAGE_SIZE_INVALID_EXCEPTION = "<pageSize> parameter should be greater than zero.";
+	
+	/**
+	 * PAGING_STATE_INVALID_EXCEPTION
+	 */
+	private static final String PAGING_STATE_INVALID_EXCEPTION = "<pagingState> parameter is not a valid paging state for this search.";
+	
+	/**
+	 * Cassandra DB configuration Object
+	 */
+	private CassandraConfig csc;
 	
 	/**
 	 * Singleton instance
@@ -79,9 +94,10 @@ public class BaseDAO {
 	private static BaseDAO instance;
 	
 	/**
-	 * Return the singleton instance
+	 * Return the singleton instance. Synchronized, as the DAOs are shared by the
+	 * caller threads and by the AsyncBaseDAO callbacks.
 	 */
-	public static BaseDAO getInstance(CassandraConfig csc){
+	public static synchronized BaseDAO getInstance(CassandraConfig csc){
 		if(null==instance){
 			instance = new BaseDAO(csc);
 		}
@@ -94,7 +110,6 @@ public class BaseDAO {
 	protected BaseDAO(CassandraConfig csc){
 		this.csc = csc;
 		initializeDatabase();
-		existingTables = new ArrayList<String>();
 	}
 	
 	/**
@@ -102,7 +117,7 @@ public class BaseDAO {
 	 */
 	private void initializeDatabase(){
 		try {
-			CassandraDAO.getInstance(csc).createOrUpdateDatabase(csc.getDatabaseName(),csc.isNetworkStrategy(),csc.getReplicationFactor(),csc.isDurableWrites(),true,true);
+			CassandraDAO.getInstance(csc).ensureDatabase();
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -112,12 +127,68 @@ public class BaseDAO {
 			e.printStackTrace();
 		}
 		try {
-			CassandraDAO.getInstance(csc).createTable(new RelationalIntegrityDTO(), true);
+			RelationalIntegrityDAO.getInstance(csc).ensureTables();
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 	
+	/**
+	 * Execute the [statement] whit the values bound to the command prepared on the session
+	 */
+	protected ResultSet execute(CqlStatement statement){
+		csc.logInfo(statement.toString());
+		return csc.getSession().execute(csc.bind(statement));
+	}
+	
+	/**
+	 * Execute the [statement] whit the values bound to the command prepared on the session,
+	 * reading the result in pages of [fetchSize] rows
+	 */
+	private ResultSet execute(CqlStatement statement, int fetchSize){
+		csc.logInfo(statement.toString());
+		BoundStatement bound = csc.bind(statement);
+		bound.setFetchSize(fetchSize);
+		return csc.getSession().execute(bound);
+	}
+	
+	/**
+	 * Create a object of the [dto] class whit the [row] values
+	 */
+	BaseDTO toDTO(BaseDTO dto, Row row, boolean populateRelatedObjectsIds, boolean initializeRelatedObjects) 
+			throws InstantiationException, IllegalAccessException, InvocationTargetException, CassandraDataException{
+		BaseDTO dto2 = dto.getClass().newInstance();
+		DtoUtil.setValues(dto2,row);
+		if(populateRelatedObjectsIds || initializeRelatedObjects){
+			dto2.populateRelatedObjectsIds();
+		}
+		if(initializeRelatedObjects){
+			dto2.setRelatedObjects(new ArrayList<KeyValue>());
+			for(KeyValue keyValue: dto2.getRelatedObjectsIds()){
+				try {
+					@SuppressWarnings(value="all")
+					Class clazz = Class.forName(keyValue.getKey());
+					BaseDTO relatedDTO = (BaseDTO)clazz.newInstance();
+					relatedDTO.setId((String)keyValue.getValue());
+					BaseDTO dtoToAdd = findById(relatedDTO, false);
+					dto2.getRelatedObjects().add(new KeyValue(keyValue.getKey(), dtoToAdd));
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		return dto2;
+	}
+	
+	/**
+	 * Create the table of the [dto] class, if the SchemaRegistry dont know it yet
+	 */
+	void ensureTable(BaseDTO dto) throws CassandraDataException{
+		if(!csc.getSchemaRegistry().containsTable(csc.getDatabaseName(), DtoUtil.getTableName(dto))){
+			CassandraDAO.getInstance(csc).createTable(dto, true);
+		}
+	}
+	
 	/**
 	 * Creates a new Object.
 	 */
@@ -126,11 +197,7 @@ public class BaseDAO {
 			throw new CassandraDataException(TABLE_NAME_EMPTY_EXCEPTION);
 		}
 		try {
-			if(!existingTables.contains(dto.getTableName())){
-				if(CassandraDAO.getInstance(csc).createTable(dto, true)){
-					existingTables.add(dto.getTableName());
-				}
-			}
+			ensureTable(dto);
 			if(!(dto instanceof RelationalIntegrityDTO)){
 				dto.populateRelatedObjectsIdsJson();
 			}
@@ -139,9 +206,8 @@ public class BaseDAO {
 				return;
 			}
 			dto.generateId();
-			String query = DtoUtil.generateInsertCQL(dto);
-			csc.logInfo(query);
-			csc.getSession().execute(query);
+			CqlStatement statement = DtoUtil.generateInsertCQL(dto);
+			execute(statement);
 		} 
 		catch (CassandraDataException cde){
 			throw (cde);
@@ -151,6 +217,23 @@ public class BaseDAO {
 		}
 	}
 	
+	/**
+	 * Save (insert or update, as the saveOrUpdate() Method) all the [dtos] whit UNLOGGED batches 
+	 * of a same partition and individual requests, executed concurrently, as explained on the 
+	 * AsyncBaseDAO.saveAll() Method. Return the result of each object, on the same order of [dtos].
+	 */
+	public List<SaveResult> saveAll(Collection<? extends BaseDTO> dtos) throws CassandraDataException{
+		try {
+			return AsyncBaseDAO.getInstance(csc).saveAll(dtos).join();
+		} 
+		catch (CompletionException ce){
+			if(ce.getCause() instanceof CassandraDataException){
+				throw (CassandraDataException)ce.getCause();
+			}
+			throw new CassandraDataException(ce);
+		}
+	}
+	
 	/**
 	 * Update values of attributes of a one specific Object [dto].
 	 * The values will be updated according the actual values of a object.
@@ -160,9 +243,8 @@ public class BaseDAO {
 			throw new CassandraDataException(OBJECT_ID_PARAMETER_EMPTY_EXCEPTION);
 		}
 		try {
-			String query = DtoUtil.generateUpdateCQL(dto,null,null);
-			csc.logInfo(query);
-			csc.getSession().execute(query);
+			CqlStatement statement = DtoUtil.generateUpdateCQL(dto,null,null);
+			execute(statement);
 			if(!(dto instanceof RelationalIntegrityDTO)){
 				RelationalIntegrityDAO.getInstance(csc).updateRelationalIntegrityDTO(dto);
 			}
@@ -191,9 +273,8 @@ public class BaseDAO {
 			throw new CassandraDataException(UPDATE_PARAMETERS_EMPTY_EXCEPTION);
 		}
 		try {
-			String query = DtoUtil.generateUpdateCQL(dto,updateParameters,null);
-			csc.logInfo(query);
-			csc.getSession().execute(query);
+			CqlStatement statement = DtoUtil.generateUpdateCQL(dto,updateParameters,null);
+			execute(statement);
 			if(!(dto instanceof RelationalIntegrityDTO)){
 				RelationalIntegrityDAO.getInstance(csc).updateRelationalIntegrityDTO(dto);
 			}
@@ -227,9 +308,8 @@ public class BaseDAO {
 				return 0;
 			}
 			DtoUtil.setValues(dtos.iterator().next(),searchParameters);
-			String query = DtoUtil.generateUpdateCQL(dtos.iterator().next(),updateParameters,dtos);
-			csc.logInfo(query);
-			csc.getSession().execute(query);
+			CqlStatement statement = DtoUtil.generateUpdateCQL(dtos.iterator().next(),updateParameters,dtos);
+			execute(statement);
 			return dtos.size();
 		} 
 		catch (CassandraDataException cde){
@@ -262,31 +342,11 @@ public class BaseDAO {
 		}
 		try {
 			Collection<BaseDTO> dtos = new ArrayList<BaseDTO>();
-			String query = DtoUtil.generateSelectCQL(dto,searchParameters);
-			csc.logInfo(query);
-			ResultSet rs = csc.getSession().execute(query);
-			List<Row> rows = rs.all();
-			for(Row row : rows){
-				BaseDTO dto2 = dto.getClass().newInstance();
-				DtoUtil.setValues(dto2,row);
-				if(!forRelationsValidation){
-					dto2.populateRelatedObjectsIds();
-					// initialize related objects
-					dto2.setRelatedObjects(new ArrayList<KeyValue>());
-					for(KeyValue keyValue: dto2.getRelatedObjectsIds()){
-						try {
-							@SuppressWarnings(value="all")
-							Class clazz = Class.forName(keyValue.getKey());
-							BaseDTO relatedDTO = (BaseDTO)clazz.newInstance();
-							relatedDTO.setId((String)keyValue.getValue());
-							BaseDTO dtoToAdd = findById(relatedDTO, false);
-							dto2.getRelatedObjects().add(new KeyValue(keyValue.getKey(), dtoToAdd));
-						} catch (Exception e) {
-							e.printStackTrace();
-						}
-					}
-				}
-				dtos.add(dto2);
+			CqlStatement statement = DtoUtil.generateSelectCQL(dto,searchParameters);
+			ResultSet rs = execute(statement, csc.getFetchSize());
+			// the rows are mapped while the ResultSet fetches the pages, whithout a intermediate list
+			for(Row row : rs){
+				dtos.add(toDTO(dto, row, !forRelationsValidation, !forRelationsValidation));
 			}
 			return dtos;
 		} 
@@ -308,30 +368,10 @@ public class BaseDAO {
 		}
 		Collection<BaseDTO> dtos = new ArrayList<BaseDTO>();
 		try {
-			String query = DtoUtil.generateSelectCQL(dto,null);
-			csc.logInfo(query);
-			ResultSet rs = csc.getSession().execute(query);
-			List<Row> rows = rs.all();
-			for(Row row : rows){
-				BaseDTO dto2 = dto.getClass().newInstance();
-				DtoUtil.setValues(dto2,row);
-				dto2.populateRelatedObjectsIds();
-				if(initializeRelatedObjects){
-					dto2.setRelatedObjects(new ArrayList<KeyValue>());
-					for(KeyValue keyValue: dto2.getRelatedObjectsIds()){
-						try {
-							@SuppressWarnings(value="all")
-							Class clazz = Class.forName(keyValue.getKey());
-							BaseDTO relatedDTO = (BaseDTO)clazz.newInstance();
-							relatedDTO.setId((String)keyValue.getValue());
-							BaseDTO dtoToAdd = findById(relatedDTO, false);
-							dto2.getRelatedObjects().add(new KeyValue(keyValue.getKey(), dtoToAdd));
-						} catch (Exception e) {
-							e.printStackTrace();
-						}
-					}
-				}
-				dtos.add(dto2);
+			CqlStatement statement = DtoUtil.generateSelectCQL(dto,null);
+			ResultSet rs = execute(statement);
+			for(Row row : rs){
+				dtos.add(toDTO(dto, row, true, initializeRelatedObjects));
 			}
 		} 
 		catch (CassandraDataException cde){
@@ -340,6 +380,38 @@ public class BaseDAO {
 		catch (Exception e) {
 			throw new CassandraDataException(e);
 		}
+		return uniqueResult(dto, dtos);
+	}
+	
+	/**
+	 * Return the relational references of the [dto] to other objects, 
+	 * as stored by the saveOrUpdate() Method
+	 */
+	public Collection<RelationalIntegrityDTO> getReferencedByRelationalIntegrity(BaseDTO dto) throws CassandraDataException{
+		if(null==dto.getId() || dto.getId().trim().length() == 0){
+			throw new CassandraDataException(OBJECT_ID_PARAMETER_EMPTY_EXCEPTION);
+		}
+		return RelationalIntegrityDAO.getInstance(csc).getReferencedByRelationalIntegrity(dto);
+	}
+	
+	/**
+	 * Copy the relational references stored by the previous versions (on the table of the
+	 * RelationalIntegrityDTO class) to the relational integrity tables of this version.
+	 * The copy is never executed automatically: call it whit [dropLegacyTable] false while
+	 * processes of the previous versions are still running (a rolling upgrade), and whit
+	 * [dropLegacyTable] true once all processes run this version, so the references written
+	 * meanwhile are copied before the legacy table is dropped.
+	 * Return the number of copied references.
+	 */
+	public int migrateLegacyRelationalIntegrity(boolean dropLegacyTable) throws CassandraDataException{
+		return RelationalIntegrityDAO.getInstance(csc).migrateLegacyTable(dropLegacyTable);
+	}
+	
+	/**
+	 * Return the single object of a search by the [dto] "id", or throw a CassandraDataException
+	 * if the object dont exist or the "id" is duplicated
+	 */
+	BaseDTO uniqueResult(BaseDTO dto, Collection<BaseDTO> dtos) throws CassandraDataException{
 		if(dtos.size() == 0){
 			throw new CassandraDataException(GHOST_OBJECT_ID_EXCEPTION + " " + dto.getId());
 		}else if(dtos.size() > 1){
@@ -348,27 +420,101 @@ public class BaseDAO {
 		return dtos.iterator().next();
 	}
 	
+	/**
+	 * Return a cursor over the objects that matches whit the [searchParameters] values.
+	 * The rows are read from the server in pages of [fetchSize] rows, only when the cursor
+	 * reaches the end of the previous page, and are converted to objects one by one, so 
+	 * the memory used by the search is proportional to [fetchSize] and not to the result size.
+	 */
+	public BaseDTOCursor findCursor(BaseDTO dto,List<KeyValue> searchParameters, int fetchSize, boolean initializeRelatedObjects) 
+			throws CassandraDataException{
+		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+			throw new CassandraDataException(TABLE_NAME_EMPTY_EXCEPTION);
+		}
+		if(fetchSize <= 0){
+			throw new CassandraDataException(FETCH_SIZE_INVALID_EXCEPTION);
+		}
+		try {
+			CqlStatement statement = DtoUtil.generateSelectCQL(dto,searchParameters);
+			return new BaseDTOCursor(execute(statement, fetchSize), this, dto, initializeRelatedObjects);
+		} 
+		catch (CassandraDataException cde){
+			throw (cde);
+		}
+		catch (Exception e) {
+			throw new CassandraDataException(e);
+		}
+	}
+	
+	/**
+	 * Return a page of at most [pageSize] objects that matches whit the [searchParameters] values.
+	 * The first page is returned when [pagingState] is null, the next pages are obtained passing
+	 * the Page.getPagingState() value of the previous page, whit the same search parameters.
+	 * The paging state is kept by the client, so the search can be resumed by other instance.
+	 */
+	public Page findPage(BaseDTO dto,List<KeyValue> searchParameters, int pageSize, String pagingState, boolean initializeRelatedObjects) 
+			throws CassandraDataException{
+		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+			throw new CassandraDataException(TABLE_NAME_EMPTY_EXCEPTION);
+		}
+		if(pageSize <= 0){
+			throw new CassandraDataException(PAGE_SIZE_INVALID_EXCEPTION);
+		}
+		try {
+			CqlStatement statement = DtoUtil.generateSelectCQL(dto,searchParameters);
+			csc.logInfo(statement.toString());
+			BoundStatement bound = csc.bind(statement);
+			bound.setFetchSize(pageSize);
+			if(null!=pagingState){
+				bound.setPagingState(PagingState.fromString(pagingState));
+			}
+			ResultSet rs = csc.getSession().execute(bound);
+			List<BaseDTO> items = new ArrayList<BaseDTO>();
+			int available = rs.getAvailableWithoutFetching();
+			for(int i = 0; i < available; i++){
+				items.add(toDTO(dto, rs.one(), true, initializeRelatedObjects));
+			}
+			PagingState nextPagingState = rs.getExecutionInfo().getPagingState();
+			return new Page(items, (null!=nextPagingState ? nextPagingState.toString() : null));
+		} 
+		catch (PagingStateException pse){
+			throw new CassandraDataException(PAGING_STATE_INVALID_EXCEPTION);
+		}
+		catch (CassandraDataException cde){
+			throw (cde);
+		}
+		catch (Exception e) {
+			throw new CassandraDataException(e);
+		}
+	}
+	
 	/**
 	 * Validate the RelationalIntegrity objects from a BaseDTO that want be excluded,
 	 * if exists one or more RelationalIntegrity whit this object in other(s) object(s)
 	 * a CassandraDataException is throw.
 	 */
-	private void validateExclusion(BaseDTO dto) 
+	void validateExclusion(BaseDTO dto) 
 			throws InstantiationException, IllegalAccessException, InvocationTargetException, CassandraDataException{
 		if(!(dto instanceof RelationalIntegrityDTO)){
-			StringBuffer exclusionRestrictionsMsgs = new StringBuffer();
-			Collection<RelationalIntegrityDTO> ridtos = RelationalIntegrityDAO.getInstance(csc).getLockedByRelationalIntegrity(dto);
-			if(null!=ridtos && ridtos.size() > 0){
-				exclusionRestrictionsMsgs.append("\nObject class: " + dto.getClass().getName() + " Object _id: " +  dto.getId());
-				exclusionRestrictionsMsgs.append(" whit relational restrictions on:");
-				for(RelationalIntegrityDTO ridto: ridtos){
-					exclusionRestrictionsMsgs.append("\n\t class: " + ridto.getOwnerTableName() + " _id: " + ridto.getOwnerId());
-				}
-			}
-			if(exclusionRestrictionsMsgs.length() > 0){
-				throw new CassandraDataException(RELATED_OBJECTS_INTEGRITY_EXCEPTION + exclusionRestrictionsMsgs.toString());
+			validateExclusion(dto, RelationalIntegrityDAO.getInstance(csc).getLockedByRelationalIntegrity(dto));
+		}
+	}
+	
+	/**
+	 * Throw a CassandraDataException if exists one or more references [ridtos] to the [dto]
+	 */
+	static void validateExclusion(BaseDTO dto, Collection<RelationalIntegrityDTO> ridtos) throws CassandraDataException{
+		StringBuffer exclusionRestrictionsMsgs = new StringBuffer();
+		if(null!=ridtos && ridtos.size() > 0){
+			exclusionRestrictionsMsgs.append("\nObject class: " + dto.getClass().getName() + " Object _id: " +  dto.getId());
+			exclusionRestrictionsMsgs.append(" whit relational restrictions on:");
+			for(RelationalIntegrityDTO ridto: ridtos){
+				exclusionRestrictionsMsgs.append("\n\t class: " + ridto.getOwnerTableName() + " _id: " + ridto.getOwnerId());
 			}
 		}
+		if(exclusionRestrictionsMsgs.length() > 0){
+			throw new CassandraDataException(RELATED_OBJECTS_INTEGRITY_EXCEPTION + exclusionRestrictionsMsgs.toString());
+		}
 	}
 	
 	/**
@@ -380,9 +526,8 @@ public class BaseDAO {
 		}
 		try {
 			validateExclusion(dto);
-			String query = DtoUtil.generateDeleteCQL(dto,null);
-			csc.logInfo(query);
-			csc.getSession().execute(query);
+			CqlStatement statement = DtoUtil.generateDeleteCQL(dto,null);
+			execute(statement);
 		} 
 		catch (CassandraDataException cde){
 			throw (cde);
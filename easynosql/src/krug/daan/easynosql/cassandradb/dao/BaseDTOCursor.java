@@ -0,0 +1,91 @@
+package krug.daan.easynosql.cassandradb.dao;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import krug.daan.easynosql.cassandradb.dto.BaseDTO;
+
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Iterator over the objects returned by a search, backed by the driver ResultSet.
+ * The ResultSet reads the next page of rows from the server only when the rows of the 
+ * actual page ends, and each row is converted to a object only when requested, so the 
+ * memory used by the search is proportional to the fetch size and not to the result size.
+ */
+public class BaseDTOCursor implements Iterator<BaseDTO> {
+	
+	/**
+	 * The ResultSet of the search
+	 */
+	private ResultSet rs;
+	
+	/**
+	 * BaseDAO to convert the rows and read the related objects
+	 */
+	private BaseDAO dao;
+	
+	/**
+	 * Object of the class searched
+	 */
+	private BaseDTO dto;
+	
+	/**
+	 * If the related objects should be initialized
+	 */
+	private boolean initializeRelatedObjects;
+	
+	/**
+	 * Constructor
+	 */
+	BaseDTOCursor(ResultSet rs, BaseDAO dao, BaseDTO dto, boolean initializeRelatedObjects){
+		this.rs = rs;
+		this.dao = dao;
+		this.dto = dto;
+		this.initializeRelatedObjects = initializeRelatedObjects;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		return !rs.isExhausted();
+	}
+	
+	@Override
+	public BaseDTO next() {
+		Row row = rs.one();
+		if(null==row){
+			throw new NoSuchElementException();
+		}
+		try {
+			return dao.toDTO(dto, row, true, initializeRelatedObjects);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Return the number of objects that can be returned whithout read the next page
+	 */
+	public int getAvailableWithoutFetching() {
+		return rs.getAvailableWithoutFetching();
+	}
+	
+	/**
+	 * Return the paging state (as String) of the page after the last page read from the server, 
+	 * or null if all pages were read. Can be passed to the BaseDAO.findPage() Method to resume
+	 * the search after the objects returned by this cursor, once getAvailableWithoutFetching() is zero.
+	 */
+	public String getPagingState() {
+		PagingState pagingState = rs.getExecutionInfo().getPagingState();
+		return (null!=pagingState ? pagingState.toString() : null);
+	}
+	
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("remove");
+	}
+}
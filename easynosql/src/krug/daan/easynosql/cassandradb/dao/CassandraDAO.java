@@ -6,6 +6,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import krug.daan.easynosql.cassandradb.config.CassandraConfig;
+import krug.daan.easynosql.cassandradb.config.SchemaRegistry;
 import krug.daan.easynosql.cassandradb.dto.BaseDTO;
 import krug.daan.easynosql.cassandradb.exception.CassandraDataException;
 import krug.daan.easynosql.cassandradb.util.DtoUtil;
@@ -26,11 +27,6 @@ public class CassandraDAO {
 	 */
 	private CassandraConfig csc;
 	
-	/**
-	 * Cache of table names
-	 */
-	private List<String> existingTables;
-	
 	/**
 	 * Actual database name
 	 */
@@ -82,9 +78,10 @@ public class CassandraDAO {
 	private static CassandraDAO instance;
 	
 	/**
-	 * Return the singleton instance
+	 * Return the singleton instance. Synchronized, as the DAOs are shared by the
+	 * caller threads and by the AsyncBaseDAO callbacks.
 	 */
-	public static CassandraDAO getInstance(CassandraConfig csc){
+	public static synchronized CassandraDAO getInstance(CassandraConfig csc){
 		if(null==instance){
 			instance = new CassandraDAO(csc);
 		}
@@ -96,7 +93,6 @@ public class CassandraDAO {
 	 */
 	private CassandraDAO(CassandraConfig csc){
 		this.csc = csc;
-		this.existingTables = new ArrayList<String>();
 		this.databaseInUse = null;
 	}
 	
@@ -152,6 +148,7 @@ public class CassandraDAO {
 				String msg = "Database(keyspace) [" + dbName + "] could not be created, because already exists.";
 				if(ignoreIfAlreadyExists){
 					csc.logWarn(msg);
+					csc.getSchemaRegistry().addKeyspace(dbName);
 					return true;
 				}else{
 					throw new CassandraDataException(msg);
@@ -166,6 +163,7 @@ public class CassandraDAO {
 					throw new CassandraDataException(iqe);
 				}
 			}
+		    csc.getSchemaRegistry().addKeyspace(dbName);
 		    String msg = "Database(keyspace) [" + dbName + "] sucessfully "+ (createNew ? "created." : "updated.");
 		    csc.logInfo(msg);
 		    return true;
@@ -185,6 +183,7 @@ public class CassandraDAO {
 		try {
 			String query = "DROP KEYSPACE " + dbName + ";";
 			csc.getSession().execute(query);
+			csc.getSchemaRegistry().removeKeyspace(dbName);
 			csc.logInfo("Database(keyspace) [" + dbName + "] sucessfully deleted.");
 			return true;
 		} 
@@ -213,7 +212,6 @@ public class CassandraDAO {
 				csc.getSession().execute("USE " + dbName );
 			    csc.logInfo("Using database(keyspace) [" + dbName + "].");
 			    databaseInUse = dbName;
-			    existingTables = new ArrayList<String>();
 			}else{
 				csc.logInfo("Database(keyspace) [" + dbName + "] already is actually in use, no changes required.");
 			}
@@ -237,63 +235,76 @@ public class CassandraDAO {
 	}
 	
 	/**
-	 * Creates a new table according the received BaseDTO object
+	 * Creates the database (keyspace) of the CassandraConfig, if the SchemaRegistry dont know it yet.
+	 * The database is created (or verified) a single time by process.
+	 */
+	public boolean ensureDatabase() throws CassandraDataException{
+		SchemaRegistry registry = csc.getSchemaRegistry();
+		if(registry.containsKeyspace(csc.getDatabaseName())){
+			return true;
+		}
+		synchronized (registry.getCreationLock()) {
+			if(registry.containsKeyspace(csc.getDatabaseName())){
+				return true;
+			}
+			return createOrUpdateDatabase(csc.getDatabaseName(), csc.isNetworkStrategy(), csc.getReplicationFactor(), csc.isDurableWrites(), true, true);
+		}
+	}
+	
+	/**
+	 * Creates a new table according the received BaseDTO object, whit the indexes of the
+	 * attributes annotated whit SecondaryIndex. The existence of the table is verified on the
+	 * SchemaRegistry, and the creation is synchronized, so the table is created a single time by process.
+	 * The indexes of a existing table are verified too, so a SecondaryIndex added to the class
+	 * is created even when the table already exists.
 	 */
 	public boolean createTable(BaseDTO dto, boolean ignoreIfAlreadyExists) throws CassandraDataException{
 		try {
-			if(existingTables.contains(dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1))){
-				String msg = "Table [" +  dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1) + "] could not be created, because already exists.";
-				if(ignoreIfAlreadyExists){
-					csc.logWarn(msg);
-					return true;
-				}else{
-					throw new CassandraDataException(msg);
-				}
+			String tableName = DtoUtil.getTableName(dto);
+			SchemaRegistry registry = csc.getSchemaRegistry();
+			if(registry.containsTable(csc.getDatabaseName(), tableName)){
+				boolean exists = tableAlreadyExists(tableName, ignoreIfAlreadyExists);
+				ensureSecondaryIndexes(tableName, DtoUtil.generateTableMetadata(dto), registry);
+				return exists;
 			}
-			if(!createOrUpdateDatabase(csc.getDatabaseName(), csc.isNetworkStrategy(), csc.getReplicationFactor(), csc.isDurableWrites(), true, true)){
+			if(!ensureDatabase()){
 				return false;
 			}
 			if(!useDatabase(csc.getDatabaseName())){
 				return false;
 			}
-			try {
+			synchronized (registry.getCreationLock()) {
 				List<String[]> tableMetadata = DtoUtil.generateTableMetadata(dto);
-				String virgula = "";
-				StringBuffer query = new StringBuffer();
-				query.append("CREATE TABLE " + dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1) + "(");
-				for(String[] mData : tableMetadata){
-					query.append(virgula);
-					query.append(mData[0].trim());
-					query.append(" ");
-					query.append(mData[1].trim());
-					query.append(" ");
-					query.append(mData[2].trim());
-					virgula = ",";
-				}
-				query.append(");");
-				csc.getSession().execute(query.toString());
-			    csc.logInfo(query.toString());
-			    //
-			    for(String[] mData : tableMetadata){
-			    	String secondaryIndexesQuery = "";
-			    	if(mData[3].equals("true")){
-			    		secondaryIndexesQuery = " CREATE INDEX ON " + dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1) + "(" + mData[0].trim() + ")";
-			    	}
-			    	if(secondaryIndexesQuery.trim().length() > 0){
-				    	csc.getSession().execute(secondaryIndexesQuery);
-					    csc.logInfo(secondaryIndexesQuery);
-				    }
-			    }
-			}catch (AlreadyExistsException aee){
-				String msg = "Table [" +  dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1) + "] could not be created, because already exists.";
-				if(ignoreIfAlreadyExists){
-					csc.logError(msg);
-					return true;
-				}else{
-					throw new CassandraDataException(msg);
+				if(registry.containsTable(csc.getDatabaseName(), tableName)){
+					boolean exists = tableAlreadyExists(tableName, ignoreIfAlreadyExists);
+					ensureSecondaryIndexes(tableName, tableMetadata, registry);
+					return exists;
 				}
-			} 
-			existingTables.add(dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1));
+				try {
+					String virgula = "";
+					StringBuffer query = new StringBuffer();
+					query.append("CREATE TABLE " + tableName + "(");
+					for(String[] mData : tableMetadata){
+						query.append(virgula);
+						query.append(mData[0].trim());
+						query.append(" ");
+						query.append(mData[1].trim());
+						query.append(" ");
+						query.append(mData[2].trim());
+						virgula = ",";
+					}
+					query.append(");");
+					csc.getSession().execute(query.toString());
+				    csc.logInfo(query.toString());
+				}catch (AlreadyExistsException aee){
+					if(!ignoreIfAlreadyExists){
+						throw new CassandraDataException("Table [" + tableName + "] could not be created, because already exists.");
+					}
+					csc.logWarn("Table [" + tableName + "] already exists, verifying the indexes.");
+				} 
+				registry.addTable(csc.getDatabaseName(), tableName);
+				ensureSecondaryIndexes(tableName, tableMetadata, registry);
+			}
 			return true;
 		} 
 		catch (CassandraDataException cde) {
@@ -304,6 +315,44 @@ public class CassandraDAO {
 		}
 	}
 	
+	/**
+	 * Creates the indexes of the [tableMetadata] columns marked as SecondaryIndex that the
+	 * SchemaRegistry dont know yet. The verification dont lock, only the creation is synchronized.
+	 */
+	private void ensureSecondaryIndexes(String tableName, List<String[]> tableMetadata, SchemaRegistry registry){
+		List<String> missingIndexes = new ArrayList<String>();
+		for(String[] mData : tableMetadata){
+			if(mData[3].equals("true") && !registry.containsIndex(csc.getDatabaseName(), tableName, mData[0].trim())){
+				missingIndexes.add(mData[0].trim());
+			}
+		}
+		if(missingIndexes.size() == 0){
+			return;
+		}
+		synchronized (registry.getCreationLock()) {
+			for(String column : missingIndexes){
+				if(!registry.containsIndex(csc.getDatabaseName(), tableName, column)){
+					String secondaryIndexesQuery = " CREATE INDEX IF NOT EXISTS ON " + csc.getDatabaseName() + "." + tableName + "(" + column + ")";
+					csc.getSession().execute(secondaryIndexesQuery);
+					csc.logInfo(secondaryIndexesQuery);
+					registry.addIndex(csc.getDatabaseName(), tableName, column);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Handle the creation of a [tableName] table that already exists
+	 */
+	private boolean tableAlreadyExists(String tableName, boolean ignoreIfAlreadyExists) throws CassandraDataException{
+		String msg = "Table [" + tableName + "] could not be created, because already exists.";
+		if(ignoreIfAlreadyExists){
+			csc.logWarn(msg);
+			return true;
+		}
+		throw new CassandraDataException(msg);
+	}
+	
 	/**
 	 * Drop a existing table, respective a received BaseDTO object
 	 */
@@ -316,9 +365,7 @@ public class CassandraDAO {
 				String query = "DROP TABLE " + dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1) + ";";
 				csc.getSession().execute(query);
 			    csc.logInfo("TABLE [" + dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1) + "] sucessfully dropped.");
-			    if(existingTables.contains(dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1))){
-			    	existingTables.remove(dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1));
-			    }
+			    csc.getSchemaRegistry().removeTable(csc.getDatabaseName(), DtoUtil.getTableName(dto));
 			    return true;
 			}catch(InvalidQueryException iqe){
 				if(donothingOnError(iqe,UNCONFIGURED_TABLE_REGEX)){
@@ -420,6 +467,9 @@ public class CassandraDAO {
 					throw new CassandraDataException(iqe);
 				}
 			}
+			if(!toDrop){
+				csc.getSchemaRegistry().addIndex(csc.getDatabaseName(), DtoUtil.getTableName(dto), attrName);
+			}
 			String msg = "Index [" + attrName + "] on TABLE [" +  dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1) + "] sucessfully " + (!toDrop ? "created." : "dropped.");
 			csc.logInfo(msg);
 			return true;
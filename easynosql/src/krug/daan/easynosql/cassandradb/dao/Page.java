@@ -0,0 +1,54 @@
+package krug.daan.easynosql.cassandradb.dao;
+
+import java.util.List;
+
+import krug.daan.easynosql.cassandradb.dto.BaseDTO;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * A page of objects returned by the BaseDAO.findPage() Method, whit the paging state
+ * to obtain the next page.
+ */
+public class Page {
+
+	/**
+	 * The objects of the page
+	 */
+	private List<BaseDTO> items;
+
+	/**
+	 * The paging state of the next page, null when this is the last page
+	 */
+	private String pagingState;
+
+	/**
+	 * Constructor
+	 */
+	Page(List<BaseDTO> items, String pagingState){
+		this.items = items;
+		this.pagingState = pagingState;
+	}
+
+	/**
+	 * @return the objects of the page
+	 */
+	public List<BaseDTO> getItems() {
+		return items;
+	}
+
+	/**
+	 * @return the driver paging state (as String) to be passed to the BaseDAO.findPage() 
+	 * Method to obtain the next page, or null when this is the last page
+	 */
+	public String getPagingState() {
+		return pagingState;
+	}
+
+	/**
+	 * @return true if there is a next page
+	 */
+	public boolean hasNextPage() {
+		return (null!=pagingState);
+	}
+}
@@ -3,20 +3,61 @@ package krug.daan.easynosql.cassandradb.dao;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import krug.daan.easynosql.cassandradb.config.CassandraConfig;
+import krug.daan.easynosql.cassandradb.config.SchemaRegistry;
 import krug.daan.easynosql.cassandradb.dto.BaseDTO;
 import krug.daan.easynosql.cassandradb.dto.RelationalIntegrityDTO;
 import krug.daan.easynosql.cassandradb.exception.CassandraDataException;
+import krug.daan.easynosql.cassandradb.util.CqlStatement;
+import krug.daan.easynosql.cassandradb.util.DtoUtil;
 import krug.daan.easynosql.common.KeyValue;
 
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+
 /**
  * @author Daniel Augusto Krug
- * 
- * Class to handle the persistence of relational references between two objects
+ *
+ * Class to handle the persistence of relational references between two objects.
+ * Each reference is stored on two tables: RELATED_TABLE, partitioned by the related object,
+ * and OWNER_TABLE, partitioned by the owner object. So the verification if a object can be
+ * deleted and the search of the objects referenced by a object are single partition reads.
+ * Both tables are always changed together, by LOGGED batches, to keep them in sync.
+ * The references stored on the table of the RelationalIntegrityDTO class, by the previous
+ * versions, are migrated to both tables only by a explicit migrateLegacyTable() call, as the
+ * processes of the previous versions may still write that table during a rolling upgrade.
  */
-class RelationalIntegrityDAO extends BaseDAO{
+class RelationalIntegrityDAO {
+	
+	/**
+	 * Table of the references, partitioned by the related object
+	 */
+	private static final String RELATED_TABLE = "RelationalIntegrityByRelated";
+	
+	/**
+	 * Table of the references, partitioned by the owner object
+	 */
+	private static final String OWNER_TABLE = "RelationalIntegrityByOwner";
+	
+	/**
+	 * Table of the references stored by the previous versions (the table of the RelationalIntegrityDTO class)
+	 */
+	private static final String LEGACY_TABLE = DtoUtil.getTableName(new RelationalIntegrityDTO());
+	
+	/**
+	 * Maximum number of references by LOGGED batch on the migration of the LEGACY_TABLE
+	 */
+	private static final int MIGRATION_BATCH_SIZE = 50;
+	
+	/**
+	 * Cassandra DB configuration Object
+	 */
+	private CassandraConfig csc;
 	
 	/**
 	 * Singleton instance
@@ -24,9 +65,10 @@ class RelationalIntegrityDAO extends BaseDAO{
 	private static RelationalIntegrityDAO instance;
 	
 	/**
-	 * Return the Singleton instance
+	 * Return the Singleton instance. Synchronized, as the DAOs are shared by the
+	 * caller threads and by the AsyncBaseDAO callbacks.
 	 */
-	public static RelationalIntegrityDAO getInstance(CassandraConfig csc){
+	public static synchronized RelationalIntegrityDAO getInstance(CassandraConfig csc){
 		if(null==instance){
 			instance = new RelationalIntegrityDAO(csc);
 		}
@@ -37,70 +79,341 @@ class RelationalIntegrityDAO extends BaseDAO{
 	 * Constructor
 	 */
 	private RelationalIntegrityDAO(CassandraConfig csc){
-		super(csc);
+		this.csc = csc;
+	}
+	
+	/**
+	 * Create the RELATED_TABLE and OWNER_TABLE tables, if the SchemaRegistry dont know them yet
+	 */
+	public void ensureTables() throws CassandraDataException{
+		ensureTable(RELATED_TABLE, RelationalIntegrityDTO.RELATED_TABLE_NAME, RelationalIntegrityDTO.RELATED_ID,
+				RelationalIntegrityDTO.OWNER_TABLE_NAME, RelationalIntegrityDTO.OWNER_ID);
+		ensureTable(OWNER_TABLE, RelationalIntegrityDTO.OWNER_TABLE_NAME, RelationalIntegrityDTO.OWNER_ID,
+				RelationalIntegrityDTO.RELATED_TABLE_NAME, RelationalIntegrityDTO.RELATED_ID);
+	}
+	
+	/**
+	 * Copy the references of the LEGACY_TABLE, if it still exists, to the RELATED_TABLE and OWNER_TABLE
+	 * tables, and drop the LEGACY_TABLE when [dropLegacyTable] is true. The copy can be repeated, to
+	 * copy the references written by the processes of the previous versions during a rolling upgrade,
+	 * but it also copies again a reference removed from the new tables that is still on the LEGACY_TABLE.
+	 * So the LEGACY_TABLE should be dropped by the last migration, when no process of the previous
+	 * versions is running. The table is dropped only after all references are copied, so a failed
+	 * migration can be repeated. Executed synchronized whit the creation of the tables.
+	 * Return the number of copied references.
+	 */
+	public int migrateLegacyTable(boolean dropLegacyTable) throws CassandraDataException{
+		ensureTables();
+		SchemaRegistry registry = csc.getSchemaRegistry();
+		if(!registry.containsTable(csc.getDatabaseName(), LEGACY_TABLE)){
+			return 0;
+		}
+		synchronized (registry.getCreationLock()) {
+			if(!registry.containsTable(csc.getDatabaseName(), LEGACY_TABLE)){
+				return 0;
+			}
+			try {
+				ResultSet rs = execute(new CqlStatement("SELECT " + RelationalIntegrityDTO.OWNER_TABLE_NAME + ","
+						+ RelationalIntegrityDTO.OWNER_ID + "," + RelationalIntegrityDTO.RELATED_TABLE_NAME + ","
+						+ RelationalIntegrityDTO.RELATED_ID + " FROM " + csc.getDatabaseName() + "." + LEGACY_TABLE + ";",
+						new ArrayList<Object>()));
+				int migrated = 0;
+				BatchStatement batch = new BatchStatement(BatchStatement.Type.LOGGED);
+				for(Row row: rs){
+					RelationalIntegrityDTO ridto = toRelationalIntegrityDTO(row.getString(RelationalIntegrityDTO.OWNER_TABLE_NAME),
+							row.getString(RelationalIntegrityDTO.OWNER_ID), row.getString(RelationalIntegrityDTO.RELATED_TABLE_NAME),
+							row.getString(RelationalIntegrityDTO.RELATED_ID));
+					if(null==ridto.getOwnerTableName() || null==ridto.getOwnerId() 
+							|| null==ridto.getRelatedTableName() || null==ridto.getRelatedId()){
+						continue;
+					}
+					addToBatch(batch, ridto, false);
+					migrated ++;
+					if(batch.size() == 2 * MIGRATION_BATCH_SIZE){
+						csc.getSession().execute(batch);
+						batch = new BatchStatement(BatchStatement.Type.LOGGED);
+					}
+				}
+				if(batch.size() > 0){
+					csc.getSession().execute(batch);
+				}
+				csc.logInfo(migrated + " relational references migrated from the table [" + LEGACY_TABLE + "].");
+				if(dropLegacyTable){
+					String query = "DROP TABLE IF EXISTS " + csc.getDatabaseName() + "." + LEGACY_TABLE + ";";
+					csc.getSession().execute(query);
+					csc.logInfo(query);
+					registry.removeTable(csc.getDatabaseName(), LEGACY_TABLE);
+				}
+				return migrated;
+			}
+			catch (Exception e) {
+				throw new CassandraDataException(e);
+			}
+		}
+	}
+	
+	/**
+	 * Create the [tableName] table, partitioned by the [partitionTableName] and [partitionId] columns
+	 * and clustered by the [clusteringTableName] and [clusteringId] columns
+	 */
+	private void ensureTable(String tableName, String partitionTableName, String partitionId,
+			String clusteringTableName, String clusteringId) throws CassandraDataException{
+		SchemaRegistry registry = csc.getSchemaRegistry();
+		if(registry.containsTable(csc.getDatabaseName(), tableName)){
+			return;
+		}
+		if(!CassandraDAO.getInstance(csc).ensureDatabase() || !CassandraDAO.getInstance(csc).useDatabase(csc.getDatabaseName())){
+			return;
+		}
+		synchronized (registry.getCreationLock()) {
+			if(registry.containsTable(csc.getDatabaseName(), tableName)){
+				return;
+			}
+			try {
+				String query = "CREATE TABLE IF NOT EXISTS " + tableName + "("
+						+ partitionTableName + " text," + partitionId + " text,"
+						+ clusteringTableName + " text," + clusteringId + " text,"
+						+ "PRIMARY KEY ((" + partitionTableName + "," + partitionId + "),"
+						+ clusteringTableName + "," + clusteringId + "));";
+				csc.getSession().execute(query);
+				csc.logInfo(query);
+				registry.addTable(csc.getDatabaseName(), tableName);
+			}
+			catch (Exception e) {
+				throw new CassandraDataException(e);
+			}
+		}
+	}
+	
+	/**
+	 * Execute the [statement] whit the values bound to the command prepared on the session
+	 */
+	private ResultSet execute(CqlStatement statement){
+		csc.logInfo(statement.toString());
+		return csc.getSession().execute(csc.bind(statement));
+	}
+	
+	/**
+	 * Add to the [batch] the statements to insert (or delete, if [toDelete]) the
+	 * [ridto] reference on both tables
+	 */
+	private void addToBatch(BatchStatement batch, RelationalIntegrityDTO ridto, boolean toDelete){
+		List<Object> byRelatedValues = new ArrayList<Object>();
+		byRelatedValues.add(ridto.getRelatedTableName());
+		byRelatedValues.add(ridto.getRelatedId());
+		byRelatedValues.add(ridto.getOwnerTableName());
+		byRelatedValues.add(ridto.getOwnerId());
+		List<Object> byOwnerValues = new ArrayList<Object>();
+		byOwnerValues.add(ridto.getOwnerTableName());
+		byOwnerValues.add(ridto.getOwnerId());
+		byOwnerValues.add(ridto.getRelatedTableName());
+		byOwnerValues.add(ridto.getRelatedId());
+		CqlStatement byRelated = null;
+		CqlStatement byOwner = null;
+		if(toDelete){
+			byRelated = new CqlStatement("DELETE FROM " + RELATED_TABLE + " WHERE " + RelationalIntegrityDTO.RELATED_TABLE_NAME + " = ? AND "
+					+ RelationalIntegrityDTO.RELATED_ID + " = ? AND " + RelationalIntegrityDTO.OWNER_TABLE_NAME + " = ? AND "
+					+ RelationalIntegrityDTO.OWNER_ID + " = ?;", byRelatedValues);
+			byOwner = new CqlStatement("DELETE FROM " + OWNER_TABLE + " WHERE " + RelationalIntegrityDTO.OWNER_TABLE_NAME + " = ? AND "
+					+ RelationalIntegrityDTO.OWNER_ID + " = ? AND " + RelationalIntegrityDTO.RELATED_TABLE_NAME + " = ? AND "
+					+ RelationalIntegrityDTO.RELATED_ID + " = ?;", byOwnerValues);
+		}else{
+			byRelated = new CqlStatement("INSERT INTO " + RELATED_TABLE + "(" + RelationalIntegrityDTO.RELATED_TABLE_NAME + ","
+					+ RelationalIntegrityDTO.RELATED_ID + "," + RelationalIntegrityDTO.OWNER_TABLE_NAME + ","
+					+ RelationalIntegrityDTO.OWNER_ID + ") values (?,?,?,?);", byRelatedValues);
+			byOwner = new CqlStatement("INSERT INTO " + OWNER_TABLE + "(" + RelationalIntegrityDTO.OWNER_TABLE_NAME + ","
+					+ RelationalIntegrityDTO.OWNER_ID + "," + RelationalIntegrityDTO.RELATED_TABLE_NAME + ","
+					+ RelationalIntegrityDTO.RELATED_ID + ") values (?,?,?,?);", byOwnerValues);
+		}
+		csc.logInfo(byRelated.toString());
+		csc.logInfo(byOwner.toString());
+		batch.add(csc.bind(byRelated));
+		batch.add(csc.bind(byOwner));
+	}
+	
+	/**
+	 * Create a RelationalIntegrityDTO whit the values of a reference
+	 */
+	private static RelationalIntegrityDTO toRelationalIntegrityDTO(String ownerTableName, String ownerId,
+			String relatedTableName, String relatedId){
+		RelationalIntegrityDTO ridto = new RelationalIntegrityDTO();
+		ridto.setOwnerTableName(ownerTableName);
+		ridto.setOwnerId(ownerId);
+		ridto.setRelatedTableName(relatedTableName);
+		ridto.setRelatedId(relatedId);
+		return ridto;
+	}
+	
+	/**
+	 * Return the references whose owner is the object whit the [ownerTableName] and [ownerId],
+	 * read from the single partition of the owner
+	 */
+	private List<RelationalIntegrityDTO> findByOwner(String ownerTableName, String ownerId){
+		return toReferencesByOwner(ownerTableName, ownerId, execute(generateFindByOwnerCQL(ownerTableName, ownerId)));
+	}
+	
+	/**
+	 * Create the command that reads the references whose owner is the object whit the [ownerTableName] and [ownerId]
+	 */
+	static CqlStatement generateFindByOwnerCQL(String ownerTableName, String ownerId){
+		List<Object> values = new ArrayList<Object>();
+		values.add(ownerTableName);
+		values.add(ownerId);
+		return new CqlStatement("SELECT * FROM " + OWNER_TABLE + " WHERE " + RelationalIntegrityDTO.OWNER_TABLE_NAME
+				+ " = ? AND " + RelationalIntegrityDTO.OWNER_ID + " = ?;", values);
+	}
+	
+	/**
+	 * Convert the [rows] read by the generateFindByOwnerCQL() command to references
+	 */
+	static List<RelationalIntegrityDTO> toReferencesByOwner(String ownerTableName, String ownerId, Iterable<Row> rows){
+		List<RelationalIntegrityDTO> ridtos = new ArrayList<RelationalIntegrityDTO>();
+		for(Row row: rows){
+			ridtos.add(toRelationalIntegrityDTO(ownerTableName, ownerId,
+					row.getString(RelationalIntegrityDTO.RELATED_TABLE_NAME), row.getString(RelationalIntegrityDTO.RELATED_ID)));
+		}
+		return ridtos;
+	}
+	
+	/**
+	 * Create the command that reads the references to the [dto]
+	 */
+	static CqlStatement generateFindByRelatedCQL(BaseDTO dto){
+		List<Object> values = new ArrayList<Object>();
+		values.add(dto.getTableName());
+		values.add(dto.getId());
+		return new CqlStatement("SELECT * FROM " + RELATED_TABLE + " WHERE " + RelationalIntegrityDTO.RELATED_TABLE_NAME
+				+ " = ? AND " + RelationalIntegrityDTO.RELATED_ID + " = ?;", values);
+	}
+	
+	/**
+	 * Convert the [rows] read by the generateFindByRelatedCQL() command to references
+	 */
+	static Collection<RelationalIntegrityDTO> toReferencesByRelated(BaseDTO dto, Iterable<Row> rows){
+		Collection<RelationalIntegrityDTO> ridtos = new ArrayList<RelationalIntegrityDTO>();
+		for(Row row: rows){
+			ridtos.add(toRelationalIntegrityDTO(row.getString(RelationalIntegrityDTO.OWNER_TABLE_NAME),
+					row.getString(RelationalIntegrityDTO.OWNER_ID), dto.getTableName(), dto.getId()));
+		}
+		return ridtos;
 	}
 	
 	/**
 	 * Updates the [RelationalIntegrityDTO] associated whit the
-	 * [dto]. RelationalIntegrityDTO are used to control if a 
+	 * [dto]. RelationalIntegrityDTO are used to control if a
 	 * [BaseDTO] can be deleted or not. If a BaseDTO 'DTO'  is
-	 * present in one or more RelationalIntegrityDTO object(s) 
+	 * present in one or more RelationalIntegrityDTO object(s)
 	 * that the owner is other(s) BaseDTO(s) object(s), then
-	 * exists a Relational Integrity between these Objects 
+	 * exists a Relational Integrity between these Objects
 	 * and 'DTO' will not be deleted to maintain
 	 * the integrity of references.
+	 * Only the references added or removed since the last update are written.
 	 */
-	public void updateRelationalIntegrityDTO(BaseDTO dto) 
+	public void updateRelationalIntegrityDTO(BaseDTO dto)
 			throws InstantiationException, IllegalAccessException,InvocationTargetException, CassandraDataException{
-		List<KeyValue> searchParameters = new ArrayList<KeyValue>();
-		searchParameters.add(new KeyValue(RelationalIntegrityDTO.OWNER_ID,dto.getId()));
-		searchParameters.add(new KeyValue(RelationalIntegrityDTO.OWNER_TABLE_NAME,dto.getTableName()));
-		deleteAll(new RelationalIntegrityDTO(), searchParameters);
-		if(null!=dto.getRelatedObjectsIds() && dto.getRelatedObjectsIds().size() > 0){
-			List<RelationalIntegrityDTO> newRelations = new ArrayList<RelationalIntegrityDTO>();
+		try {
+			ensureTables();
+			BatchStatement batch = generateUpdateBatch(dto, findByOwner(dto.getTableName(), dto.getId()));
+			if(batch.size() > 0){
+				csc.getSession().execute(batch);
+			}
+		}
+		catch (CassandraDataException cde){
+			throw (cde);
+		}
+		catch (Exception e) {
+			throw new CassandraDataException(e);
+		}
+	}
+	
+	/**
+	 * Create the LOGGED batch that adds the references of the [dto] not in [existing], and
+	 * removes the [existing] references that the [dto] dont have anymore
+	 */
+	BatchStatement generateUpdateBatch(BaseDTO dto, Collection<RelationalIntegrityDTO> existing){
+		Set<String> newRelations = new LinkedHashSet<String>();
+		BatchStatement batch = new BatchStatement(BatchStatement.Type.LOGGED);
+		if(null!=dto.getRelatedObjectsIds()){
 			for(KeyValue keyValue: dto.getRelatedObjectsIds()){
-				RelationalIntegrityDTO ridto = new RelationalIntegrityDTO();
-				ridto.setOwnerId(dto.getId());
-				ridto.setOwnerTableName(dto.getTableName());
-				ridto.setRelatedTableName(keyValue.getKey());
-				ridto.setRelatedId((String)keyValue.getValue());
-				newRelations.add(ridto);
+				newRelations.add(keyValue.getKey() + "," + keyValue.getValue());
+			}
+		}
+		Set<String> existingRelations = new LinkedHashSet<String>();
+		for(RelationalIntegrityDTO ridto: existing){
+			existingRelations.add(ridto.getRelatedTableName() + "," + ridto.getRelatedId());
+			if(!newRelations.contains(ridto.getRelatedTableName() + "," + ridto.getRelatedId())){
+				addToBatch(batch, ridto, true);
 			}
-			if(newRelations.size() > 0){
-				for(RelationalIntegrityDTO ridto: newRelations){
-					saveOrUpdate(ridto);
+		}
+		if(null!=dto.getRelatedObjectsIds()){
+			for(KeyValue keyValue: dto.getRelatedObjectsIds()){
+				if(existingRelations.add(keyValue.getKey() + "," + keyValue.getValue())){
+					addToBatch(batch, toRelationalIntegrityDTO(dto.getTableName(), dto.getId(),
+							keyValue.getKey(), (String)keyValue.getValue()), false);
 				}
 			}
 		}
+		return batch;
 	}
 	
 	/**
-	 * Remove the [relationalIntegrityDTO] objects that matches whit [relationalIntegrities]
+	 * Remove the references whose owner matches whit [relationalIntegrities]
+	 * (KeyValue of owner table name and owner id)
 	 */
 	public void removeRelationalIntegrityDTO(List<KeyValue> relationalIntegrities) throws CassandraDataException{
-		for(KeyValue keyValue: relationalIntegrities){
-			List<KeyValue> searchParameters = new ArrayList<KeyValue>();
-			searchParameters.add(new KeyValue(RelationalIntegrityDTO.OWNER_ID,keyValue.getValue()));
-			searchParameters.add(new KeyValue(RelationalIntegrityDTO.OWNER_TABLE_NAME,keyValue.getKey()));
-			deleteAll(new RelationalIntegrityDTO(), searchParameters);
+		try {
+			ensureTables();
+			BatchStatement batch = new BatchStatement(BatchStatement.Type.LOGGED);
+			for(KeyValue keyValue: relationalIntegrities){
+				for(RelationalIntegrityDTO ridto: findByOwner(keyValue.getKey(), (String)keyValue.getValue())){
+					addToBatch(batch, ridto, true);
+				}
+			}
+			if(batch.size() > 0){
+				csc.getSession().execute(batch);
+			}
+		}
+		catch (CassandraDataException cde){
+			throw (cde);
+		}
+		catch (Exception e) {
+			throw new CassandraDataException(e);
 		}
 	}
 	
 	/**
 	 * Verify if a object can be deleted by Relational Integrity Rule,
 	 * as explained farther up in [updateRelationalIntegrityDTO] method.
+	 * Return the references to the [dto], read from the single partition of the [dto].
 	 */
-	public Collection<RelationalIntegrityDTO> getLockedByRelationalIntegrity(BaseDTO dto) 
+	public Collection<RelationalIntegrityDTO> getLockedByRelationalIntegrity(BaseDTO dto)
 			throws InstantiationException, IllegalAccessException, InvocationTargetException, CassandraDataException{
-		List<KeyValue> searchParameters = new ArrayList<KeyValue>();
-		searchParameters.add(new KeyValue(RelationalIntegrityDTO.RELATED_ID,dto.getId()));
-		searchParameters.add(new KeyValue(RelationalIntegrityDTO.RELATED_TABLE_NAME,dto.getTableName()));
-		Collection<BaseDTO> dtos =  find(new RelationalIntegrityDTO(), searchParameters);
-		Collection<RelationalIntegrityDTO> ridtos = new ArrayList<RelationalIntegrityDTO>();
-		for(BaseDTO dto2 : dtos){
-			ridtos.add((RelationalIntegrityDTO)dto2);
+		try {
+			ensureTables();
+			return toReferencesByRelated(dto, execute(generateFindByRelatedCQL(dto)));
+		}
+		catch (CassandraDataException cde){
+			throw (cde);
+		}
+		catch (Exception e) {
+			throw new CassandraDataException(e);
 		}
-		return ridtos;
 	}
-
+	
+	/**
+	 * Return the references of the [dto] to other objects, read from the single partition of the [dto]
+	 */
+	public Collection<RelationalIntegrityDTO> getReferencedByRelationalIntegrity(BaseDTO dto) throws CassandraDataException{
+		try {
+			ensureTables();
+			return findByOwner(dto.getTableName(), dto.getId());
+		}
+		catch (CassandraDataException cde){
+			throw (cde);
+		}
+		catch (Exception e) {
+			throw new CassandraDataException(e);
+		}
+	}
+	
 }
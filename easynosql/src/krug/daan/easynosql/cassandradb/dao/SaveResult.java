@@ -0,0 +1,80 @@
+package krug.daan.easynosql.cassandradb.dao;
+
+import krug.daan.easynosql.cassandradb.dto.BaseDTO;
+import krug.daan.easynosql.cassandradb.enums.SaveStatus;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Result of a object on a saveAll() operation
+ */
+public class SaveResult {
+	
+	/**
+	 * The saved object
+	 */
+	private BaseDTO dto;
+	
+	/**
+	 * The operation result
+	 */
+	private SaveStatus status;
+	
+	/**
+	 * The error message, when [status] is FAILED, or when the object was saved but
+	 * its relational integrity could not be updated
+	 */
+	private String errorMessage;
+	
+	/**
+	 * Constructor
+	 */
+	SaveResult(BaseDTO dto){
+		this.dto = dto;
+		this.status = SaveStatus.NOT_PROCESSED;
+	}
+
+	/**
+	 * @return the saved object
+	 */
+	public BaseDTO getDto() {
+		return dto;
+	}
+
+	/**
+	 * @return status
+	 */
+	public SaveStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * Set the status
+	 * @param status
+	 */
+	void setStatus(SaveStatus status) {
+		this.status = status;
+	}
+
+	/**
+	 * @return errorMessage
+	 */
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+
+	/**
+	 * Set the errorMessage
+	 * @param errorMessage
+	 */
+	void setErrorMessage(String errorMessage) {
+		this.errorMessage = errorMessage;
+	}
+	
+	/**
+	 * @return true if the object was inserted or updated
+	 */
+	public boolean isSaved(){
+		return (status == SaveStatus.INSERTED || status == SaveStatus.UPDATED);
+	}
+}
@@ -0,0 +1,11 @@
+package krug.daan.easynosql.cassandradb.enums;
+
+/**
+ * 
+ * @author Daniel Augusto Krug
+ *
+ * Enumeration for the result of a object on a saveAll() operation
+ */
+public enum SaveStatus {
+	INSERTED,UPDATED,FAILED,NOT_PROCESSED;
+}
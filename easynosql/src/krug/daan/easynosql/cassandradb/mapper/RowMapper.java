@@ -0,0 +1,31 @@
+package krug.daan.easynosql.cassandradb.mapper;
+
+import krug.daan.easynosql.cassandradb.dto.BaseDTO;
+
+import com.datastax.driver.core.Row;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Interface implemented by the mappers generated on compile time, to convert
+ * CassandraDB persistent objects to CQL values and from Row objects without reflection.
+ * Handles only the persistent attributes declared on the object class, the BaseDTO
+ * attributes are handled by DtoUtil.
+ */
+public interface RowMapper<T extends BaseDTO> {
+	
+	/**
+	 * @return the column names, in the same order of toBindValues() values
+	 */
+	String[] getColumnNames();
+	
+	/**
+	 * @return the [dto] attribute values, in the same order of getColumnNames() names
+	 */
+	Object[] toBindValues(T dto);
+	
+	/**
+	 * Set the [row] values on the [dto] object attributes
+	 */
+	void fromRow(Row row, T dto);
+}
@@ -0,0 +1,55 @@
+package krug.daan.easynosql.cassandradb.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * A CQL (Cassandra Query Language) command whit bind markers ("?") in place of the values,
+ * and the values to be bound, in the same order of the markers.
+ * The CQL depends only on the object class and on the shape of the command (the columns
+ * used), so it can be prepared a single time and executed whit different values.
+ */
+public class CqlStatement {
+
+	/**
+	 * The CQL command whit bind markers
+	 */
+	private String cql;
+
+	/**
+	 * The values to bind, in the same order of the markers
+	 */
+	private Object[] values;
+
+	/**
+	 * Constructor
+	 */
+	public CqlStatement(String cql, List<Object> values){
+		this.cql = cql;
+		this.values = values.toArray();
+	}
+
+	/**
+	 * @return the CQL command whit bind markers
+	 */
+	public String getCql() {
+		return cql;
+	}
+
+	/**
+	 * @return the values to bind, in the same order of the markers
+	 */
+	public Object[] getValues() {
+		return values;
+	}
+
+	/**
+	 * Return the CQL command and the values, to be logged
+	 */
+	@Override
+	public String toString() {
+		return cql + " " + Arrays.toString(values);
+	}
+}
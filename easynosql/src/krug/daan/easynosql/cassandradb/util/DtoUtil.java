@@ -1,39 +1,45 @@
 package krug.daan.easynosql.cassandradb.util;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import krug.daan.easynosql.cassandradb.annotation.NonPersistent;
 import krug.daan.easynosql.cassandradb.annotation.SecondaryIndex;
 import krug.daan.easynosql.cassandradb.dto.BaseDTO;
 import krug.daan.easynosql.cassandradb.exception.CassandraDataException;
+import krug.daan.easynosql.cassandradb.mapper.RowMapper;
 import krug.daan.easynosql.common.KeyValue;
+import krug.daan.easynosql.common.mapper.MapperRegistry;
+import krug.daan.easynosql.common.metadata.EntityDescriptor;
+import krug.daan.easynosql.common.metadata.EntityDescriptorRegistry;
+import krug.daan.easynosql.common.metadata.EntityProperty;
 
 import com.datastax.driver.core.Row;
 
 /**
  * @author Daniel Augusto Krug
  *
- * Class to handle the CQL (Cassandra Query Language) commands creation, based on a BaseDTO object
+ * Class to handle the CQL (Cassandra Query Language) commands creation, based on a BaseDTO object.
+ * The commands are created whit bind markers and the values apart (CqlStatement), so the
+ * same command can be prepared a single time by class and shape, and the values are never
+ * written into the CQL.
  */
 public class DtoUtil {
 	
 	/**
-	 * Simple Date Formatter
+	 * DANGEROUS_OPERATION_DELETE_ALL_EXCEPTION
 	 */
-	private static SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+	private static final String DANGEROUS_OPERATION_DELETE_ALL_EXCEPTION = "DELETE whithout WHERE condition: ";
 	
 	/**
-	 * DANGEROUS_OPERATION_DELETE_ALL_EXCEPTION
+	 * Cache of the table meta data, by class
 	 */
-	private static final String DANGEROUS_OPERATION_DELETE_ALL_EXCEPTION = "DELETE whithout WHERE condition: ";
+	private static final ConcurrentHashMap<Class<?>, List<String[]>> tablesMetadata = new ConcurrentHashMap<Class<?>, List<String[]>>();
 	
 	/**
 	 * Validate if a attribute is on a provided type list for the persistence
@@ -53,46 +59,37 @@ public class DtoUtil {
 	}
 	
 	/**
-	 * Return the method name based on a attribute
+	 * Return the EntityDescriptor of a BaseDTO object
 	 */
-	private static Method getMethodByField(Method[] methods,Field field,boolean setter) throws CassandraDataException{
-		validateDataType(field.getType());
-		String methodName = (setter ? "set" : "get") + field.getName().substring(0,1).toUpperCase() + field.getName().substring(1);
-		Method method = null;
-		for(Method m: methods){
-			if(m.getName().equals(methodName)){
-				method = m;
-				break;
-			}
-		}
-		return method;
+	private static EntityDescriptor getDescriptor(BaseDTO dto){
+		return EntityDescriptorRegistry.getDescriptor(dto.getClass(), BaseDTO.class);
 	}
 	
 	/**
-	 * Format a attribute value to be used on a CQL
+	 * Return the RowMapper generated on compile time for the [dto] class, 
+	 * or null if dont exists.
 	 */
-	private static String toStringCQL(Object obj){
-		if(null==obj){
-			return null;
-		}
-		if(obj instanceof java.util.Date){
-			return ("'" + sdf.format(((java.util.Date)obj)) + "'");
-		}
-		if(obj instanceof String){
-			return ("'" + ((String)obj) + "'");
-		}
-		return obj.toString();
+	@SuppressWarnings(value="unchecked")
+	private static RowMapper<BaseDTO> getRowMapper(BaseDTO dto){
+		return MapperRegistry.getMapper(dto.getClass(), RowMapper.class);
 	}
 	
 	/**
-	 * Get a atrribute value by reflection mechanism and format on a CQL style
+	 * Return the table name of a BaseDTO object, without the package name
 	 */
-	@SuppressWarnings(value="all")
-	private static String getStringValueCQL(BaseDTO dto, Method[] methods,Field field) 
-														throws CassandraDataException, InvocationTargetException, IllegalAccessException{
-		Method method = getMethodByField(methods,field,false);
-		Object obj = method.invoke(dto, null);
-		return toStringCQL(obj);
+	public static String getTableName(BaseDTO dto){
+		return dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1);
+	}
+	
+	/**
+	 * Convert a attribute value to the Java type expected by the driver for the column type
+	 * of the attribute class (BigInteger attributes are stored on "bigint" columns)
+	 */
+	private static Object toBindValue(Object obj){
+		if(obj instanceof BigInteger){
+			return ((BigInteger)obj).longValue();
+		}
+		return obj;
 	}
 	
 	
@@ -102,19 +99,11 @@ public class DtoUtil {
 	public static void setValues(BaseDTO dto,List<KeyValue> keyValues) 
 			throws InvocationTargetException, IllegalAccessException, CassandraDataException{
 		try {
-			Method[] methods = dto.getClass().getDeclaredMethods();
-			Field[] fields = dto.getClass().getDeclaredFields();
-			for(Field field: fields){
-				if(field.isAnnotationPresent(NonPersistent.class)){
-					continue;
-				}
-				for(KeyValue keyValue: keyValues){
-					if(keyValue.getKey().equals(field.getName())){
-						Method method = getMethodByField(methods,field,true);
-						if(null!=method){
-							method.invoke(dto, keyValue.getValue());
-						}
-					}
+			EntityDescriptor descriptor = getDescriptor(dto);
+			for(KeyValue keyValue: keyValues){
+				EntityProperty property = descriptor.getProperty(keyValue.getKey());
+				if(null!=property && property.hasSetter() && !property.isAnnotationPresent(NonPersistent.class)){
+					property.setValue(dto, keyValue.getValue());
 				}
 			}
 		} catch (Exception e) {
@@ -129,16 +118,14 @@ public class DtoUtil {
 		try {
 			dto.setId(row.getString(BaseDTO.ID_ATTR_DESCRIPTOR));
 			dto.setRelatedObjectsIdsJson(row.getString(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON));
-			Method[] methods = dto.getClass().getDeclaredMethods();
-			Field[] fields = dto.getClass().getDeclaredFields();
-			for(Field field: fields){
-				if(field.isAnnotationPresent(NonPersistent.class)){
-					continue;
-				}
-				Method method = getMethodByField(methods,field,true);
-				Object obj = row.getObject(field.getName());
-				if(null!=method){
-					method.invoke(dto, obj);
+			RowMapper<BaseDTO> mapper = getRowMapper(dto);
+			if(null!=mapper){
+				mapper.fromRow(row, dto);
+				return;
+			}
+			for(EntityProperty property: getDescriptor(dto).getPropertiesWithout(NonPersistent.class)){
+				if(property.hasSetter()){
+					property.setValue(dto, row.getObject(property.getName()));
 				}
 			}
 		} catch (Exception e) {
@@ -180,78 +167,85 @@ public class DtoUtil {
 	 * Generate the table meta data, to be used on table creation
 	 */
 	public static List<String[]> generateTableMetadata(BaseDTO dto) throws CassandraDataException{
-		List<String[]> columnNamesDatatypes = new ArrayList<String[]>();
-		columnNamesDatatypes.add(new String[]{BaseDTO.ID_ATTR_DESCRIPTOR,"text","PRIMARY KEY","false"});
-		columnNamesDatatypes.add(new String[]{BaseDTO.TABLE_NAME_ATTR_DESCRIPTOR,"text","","false"});
-		columnNamesDatatypes.add(new String[]{BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON,"text","","false"});
-		Field[] fields = dto.getClass().getDeclaredFields();
-		for(Field field: fields){
-			if(field.isAnnotationPresent(NonPersistent.class)){
-				continue;
-			}
-			String type = getDataTypeForAttributeClass(field.getType());
-			String createSecondaryIndex = "false";
-			if(field.isAnnotationPresent(SecondaryIndex.class)){
-				createSecondaryIndex = "true";
+		List<String[]> columnNamesDatatypes = tablesMetadata.get(dto.getClass());
+		if(null==columnNamesDatatypes){
+			columnNamesDatatypes = new ArrayList<String[]>();
+			columnNamesDatatypes.add(new String[]{BaseDTO.ID_ATTR_DESCRIPTOR,"text","PRIMARY KEY","false"});
+			columnNamesDatatypes.add(new String[]{BaseDTO.TABLE_NAME_ATTR_DESCRIPTOR,"text","","false"});
+			columnNamesDatatypes.add(new String[]{BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON,"text","","false"});
+			for(EntityProperty property: getDescriptor(dto).getPropertiesWithout(NonPersistent.class)){
+				String type = getDataTypeForAttributeClass(property.getType());
+				String createSecondaryIndex = "false";
+				if(property.isAnnotationPresent(SecondaryIndex.class)){
+					createSecondaryIndex = "true";
+				}
+				columnNamesDatatypes.add(new String[]{property.getName(),type,"",createSecondaryIndex});
 			}
-			columnNamesDatatypes.add(new String[]{field.getName(),type,"",createSecondaryIndex});
+			tablesMetadata.putIfAbsent(dto.getClass(), columnNamesDatatypes);
+		}
+		List<String[]> copy = new ArrayList<String[]>();
+		for(String[] mData: columnNamesDatatypes){
+			copy.add(mData.clone());
 		}
-		return columnNamesDatatypes;
+		return copy;
 	}
 	
 	/**
 	 * Generate the CQL INSERT command for a received BaseDTO object
 	 */
-	public static String generateInsertCQL(BaseDTO dto) 
+	public static CqlStatement generateInsertCQL(BaseDTO dto) 
 			throws CassandraDataException, InvocationTargetException, IllegalAccessException{
-		Field[] fields = dto.getClass().getDeclaredFields();
-		Method[] methods = dto.getClass().getDeclaredMethods();
+		RowMapper<BaseDTO> mapper = getRowMapper(dto);
+		List<EntityProperty> properties = (null!=mapper ? null : getDescriptor(dto).getPropertiesWithout(NonPersistent.class));
+		List<Object> values = new ArrayList<Object>();
 		String virgula = ",";
 		StringBuffer cql = new StringBuffer();
-		cql.append("INSERT INTO " + dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1) + "(");
+		StringBuffer markers = new StringBuffer("?,?");
+		cql.append("INSERT INTO " + getTableName(dto) + "(");
 		cql.append(BaseDTO.ID_ATTR_DESCRIPTOR);
 		cql.append(virgula + BaseDTO.TABLE_NAME_ATTR_DESCRIPTOR);
-		for(Field field: fields){
-			if(field.isAnnotationPresent(NonPersistent.class)){
-				continue;
+		values.add(dto.getId());
+		values.add(getTableName(dto));
+		if(null!=mapper){
+			for(String columnName: mapper.getColumnNames()){
+				cql.append(virgula + columnName);
+				markers.append(virgula + "?");
+			}
+			for(Object value: mapper.toBindValues(dto)){
+				values.add(toBindValue(value));
+			}
+		}else{
+			for(EntityProperty property: properties){
+				cql.append(virgula + property.getName());
+				markers.append(virgula + "?");
+				values.add(toBindValue(property.getValue(dto)));
 			}
-			cql.append(virgula + field.getName());
 		}
 		cql.append(virgula + BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON);
+		markers.append(virgula + "?");
+		values.add(dto.getRelatedObjectsIdsJson());
 		cql.append(") values (");
-		cql.append("'" + dto.getId() + "'");	
-		cql.append(virgula + "'" + dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1) + "'");	
-		for(Field field: fields){
-			if(field.isAnnotationPresent(NonPersistent.class)){
-				continue;
-			}
-			String value = getStringValueCQL(dto,  methods, field) ;
-			cql.append(virgula + value);
-		}
-		cql.append(virgula + "'" + dto.getRelatedObjectsIdsJson() + "'");
+		cql.append(markers);
 		cql.append(");");
-		return cql.toString();
+		return new CqlStatement(cql.toString(), values);
 	}
 	
 	/**
-	 * Generate the "where condition" part of a CQL command
+	 * Generate the "where condition" part of a CQL command, adding the condition values to [values]
 	 */
-	private static String generateWhereConditions(Field[] fields,List<KeyValue> updateConditions) throws CassandraDataException{
+	private static String generateWhereConditions(EntityDescriptor descriptor,List<KeyValue> updateConditions,List<Object> values) throws CassandraDataException{
 		String andWhereCondition = null;
 		StringBuffer whereConditions = new StringBuffer();
-		for(Field field: fields){
-			if(field.isAnnotationPresent(NonPersistent.class)){
-				continue;
-			}
-			validateDataType(field.getType());
+		for(EntityProperty property: descriptor.getPropertiesWithout(NonPersistent.class)){
+			validateDataType(property.getType());
 			for(KeyValue keyValue: updateConditions){
-				if(keyValue.getKey().equals(field.getName())){
+				if(keyValue.getKey().equals(property.getName())){
 					if(null==keyValue.getValue()){
 						break;
 					}
 					andWhereCondition = (whereConditions.length() > 0) ? " AND " : " WHERE ";
-					String value = toStringCQL(keyValue.getValue());
-					whereConditions.append(andWhereCondition + field.getName() + " = " + value);
+					whereConditions.append(andWhereCondition + property.getName() + " = ?");
+					values.add(toBindValue(keyValue.getValue()));
 					break;
 				}
 			}
@@ -263,32 +257,35 @@ public class DtoUtil {
 	 * Generate the CQL UPDATE command for a received BaseDTO object that will applied to a list of 
 	 * BaseDTO objects of same class
 	 */
-	public static String generateUpdateCQL(BaseDTO dto,List<KeyValue> updateParameters, Collection<BaseDTO> dtos) 
+	public static CqlStatement generateUpdateCQL(BaseDTO dto,List<KeyValue> updateParameters, Collection<BaseDTO> dtos) 
 									throws CassandraDataException, InvocationTargetException, IllegalAccessException{
+		List<Object> values = new ArrayList<Object>();
 		StringBuffer cql = new StringBuffer();
-		cql.append("UPDATE " + dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1) + " SET ");
+		cql.append("UPDATE " + getTableName(dto) + " SET ");
 		String virgula = "";
 		if(null!=dto.getId() && dto.getId().trim().length() > 0 
 				&& null==updateParameters && (null==dtos || dtos.size() == 0)){
 			updateParameters = generateKeyValuesAttributes(dto);
 		}
 		for(KeyValue kv : updateParameters){
-			cql.append(virgula + kv.getKey() + " = " + toStringCQL(kv.getValue()));
+			cql.append(virgula + kv.getKey() + " = ?");
+			values.add(toBindValue(kv.getValue()));
 			virgula = ",";
 		}
 		if(null!=dto.getId() && dto.getId().trim().length() > 0){
-			cql.append(" WHERE id = '" + dto.getId() + "'");
+			cql.append(" WHERE id = ?");
+			values.add(dto.getId());
 		}else if(null!=dtos && dtos.size() > 0){
-			cql.append(" WHERE id IN ( ");
-			virgula = "";
+			// a single marker for the whole list, so the statement dont change whit the number of ids
+			cql.append(" WHERE id IN ?");
+			List<String> ids = new ArrayList<String>();
 			for(BaseDTO dto2: dtos){
-				cql.append(virgula + "'" + dto2.getId() + "'");
-				virgula = ",";
+				ids.add(dto2.getId());
 			}
-			cql.append(") ");
+			values.add(ids);
 		}
 		cql.append(";"); 
-		return cql.toString();
+		return new CqlStatement(cql.toString(), values);
 	}
 	
 	/**
@@ -296,20 +293,19 @@ public class DtoUtil {
 	 */
 	private static List<KeyValue> generateKeyValuesAttributes(BaseDTO dto) throws InvocationTargetException, IllegalAccessException{
 		List<KeyValue> attrsValues = new ArrayList<KeyValue>();
-		Method[] BaseDTOMethods = BaseDTO.class.getDeclaredMethods();
-		Field[] BaseDTOFields = BaseDTO.class.getDeclaredFields();
-		for(Field field: BaseDTOFields){
-			if(field.isAnnotationPresent(NonPersistent.class)){
+		EntityDescriptor descriptor = getDescriptor(dto);
+		for(EntityProperty property: descriptor.getBaseProperties()){
+			if(property.isAnnotationPresent(NonPersistent.class)){
 				continue;
 			}
-			if(field.getName().equals(BaseDTO.TABLE_NAME_ATTR_DESCRIPTOR)
-					|| field.getName().equals(BaseDTO.ID_ATTR_DESCRIPTOR)
-					|| field.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS)
-					|| field.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS)
+			if(property.getName().equals(BaseDTO.TABLE_NAME_ATTR_DESCRIPTOR)
+					|| property.getName().equals(BaseDTO.ID_ATTR_DESCRIPTOR)
+					|| property.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS)
+					|| property.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS)
 					){
 				continue;
 			}
-			if(field.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)){
+			if(property.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)){
 				if(null!=dto.getRelatedObjectsIds()){
 					StringBuffer json = new StringBuffer();
 					String separator = "";
@@ -320,38 +316,22 @@ public class DtoUtil {
 					dto.setRelatedObjectsIdsJson(json.toString());
 				}
 			}
-			String methodName = "get" + field.getName().substring(0,1).toUpperCase() + field.getName().substring(1);
-			Method method = null;
-			for(Method m: BaseDTOMethods){
-				if(m.getName().equals(methodName)){
-					method = m;
-					break;
-				}
-			}
-			if(null!=method){
-				@SuppressWarnings(value="all")
-				Object obj = method.invoke(dto, null);
-				attrsValues.add(new KeyValue(field.getName(),obj));
+			if(property.hasGetter()){
+				attrsValues.add(new KeyValue(property.getName(),property.getValue(dto)));
 			}
 		}
-		Method[] methods = dto.getClass().getDeclaredMethods();
-		Field[] fields = dto.getClass().getDeclaredFields();
-		for(Field field: fields){
-			if(field.isAnnotationPresent(NonPersistent.class)){
-				continue;
-			}
-			String methodName = "get" + field.getName().substring(0,1).toUpperCase() + field.getName().substring(1);
-			Method method = null;
-			for(Method m: methods){
-				if(m.getName().equals(methodName)){
-					method = m;
-					break;
-				}
+		RowMapper<BaseDTO> mapper = getRowMapper(dto);
+		if(null!=mapper){
+			String[] columnNames = mapper.getColumnNames();
+			Object[] values = mapper.toBindValues(dto);
+			for(int i = 0; i < columnNames.length; i++){
+				attrsValues.add(new KeyValue(columnNames[i],values[i]));
 			}
-			if(null!=method){
-				@SuppressWarnings(value="all")
-				Object obj = method.invoke(dto, null);
-				attrsValues.add(new KeyValue(field.getName(),obj));
+			return attrsValues;
+		}
+		for(EntityProperty property: descriptor.getPropertiesWithout(NonPersistent.class)){
+			if(property.hasGetter()){
+				attrsValues.add(new KeyValue(property.getName(),property.getValue(dto)));
 			}
 		}
 		return attrsValues;
@@ -366,12 +346,9 @@ public class DtoUtil {
 			return false;
 		}
 		int countIdx = 0;
-		for(Field field : dto.getClass().getDeclaredFields()){
-			if(!field.isAnnotationPresent(SecondaryIndex.class)){
-				continue;
-			}
+		for(EntityProperty property : getDescriptor(dto).getPropertiesWith(SecondaryIndex.class)){
 			for(KeyValue kv : searchConditions){
-				if(kv.getKey().equals(field.getName())){
+				if(kv.getKey().equals(property.getName())){
 					countIdx ++;
 					break;
 				}
@@ -383,47 +360,51 @@ public class DtoUtil {
 	/**
 	 * Create a CQL SELECT command according the received BaseDTO object
 	 */
-	public static String generateSelectCQL(BaseDTO dto,List<KeyValue> searchConditions) 
+	public static CqlStatement generateSelectCQL(BaseDTO dto,List<KeyValue> searchConditions) 
 												throws CassandraDataException, InvocationTargetException, IllegalAccessException{
+		List<Object> values = new ArrayList<Object>();
 		StringBuffer cql = new StringBuffer();
-		cql.append("SELECT * FROM " + dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1) + " ");
+		cql.append("SELECT * FROM " + getTableName(dto) + " ");
 		String whereConditionCQL = "";
 		if(null!=searchConditions && searchConditions.size() > 0){
-			whereConditionCQL += generateWhereConditions(dto.getClass().getDeclaredFields(),searchConditions);
+			whereConditionCQL += generateWhereConditions(getDescriptor(dto),searchConditions,values);
 		}
 		if(whereConditionCQL.trim().length() > 0){
 			cql.append(whereConditionCQL); 
 		}else if(null!=dto.getId() && dto.getId().trim().length() > 0){
-			cql.append(" WHERE id = '" + dto.getId() + "'"); 
+			cql.append(" WHERE id = ?"); 
+			values.add(dto.getId());
 		}
 		
 		if(needAllowFiltering(dto,searchConditions)){
 			cql.append(" ALLOW FILTERING ");
 		}
 		cql.append(";");
-		return cql.toString();
+		return new CqlStatement(cql.toString(), values);
 	}
 	
 	/**
 	 * Generate the CQL DELETE command according a received BaseDTO object
 	 */
-	public static String generateDeleteCQL(BaseDTO dto,List<KeyValue> searchConditions) 
+	public static CqlStatement generateDeleteCQL(BaseDTO dto,List<KeyValue> searchConditions) 
 			throws CassandraDataException, InvocationTargetException, IllegalAccessException{
+		List<Object> values = new ArrayList<Object>();
 		StringBuffer cql = new StringBuffer();
-		cql.append("DELETE FROM " + dto.getTableName().substring(dto.getTableName().lastIndexOf(".") + 1) + " ");
+		cql.append("DELETE FROM " + getTableName(dto) + " ");
 		String whereConditionCQL = "";
 		if(null!=searchConditions && searchConditions.size() > 0){
-			whereConditionCQL += generateWhereConditions(dto.getClass().getDeclaredFields(),searchConditions);
+			whereConditionCQL += generateWhereConditions(getDescriptor(dto),searchConditions,values);
 		}
 		if(whereConditionCQL.trim().length() > 0){
 			cql.append(whereConditionCQL); 
 		}else if(null!=dto.getId() && dto.getId().trim().length() > 0){
-			cql.append(" WHERE id = '" + dto.getId() + "'"); 
+			cql.append(" WHERE id = ?"); 
+			values.add(dto.getId());
 		}else{
 			throw new CassandraDataException(DANGEROUS_OPERATION_DELETE_ALL_EXCEPTION + cql.toString());
 		}
 		cql.append(";");
-		return cql.toString();
+		return new CqlStatement(cql.toString(), values);
 	}
 	
 	
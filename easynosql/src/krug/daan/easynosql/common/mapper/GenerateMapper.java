@@ -0,0 +1,22 @@
+package krug.daan.easynosql.common.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * To annotate the persistent object classes that should have a mapper class
+ * generated on compile time by the MapperProcessor. The BaseDAO classes use the
+ * generated mapper when exists, otherwise use the reflection mechanism.
+ * The processor is enabled on the compilation of the persistent object classes by
+ * the javac option: -processor krug.daan.easynosql.common.mapper.processor.MapperProcessor
+ * whit the easynosql classes on the processor path.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface GenerateMapper {
+
+}
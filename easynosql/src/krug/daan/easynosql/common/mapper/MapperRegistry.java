@@ -0,0 +1,62 @@
+package krug.daan.easynosql.common.mapper;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Daniel Augusto Krug
+ * 
+ * Class to locate a single time (by class) the mapper generated on compile time
+ * for a persistent object class, as a class named [entity class name + MAPPER_CLASS_SUFFIX].
+ */
+public class MapperRegistry {
+	
+	/**
+	 * MAPPER_CLASS_SUFFIX
+	 */
+	public static final String MAPPER_CLASS_SUFFIX = "_Mapper";
+	
+	/**
+	 * Marks the classes that dont have a generated mapper
+	 */
+	private static final Object NO_MAPPER = new Object();
+	
+	/**
+	 * Already located mappers
+	 */
+	private static final ConcurrentHashMap<Class<?>, Object> mappers = new ConcurrentHashMap<Class<?>, Object>();
+	
+	/**
+	 * Constructor
+	 */
+	private MapperRegistry(){
+		
+	}
+	
+	/**
+	 * Return the generated mapper of [entityClass] that implements [mapperType], 
+	 * or null if dont exists.
+	 */
+	public static <M> M getMapper(Class<?> entityClass, Class<M> mapperType){
+		Object mapper = mappers.get(entityClass);
+		if(null==mapper){
+			mapper = loadMapper(entityClass);
+			mappers.putIfAbsent(entityClass, mapper);
+		}
+		return (mapperType.isInstance(mapper) ? mapperType.cast(mapper) : null);
+	}
+	
+	/**
+	 * Load and instantiate the generated mapper of [entityClass]
+	 */
+	private static Object loadMapper(Class<?> entityClass){
+		try {
+			Class<?> mapperClass = Class.forName(entityClass.getName() + MAPPER_CLASS_SUFFIX, true, entityClass.getClassLoader());
+			return mapperClass.getDeclaredConstructor().newInstance();
+		} catch (ClassNotFoundException cnfe) {
+			//no generated mapper, the reflection mechanism will be used
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return NO_MAPPER;
+	}
+}
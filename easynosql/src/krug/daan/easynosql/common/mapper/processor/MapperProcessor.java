@@ -0,0 +1,492 @@
+package krug.daan.easynosql.common.mapper.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Annotation processor that generates, on compile time, the mapper classes of
+ * the persistent objects annotated whit GenerateMapper:
+ * DocumentMapper (MongoDB), RowMapper (CassandraDB) and AttributeMapper (DynamoDB).
+ * The mapper class is generated on the same package of the persistent object class,
+ * named [class name + MapperRegistry.MAPPER_CLASS_SUFFIX].
+ * When a class cannot be mapped whitout reflection a warning is reported and no mapper
+ * is generated, so the BaseDAO classes keep using the reflection mechanism.
+ */
+@SupportedAnnotationTypes("krug.daan.easynosql.common.mapper.GenerateMapper")
+public class MapperProcessor extends AbstractProcessor {
+	
+	/**
+	 * MAPPER_CLASS_SUFFIX, same value of MapperRegistry.MAPPER_CLASS_SUFFIX
+	 */
+	private static final String MAPPER_CLASS_SUFFIX = "_Mapper";
+	
+	/**
+	 * MONGO_BASE_DTO
+	 */
+	private static final String MONGO_BASE_DTO = "krug.daan.easynosql.mongodb.dto.BaseDTO";
+	
+	/**
+	 * CASSANDRA_BASE_DTO
+	 */
+	private static final String CASSANDRA_BASE_DTO = "krug.daan.easynosql.cassandradb.dto.BaseDTO";
+	
+	/**
+	 * DYNAMO_BASE_DTO
+	 */
+	private static final String DYNAMO_BASE_DTO = "krug.daan.easynosql.dynamodb.dto.BaseDTO";
+	
+	/**
+	 * COUCH_BASE_DTO
+	 */
+	private static final String COUCH_BASE_DTO = "krug.daan.easynosql.couchdb.dto.BaseDTO";
+	
+	/**
+	 * CASSANDRA_NON_PERSISTENT
+	 */
+	private static final String CASSANDRA_NON_PERSISTENT = "krug.daan.easynosql.cassandradb.annotation.NonPersistent";
+	
+	/**
+	 * DYNAMO_DATA_EXCEPTION
+	 */
+	private static final String DYNAMO_DATA_EXCEPTION = "krug.daan.easynosql.dynamodb.exception.DynamoDataException";
+	
+	/**
+	 * DYNAMO_TABLE
+	 */
+	private static final String DYNAMO_TABLE = "com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable";
+	
+	/**
+	 * DYNAMO_IGNORE
+	 */
+	private static final String DYNAMO_IGNORE = "com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBIgnore";
+	
+	/**
+	 * DYNAMO_ATTRIBUTE
+	 */
+	private static final String DYNAMO_ATTRIBUTE = "com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute";
+	
+	/**
+	 * DYNAMO_HASH_KEY
+	 */
+	private static final String DYNAMO_HASH_KEY = "com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey";
+	
+	/**
+	 * Attribute types that CassandraDB and DynamoDB mappers can handle
+	 */
+	private static final List<String> SUPPORTED_TYPES = Arrays.asList(
+			"java.lang.String", "java.lang.Integer", "java.lang.Long", "java.lang.Double", "java.lang.Float",
+			"java.math.BigInteger", "java.math.BigDecimal", "java.lang.Boolean", "java.util.Date");
+	
+	/**
+	 * Class to describe a attribute to be mapped
+	 */
+	private static class Property {
+		
+		/**
+		 * Attribute (or column) name
+		 */
+		private String name;
+		
+		/**
+		 * Attribute type, as Java source
+		 */
+		private String type;
+		
+		/**
+		 * "get" Method name, or null if dont exists
+		 */
+		private String getter;
+		
+		/**
+		 * "set" Method name, or null if dont exists
+		 */
+		private String setter;
+		
+		/**
+		 * Constructor
+		 */
+		private Property(String name, String type, String getter, String setter){
+			this.name = name;
+			this.type = type;
+			this.getter = getter;
+			this.setter = setter;
+		}
+	}
+	
+	/**
+	 * Exception to stop the generation of a mapper whit a warning
+	 */
+	private static class UnmappableException extends Exception {
+		
+		/**
+		 * serialVersionUID
+		 */
+		private static final long serialVersionUID = -1L;
+		
+		/**
+		 * Constructor
+		 */
+		private UnmappableException(String msg){
+			super(msg);
+		}
+	}
+	
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for(TypeElement annotation: annotations){
+			for(Element element: roundEnv.getElementsAnnotatedWith(annotation)){
+				if(element.getKind() != ElementKind.CLASS){
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "@GenerateMapper is allowed only on classes.", element);
+					continue;
+				}
+				TypeElement type = (TypeElement)element;
+				try {
+					String baseDTO = findBaseDTO(type);
+					if(MONGO_BASE_DTO.equals(baseDTO)){
+						generateMongoMapper(type);
+					}else if(CASSANDRA_BASE_DTO.equals(baseDTO)){
+						generateCassandraMapper(type);
+					}else if(DYNAMO_BASE_DTO.equals(baseDTO)){
+						generateDynamoMapper(type);
+					}else if(COUCH_BASE_DTO.equals(baseDTO)){
+						throw new UnmappableException("CouchDB objects are mapped by the CouchDB client (Gson).");
+					}else{
+						throw new UnmappableException("Class dont extends a BaseDTO class.");
+					}
+				} catch (UnmappableException ue) {
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, 
+							"No mapper generated for " + type.getQualifiedName() + ": " + ue.getMessage(), type);
+				} catch (IOException ioe) {
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, 
+							"Mapper for " + type.getQualifiedName() + " could not be written: " + ioe.getMessage(), type);
+				}
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Return the qualified name of the BaseDTO class extended by [type], or null
+	 */
+	private String findBaseDTO(TypeElement type){
+		TypeMirror superclass = type.getSuperclass();
+		while(superclass.getKind() == TypeKind.DECLARED){
+			TypeElement superElement = (TypeElement)((DeclaredType)superclass).asElement();
+			String name = superElement.getQualifiedName().toString();
+			if(name.equals(MONGO_BASE_DTO) || name.equals(CASSANDRA_BASE_DTO) 
+					|| name.equals(DYNAMO_BASE_DTO) || name.equals(COUCH_BASE_DTO)){
+				return name;
+			}
+			superclass = superElement.getSuperclass();
+		}
+		return null;
+	}
+	
+	/**
+	 * Return the source type name of a attribute type, boxing the primitive types
+	 */
+	private String typeName(TypeMirror type){
+		if(type.getKind().isPrimitive()){
+			return processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType)type).getQualifiedName().toString();
+		}
+		return processingEnv.getTypeUtils().erasure(type).toString();
+	}
+	
+	/**
+	 * Return the method of [type] whit [name] and [parametersCount] parameters 
+	 * that can be called by the mapper, or null if dont exists
+	 */
+	private ExecutableElement findMethod(TypeElement type, String name, int parametersCount, String... allowedExceptions) 
+			throws UnmappableException{
+		for(ExecutableElement method: ElementFilter.methodsIn(type.getEnclosedElements())){
+			if(!method.getSimpleName().contentEquals(name) || method.getParameters().size() != parametersCount){
+				continue;
+			}
+			if(method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)){
+				return null;
+			}
+			TypeMirror runtimeException = processingEnv.getElementUtils().getTypeElement("java.lang.RuntimeException").asType();
+			for(TypeMirror thrown: method.getThrownTypes()){
+				if(!processingEnv.getTypeUtils().isSubtype(thrown, runtimeException) 
+						&& !Arrays.asList(allowedExceptions).contains(typeName(thrown))){
+					throw new UnmappableException("Method " + name + "() throws " + thrown);
+				}
+			}
+			return method;
+		}
+		return null;
+	}
+	
+	/**
+	 * Return the attribute name whit the first letter in upper case
+	 */
+	private static String capitalize(String name){
+		return name.substring(0,1).toUpperCase() + name.substring(1);
+	}
+	
+	/**
+	 * Describe the not static attributes declared on [type], the same attributes
+	 * handled by the EntityDescriptor of the reflection mechanism.
+	 */
+	private List<Property> describeFields(TypeElement type, String skipAnnotation, String... allowedExceptions) 
+			throws UnmappableException{
+		List<Property> properties = new ArrayList<Property>();
+		for(VariableElement field: ElementFilter.fieldsIn(type.getEnclosedElements())){
+			if(field.getModifiers().contains(Modifier.STATIC)){
+				continue;
+			}
+			if(null!=skipAnnotation && null!=findAnnotation(field, skipAnnotation)){
+				continue;
+			}
+			String name = field.getSimpleName().toString();
+			ExecutableElement getter = findMethod(type, "get" + capitalize(name), 0, allowedExceptions);
+			ExecutableElement setter = findMethod(type, "set" + capitalize(name), 1, allowedExceptions);
+			properties.add(new Property(name, typeName(field.asType()), 
+					(null!=getter ? getter.getSimpleName().toString() : null), 
+					(null!=setter ? setter.getSimpleName().toString() : null)));
+		}
+		return properties;
+	}
+	
+	/**
+	 * Return the annotation of [element] whit the qualified name [annotationName], or null
+	 */
+	private static AnnotationMirror findAnnotation(Element element, String annotationName){
+		for(AnnotationMirror mirror: element.getAnnotationMirrors()){
+			TypeElement annotationType = (TypeElement)mirror.getAnnotationType().asElement();
+			if(annotationType.getQualifiedName().contentEquals(annotationName)){
+				return mirror;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Return a String value of a annotation, or null if is not present or empty
+	 */
+	private static String findAnnotationValue(Element element, String annotationName, String valueName){
+		AnnotationMirror mirror = findAnnotation(element, annotationName);
+		if(null==mirror){
+			return null;
+		}
+		for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry: mirror.getElementValues().entrySet()){
+			if(entry.getKey().getSimpleName().contentEquals(valueName)){
+				String value = entry.getValue().getValue().toString();
+				return (value.trim().length() > 0 ? value : null);
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Verify that a attribute type is on the supported type list
+	 */
+	private static void validateSupportedType(Property property) throws UnmappableException{
+		if(!SUPPORTED_TYPES.contains(property.type)){
+			throw new UnmappableException("Unsuported data type attribute: " + property.name + " " + property.type);
+		}
+	}
+	
+	/**
+	 * Escape a value to be written as a Java String literal
+	 */
+	private static String literal(String value){
+		return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+	
+	/**
+	 * Open the source file of the mapper class and write the package and imports
+	 */
+	private Writer openMapperSource(TypeElement type, String... imports) throws IOException{
+		PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+		String mapperName = mapperSimpleName(type);
+		String qualifiedName = (pkg.isUnnamed() ? "" : pkg.getQualifiedName() + ".") + mapperName;
+		Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter();
+		if(!pkg.isUnnamed()){
+			writer.write("package " + pkg.getQualifiedName() + ";\n\n");
+		}
+		for(String imp: imports){
+			writer.write("import " + imp + ";\n");
+		}
+		writer.write("\n/**\n * Mapper of " + type.getQualifiedName() + ", generated by MapperProcessor. Do not edit.\n */\n");
+		return writer;
+	}
+	
+	/**
+	 * Return the mapper class name, according the binary name of [type]
+	 */
+	private String mapperSimpleName(TypeElement type){
+		String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+		return binaryName.substring(binaryName.lastIndexOf(".") + 1) + MAPPER_CLASS_SUFFIX;
+	}
+	
+	/**
+	 * Generate the DocumentMapper of a MongoDB persistent object class.
+	 * The mapper reads and writes the attributes by index, the "_id" and the related
+	 * objects ids are handled by the BaseDTOCodec, according the RelatedObjectsStorageMode.
+	 */
+	private void generateMongoMapper(TypeElement type) throws IOException, UnmappableException{
+		List<Property> properties = describeFields(type, null);
+		String className = type.getQualifiedName().toString();
+		StringBuilder attributeNames = new StringBuilder();
+		StringBuilder getValue = new StringBuilder();
+		StringBuilder setValue = new StringBuilder();
+		String virgula = "";
+		for(int i = 0; i < properties.size(); i++){
+			Property property = properties.get(i);
+			attributeNames.append(virgula + literal(property.name));
+			if(null!=property.getter){
+				getValue.append("\t\t\tcase " + i + ": return dto." + property.getter + "();\n");
+			}
+			if(null!=property.setter){
+				setValue.append("\t\t\tcase " + i + ": dto." + property.setter + "((" + property.type + ")value); return;\n");
+			}
+			virgula = ", ";
+		}
+		Writer writer = openMapperSource(type, "krug.daan.easynosql.mongodb.mapper.DocumentMapper");
+		try {
+			writer.write("public class " + mapperSimpleName(type) + " implements DocumentMapper<" + className + "> {\n\n");
+			writer.write("\tprivate static final String[] ATTRIBUTE_NAMES = new String[]{" + attributeNames + "};\n\n");
+			writer.write("\t@Override\n\tpublic String[] getAttributeNames() {\n\t\treturn ATTRIBUTE_NAMES;\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic Object getValue(" + className + " dto, int index) {\n");
+			writer.write("\t\tswitch(index){\n");
+			writer.write(getValue.toString());
+			writer.write("\t\t\tdefault: throw new IllegalArgumentException(\"No readable attribute at index \" + index);\n");
+			writer.write("\t\t}\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic void setValue(" + className + " dto, int index, Object value) {\n");
+			writer.write("\t\tswitch(index){\n");
+			writer.write(setValue.toString());
+			writer.write("\t\t\tdefault: throw new IllegalArgumentException(\"No writable attribute at index \" + index);\n");
+			writer.write("\t\t}\n\t}\n}\n");
+		} finally {
+			writer.close();
+		}
+	}
+	
+	/**
+	 * Generate the RowMapper of a CassandraDB persistent object class
+	 */
+	private void generateCassandraMapper(TypeElement type) throws IOException, UnmappableException{
+		List<Property> properties = describeFields(type, CASSANDRA_NON_PERSISTENT);
+		String className = type.getQualifiedName().toString();
+		StringBuilder columnNames = new StringBuilder();
+		StringBuilder bindValues = new StringBuilder();
+		StringBuilder fromRow = new StringBuilder();
+		String virgula = "";
+		for(Property property: properties){
+			validateSupportedType(property);
+			if(null==property.getter || null==property.setter){
+				throw new UnmappableException("Attribute " + property.name + " dont have \"get\" and \"set\" methods.");
+			}
+			columnNames.append(virgula + literal(property.name));
+			bindValues.append(virgula + "dto." + property.getter + "()");
+			fromRow.append("\t\tdto." + property.setter + "((" + property.type + ")row.getObject(" + literal(property.name) + "));\n");
+			virgula = ", ";
+		}
+		Writer writer = openMapperSource(type, "com.datastax.driver.core.Row", "krug.daan.easynosql.cassandradb.mapper.RowMapper");
+		try {
+			writer.write("public class " + mapperSimpleName(type) + " implements RowMapper<" + className + "> {\n\n");
+			writer.write("\tprivate static final String[] COLUMN_NAMES = new String[]{" + columnNames + "};\n\n");
+			writer.write("\t@Override\n\tpublic String[] getColumnNames() {\n\t\treturn COLUMN_NAMES;\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic Object[] toBindValues(" + className + " dto) {\n");
+			writer.write("\t\treturn new Object[]{" + bindValues + "};\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic void fromRow(Row row, " + className + " dto) {\n");
+			writer.write(fromRow.toString());
+			writer.write("\t}\n}\n");
+		} finally {
+			writer.close();
+		}
+	}
+	
+	/**
+	 * Generate the AttributeMapper of a DynamoDB persistent object class.
+	 * As the DynamoDBMapper, the attributes are described by the "get" methods
+	 * declared on the class that are not annotated whit DynamoDBIgnore.
+	 */
+	private void generateDynamoMapper(TypeElement type) throws IOException, UnmappableException{
+		String className = type.getQualifiedName().toString();
+		String tableName = findAnnotationValue(type, DYNAMO_TABLE, "tableName");
+		if(null==tableName){
+			tableName = type.getSimpleName().toString();
+		}
+		StringBuilder toAttributeMap = new StringBuilder();
+		StringBuilder fromAttributeMap = new StringBuilder();
+		for(ExecutableElement getter: ElementFilter.methodsIn(type.getEnclosedElements())){
+			String methodName = getter.getSimpleName().toString();
+			if(!methodName.startsWith("get") || methodName.length() == 3 || getter.getParameters().size() > 0 
+					|| !getter.getModifiers().contains(Modifier.PUBLIC) || getter.getModifiers().contains(Modifier.STATIC)
+					|| null!=findAnnotation(getter, DYNAMO_IGNORE)){
+				continue;
+			}
+			String propertyName = methodName.substring(3,4).toLowerCase() + methodName.substring(4);
+			String attributeName = findAnnotationValue(getter, DYNAMO_ATTRIBUTE, "attributeName");
+			if(null==attributeName){
+				attributeName = findAnnotationValue(getter, DYNAMO_HASH_KEY, "attributeName");
+			}
+			if(null==attributeName){
+				attributeName = propertyName;
+			}
+			findMethod(type, methodName, 0, DYNAMO_DATA_EXCEPTION);
+			ExecutableElement setter = findMethod(type, "set" + methodName.substring(3), 1, DYNAMO_DATA_EXCEPTION);
+			Property property = new Property(attributeName, typeName(getter.getReturnType()), methodName, 
+					(null!=setter ? setter.getSimpleName().toString() : null));
+			validateSupportedType(property);
+			toAttributeMap.append("\t\tAttributeValues.put(attributes, " + literal(attributeName) + ", dto." + methodName + "());\n");
+			if(null!=setter){
+				String setterType = typeName(setter.getParameters().get(0).asType());
+				validateSupportedType(new Property(attributeName, setterType, null, null));
+				String reader = setterType.substring(setterType.lastIndexOf(".") + 1);
+				fromAttributeMap.append("\t\tdto." + property.setter + "(AttributeValues.get" + reader + "(attributes, " + literal(attributeName) + "));\n");
+			}
+		}
+		Writer writer = openMapperSource(type, "java.util.HashMap", "java.util.Map", 
+				"com.amazonaws.services.dynamodbv2.model.AttributeValue",
+				"krug.daan.easynosql.dynamodb.exception.DynamoDataException",
+				"krug.daan.easynosql.dynamodb.mapper.AttributeMapper",
+				"krug.daan.easynosql.dynamodb.mapper.AttributeValues");
+		try {
+			writer.write("public class " + mapperSimpleName(type) + " implements AttributeMapper<" + className + "> {\n\n");
+			writer.write("\t@Override\n\tpublic String getTableName() {\n\t\treturn " + literal(tableName) + ";\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic Map<String, AttributeValue> toAttributeMap(" + className + " dto) throws DynamoDataException {\n");
+			writer.write("\t\tMap<String, AttributeValue> attributes = new HashMap<String, AttributeValue>();\n");
+			writer.write(toAttributeMap.toString());
+			writer.write("\t\treturn attributes;\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic void fromAttributeMap(Map<String, AttributeValue> attributes, " + className + " dto) throws DynamoDataException {\n");
+			writer.write(fromAttributeMap.toString());
+			writer.write("\t}\n}\n");
+		} finally {
+			writer.close();
+		}
+	}
+}
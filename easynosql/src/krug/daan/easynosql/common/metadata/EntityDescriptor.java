@@ -0,0 +1,198 @@
+package krug.daan.easynosql.common.metadata;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Daniel Augusto Krug
+ * 
+ * Class to describe the attributes of a persistent object class.
+ * Separates the attributes declared on the BaseDTO class of the database
+ * mechanism [baseProperties] from the attributes declared on the
+ * persistent object class itself [properties].
+ * Static attributes are constants and never are part of the description.
+ */
+public class EntityDescriptor {
+	
+	/**
+	 * The persistent object class
+	 */
+	private final Class<?> entityClass;
+	
+	/**
+	 * The BaseDTO class of the database mechanism
+	 */
+	private final Class<?> baseClass;
+	
+	/**
+	 * Attributes declared on the BaseDTO class, in declaration order
+	 */
+	private final List<EntityProperty> baseProperties;
+	
+	/**
+	 * Attributes declared on the persistent object class, in declaration order
+	 */
+	private final List<EntityProperty> properties;
+	
+	/**
+	 * [baseProperties] by name
+	 */
+	private final Map<String, EntityProperty> basePropertiesByName;
+	
+	/**
+	 * [properties] by name
+	 */
+	private final Map<String, EntityProperty> propertiesByName;
+	
+	/**
+	 * Cache of [properties] that are not annotated whit a annotation
+	 */
+	private final Map<Class<? extends Annotation>, List<EntityProperty>> propertiesWithout;
+	
+	/**
+	 * Cache of [properties] that are annotated whit a annotation
+	 */
+	private final Map<Class<? extends Annotation>, List<EntityProperty>> propertiesWith;
+	
+	/**
+	 * Constructor
+	 */
+	EntityDescriptor(Class<?> entityClass, Class<?> baseClass){
+		this.entityClass = entityClass;
+		this.baseClass = baseClass;
+		this.baseProperties = describe(baseClass);
+		this.properties = (entityClass.equals(baseClass) ? baseProperties : describe(entityClass));
+		this.basePropertiesByName = byName(baseProperties);
+		this.propertiesByName = byName(properties);
+		this.propertiesWithout = new ConcurrentHashMap<Class<? extends Annotation>, List<EntityProperty>>();
+		this.propertiesWith = new ConcurrentHashMap<Class<? extends Annotation>, List<EntityProperty>>();
+	}
+	
+	/**
+	 * Resolve the attributes and the respective "get" and "set" Methods of a class
+	 */
+	private static List<EntityProperty> describe(Class<?> clazz){
+		Method[] methods = clazz.getDeclaredMethods();
+		List<EntityProperty> described = new ArrayList<EntityProperty>();
+		for(Field field: clazz.getDeclaredFields()){
+			if(Modifier.isStatic(field.getModifiers())){
+				continue;
+			}
+			String suffix = field.getName().substring(0,1).toUpperCase() + field.getName().substring(1);
+			Method getter = findMethod(methods, "get" + suffix, 0);
+			Method setter = findMethod(methods, "set" + suffix, 1);
+			described.add(new EntityProperty(field, getter, setter));
+		}
+		return Collections.unmodifiableList(described);
+	}
+	
+	/**
+	 * Return the Method whit [methodName] and [parametersCount] parameters, or null if dont exists
+	 */
+	private static Method findMethod(Method[] methods, String methodName, int parametersCount){
+		for(Method m: methods){
+			if(m.getName().equals(methodName) && m.getParameterTypes().length == parametersCount){
+				return m;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Index a list of attributes by name
+	 */
+	private static Map<String, EntityProperty> byName(List<EntityProperty> described){
+		Map<String, EntityProperty> indexed = new HashMap<String, EntityProperty>();
+		for(EntityProperty property: described){
+			indexed.put(property.getName(), property);
+		}
+		return Collections.unmodifiableMap(indexed);
+	}
+	
+	/**
+	 * Filter the [properties] by the presence (or not) of a annotation
+	 */
+	private List<EntityProperty> filter(Class<? extends Annotation> annotationClass, boolean present){
+		List<EntityProperty> filtered = new ArrayList<EntityProperty>();
+		for(EntityProperty property: properties){
+			if(property.isAnnotationPresent(annotationClass) == present){
+				filtered.add(property);
+			}
+		}
+		return Collections.unmodifiableList(filtered);
+	}
+	
+	/**
+	 * @return the [properties] that are not annotated whit [annotationClass]
+	 */
+	public List<EntityProperty> getPropertiesWithout(Class<? extends Annotation> annotationClass){
+		List<EntityProperty> filtered = propertiesWithout.get(annotationClass);
+		if(null==filtered){
+			filtered = filter(annotationClass, false);
+			propertiesWithout.put(annotationClass, filtered);
+		}
+		return filtered;
+	}
+	
+	/**
+	 * @return the [properties] that are annotated whit [annotationClass]
+	 */
+	public List<EntityProperty> getPropertiesWith(Class<? extends Annotation> annotationClass){
+		List<EntityProperty> filtered = propertiesWith.get(annotationClass);
+		if(null==filtered){
+			filtered = filter(annotationClass, true);
+			propertiesWith.put(annotationClass, filtered);
+		}
+		return filtered;
+	}
+	
+	/**
+	 * @return the attribute declared on the persistent object class whit [name], or null if dont exists
+	 */
+	public EntityProperty getProperty(String name){
+		return propertiesByName.get(name);
+	}
+	
+	/**
+	 * @return the attribute declared on the BaseDTO class whit [name], or null if dont exists
+	 */
+	public EntityProperty getBaseProperty(String name){
+		return basePropertiesByName.get(name);
+	}
+
+	/**
+	 * @return the entityClass
+	 */
+	public Class<?> getEntityClass() {
+		return entityClass;
+	}
+
+	/**
+	 * @return the baseClass
+	 */
+	public Class<?> getBaseClass() {
+		return baseClass;
+	}
+
+	/**
+	 * @return the baseProperties
+	 */
+	public List<EntityProperty> getBaseProperties() {
+		return baseProperties;
+	}
+
+	/**
+	 * @return the properties
+	 */
+	public List<EntityProperty> getProperties() {
+		return properties;
+	}
+}
@@ -0,0 +1,40 @@
+package krug.daan.easynosql.common.metadata;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Daniel Augusto Krug
+ * 
+ * Class to compute a single time (by class) the EntityDescriptor of the
+ * persistent objects, shared by all the database mechanisms.
+ */
+public class EntityDescriptorRegistry {
+	
+	/**
+	 * Already computed descriptors
+	 */
+	private static final ConcurrentHashMap<Class<?>, EntityDescriptor> descriptors = new ConcurrentHashMap<Class<?>, EntityDescriptor>();
+	
+	/**
+	 * Constructor
+	 */
+	private EntityDescriptorRegistry(){
+		
+	}
+	
+	/**
+	 * Return the EntityDescriptor of [entityClass], a class that extends
+	 * the [baseClass] BaseDTO of a database mechanism.
+	 */
+	public static EntityDescriptor getDescriptor(Class<?> entityClass, Class<?> baseClass){
+		EntityDescriptor descriptor = descriptors.get(entityClass);
+		if(null==descriptor){
+			descriptor = new EntityDescriptor(entityClass, baseClass);
+			EntityDescriptor existing = descriptors.putIfAbsent(entityClass, descriptor);
+			if(null!=existing){
+				descriptor = existing;
+			}
+		}
+		return descriptor;
+	}
+}
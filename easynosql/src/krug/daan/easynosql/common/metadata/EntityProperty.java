@@ -0,0 +1,140 @@
+package krug.daan.easynosql.common.metadata;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * @author Daniel Augusto Krug
+ * 
+ * Class to describe one attribute of a persistent object: his name, type,
+ * annotations and the getter and setter Methods resolved a single time,
+ * by the EntityDescriptorRegistry. Values are read and written through
+ * a PropertyAccessor created together whit the description.
+ */
+public class EntityProperty {
+	
+	/**
+	 * The attribute name
+	 */
+	private final String name;
+	
+	/**
+	 * The attribute type
+	 */
+	private final Class<?> type;
+	
+	/**
+	 * The attribute Field
+	 */
+	private final Field field;
+	
+	/**
+	 * The "get" Method of the attribute, or null if dont exists
+	 */
+	private final Method getter;
+	
+	/**
+	 * The "set" Method of the attribute, or null if dont exists
+	 */
+	private final Method setter;
+	
+	/**
+	 * The annotations present on the attribute
+	 */
+	private final Annotation[] annotations;
+	
+	/**
+	 * The accessor of the "get" and "set" Methods
+	 */
+	private final PropertyAccessor accessor;
+	
+	/**
+	 * Constructor
+	 */
+	EntityProperty(Field field, Method getter, Method setter){
+		this.name = field.getName();
+		this.type = field.getType();
+		this.field = field;
+		this.getter = getter;
+		this.setter = setter;
+		this.annotations = field.getDeclaredAnnotations();
+		this.accessor = PropertyAccessor.create(getter, setter);
+	}
+	
+	/**
+	 * Verify if a annotation is present on the attribute
+	 */
+	public boolean isAnnotationPresent(Class<? extends Annotation> annotationClass){
+		for(Annotation annotation: annotations){
+			if(annotation.annotationType().equals(annotationClass)){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Return the attribute value of [target] object, by the "get" Method
+	 */
+	public Object getValue(Object target) throws InvocationTargetException, IllegalAccessException{
+		return accessor.get(target);
+	}
+	
+	/**
+	 * Set the attribute [value] on [target] object, by the "set" Method
+	 */
+	public void setValue(Object target, Object value) throws InvocationTargetException, IllegalAccessException{
+		accessor.set(target, value);
+	}
+	
+	/**
+	 * @return true if the attribute have a "get" Method
+	 */
+	public boolean hasGetter(){
+		return (null!=getter);
+	}
+	
+	/**
+	 * @return true if the attribute have a "set" Method
+	 */
+	public boolean hasSetter(){
+		return (null!=setter);
+	}
+
+	/**
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the type
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * @return the field
+	 */
+	public Field getField() {
+		return field;
+	}
+
+	/**
+	 * @return the getter
+	 */
+	public Method getGetter() {
+		return getter;
+	}
+
+	/**
+	 * @return the setter
+	 */
+	public Method getSetter() {
+		return setter;
+	}
+}
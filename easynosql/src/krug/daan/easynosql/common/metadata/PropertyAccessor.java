@@ -0,0 +1,259 @@
+package krug.daan.easynosql.common.metadata;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * @author Daniel Augusto Krug
+ * 
+ * Class to read and write a attribute value through his "get" and "set" Methods.
+ * The fastest available mechanism is chosen a single time, when the accessor is created:
+ * functions generated by the LambdaMetafactory, MethodHandles when the class cannot be 
+ * linked by a generated function, and the reflection Method.invoke() as the last alternative.
+ * 
+ * The accessors of all attributes of all classes are called from the same call sites, that
+ * become megamorphic, so the JIT dont inline the "get" and "set" Methods: the accessors avoid 
+ * the reflection checks and boxing of the arguments array, but dont reach the speed of direct
+ * calls. The speed of direct calls is reached by the mappers generated on compile time
+ * (RowMapper, DocumentMapper), used by the DAOs instead of the accessors when they exist.
+ */
+public abstract class PropertyAccessor {
+	
+	/**
+	 * The Lookup used to create the MethodHandles and the generated functions
+	 */
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	
+	/**
+	 * Return the attribute value of [target] object
+	 */
+	public abstract Object get(Object target) throws InvocationTargetException, IllegalAccessException;
+	
+	/**
+	 * Set the attribute [value] on [target] object
+	 */
+	public abstract void set(Object target, Object value) throws InvocationTargetException, IllegalAccessException;
+	
+	/**
+	 * Create the accessor for a attribute. [getter] or [setter] can be null,
+	 * when the attribute dont have the respective Method.
+	 */
+	public static PropertyAccessor create(Method getter, Method setter){
+		try {
+			return new LambdaPropertyAccessor(getter, setter);
+		} catch (Throwable t) {
+			//the class cannot be linked by a generated function, try the next mechanism
+		}
+		try {
+			return new MethodHandlePropertyAccessor(getter, setter);
+		} catch (Throwable t) {
+			//the Methods cannot be accessed by MethodHandles, try the next mechanism
+		}
+		return new ReflectionPropertyAccessor(getter, setter);
+	}
+	
+	/**
+	 * Return the wrapper class of a primitive type, or the type itself
+	 */
+	private static Class<?> wrap(Class<?> type){
+		return MethodType.methodType(type).wrap().returnType();
+	}
+	
+	/**
+	 * Verify if a type is public and visible by the ClassLoader of this class, condition
+	 * to a generated function call the Methods of the type as direct calls
+	 */
+	private static boolean isLinkable(Class<?> type){
+		while(type.isArray()){
+			type = type.getComponentType();
+		}
+		if(type.isPrimitive()){
+			return true;
+		}
+		if(!Modifier.isPublic(type.getModifiers())){
+			return false;
+		}
+		try {
+			return (Class.forName(type.getName(), false, PropertyAccessor.class.getClassLoader()) == type);
+		} catch (ClassNotFoundException cnfe) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Verify if a Method can be called by a generated function
+	 */
+	private static boolean isLinkable(Method method){
+		if(null==method){
+			return true;
+		}
+		if(!Modifier.isPublic(method.getModifiers()) || !isLinkable(method.getDeclaringClass()) 
+				|| !isLinkable(method.getReturnType())){
+			return false;
+		}
+		for(Class<?> parameterType: method.getParameterTypes()){
+			if(!isLinkable(parameterType)){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Accessor that uses functions generated by the LambdaMetafactory
+	 */
+	private static class LambdaPropertyAccessor extends PropertyAccessor{
+		
+		/**
+		 * The generated "get" function
+		 */
+		private final Function<Object, Object> getter;
+		
+		/**
+		 * The generated "set" function
+		 */
+		private final BiConsumer<Object, Object> setter;
+		
+		/**
+		 * Constructor
+		 */
+		@SuppressWarnings(value="unchecked")
+		LambdaPropertyAccessor(Method getter, Method setter) throws Throwable{
+			if(!isLinkable(getter) || !isLinkable(setter)){
+				throw new IllegalAccessException("Not linkable by a generated function");
+			}
+			if(null!=getter){
+				CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", 
+						MethodType.methodType(Function.class), 
+						MethodType.methodType(Object.class, Object.class), 
+						LOOKUP.unreflect(getter),
+						MethodType.methodType(wrap(getter.getReturnType()), getter.getDeclaringClass()));
+				this.getter = (Function<Object, Object>)site.getTarget().invoke();
+			}else{
+				this.getter = null;
+			}
+			if(null!=setter){
+				CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept", 
+						MethodType.methodType(BiConsumer.class), 
+						MethodType.methodType(void.class, Object.class, Object.class), 
+						LOOKUP.unreflect(setter),
+						MethodType.methodType(void.class, setter.getDeclaringClass(), wrap(setter.getParameterTypes()[0])));
+				this.setter = (BiConsumer<Object, Object>)site.getTarget().invoke();
+			}else{
+				this.setter = null;
+			}
+		}
+
+		@Override
+		public Object get(Object target) throws InvocationTargetException {
+			try {
+				return getter.apply(target);
+			} catch (Throwable t) {
+				throw new InvocationTargetException(t);
+			}
+		}
+
+		@Override
+		public void set(Object target, Object value) throws InvocationTargetException {
+			try {
+				setter.accept(target, value);
+			} catch (Throwable t) {
+				throw new InvocationTargetException(t);
+			}
+		}
+	}
+	
+	/**
+	 * Accessor that uses MethodHandles
+	 */
+	private static class MethodHandlePropertyAccessor extends PropertyAccessor{
+		
+		/**
+		 * The "get" MethodHandle, typed as (Object)Object
+		 */
+		private final MethodHandle getter;
+		
+		/**
+		 * The "set" MethodHandle, typed as (Object,Object)void
+		 */
+		private final MethodHandle setter;
+		
+		/**
+		 * Constructor
+		 */
+		MethodHandlePropertyAccessor(Method getter, Method setter) throws IllegalAccessException{
+			if(null!=getter){
+				getter.setAccessible(true);
+				this.getter = LOOKUP.unreflect(getter).asType(MethodType.methodType(Object.class, Object.class));
+			}else{
+				this.getter = null;
+			}
+			if(null!=setter){
+				setter.setAccessible(true);
+				this.setter = LOOKUP.unreflect(setter).asType(MethodType.methodType(void.class, Object.class, Object.class));
+			}else{
+				this.setter = null;
+			}
+		}
+
+		@Override
+		public Object get(Object target) throws InvocationTargetException {
+			try {
+				return (Object)getter.invokeExact(target);
+			} catch (Throwable t) {
+				throw new InvocationTargetException(t);
+			}
+		}
+
+		@Override
+		public void set(Object target, Object value) throws InvocationTargetException {
+			try {
+				setter.invokeExact(target, value);
+			} catch (Throwable t) {
+				throw new InvocationTargetException(t);
+			}
+		}
+	}
+	
+	/**
+	 * Accessor that uses the reflection Method.invoke()
+	 */
+	private static class ReflectionPropertyAccessor extends PropertyAccessor{
+		
+		/**
+		 * The "get" Method
+		 */
+		private final Method getter;
+		
+		/**
+		 * The "set" Method
+		 */
+		private final Method setter;
+		
+		/**
+		 * Constructor
+		 */
+		ReflectionPropertyAccessor(Method getter, Method setter){
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		@Override
+		public Object get(Object target) throws InvocationTargetException, IllegalAccessException {
+			return getter.invoke(target);
+		}
+
+		@Override
+		public void set(Object target, Object value) throws InvocationTargetException, IllegalAccessException {
+			setter.invoke(target, value);
+		}
+	}
+}
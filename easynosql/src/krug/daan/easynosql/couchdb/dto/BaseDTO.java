@@ -1,12 +1,13 @@
 package krug.daan.easynosql.couchdb.dto;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
 import krug.daan.easynosql.common.KeyValue;
+import krug.daan.easynosql.common.metadata.EntityDescriptor;
+import krug.daan.easynosql.common.metadata.EntityDescriptorRegistry;
+import krug.daan.easynosql.common.metadata.EntityProperty;
 import krug.daan.easynosql.couchdb.exception.CouchDataException;
 
 /**
@@ -118,16 +119,15 @@ public class BaseDTO {
 	 */
 	public void generateKeyValues() throws InvocationTargetException, IllegalAccessException{
 		this.attrs = new ArrayList<KeyValue>();
-		Method[] BaseDTOMethods = BaseDTO.class.getDeclaredMethods();
-		Field[] BaseDTOFields = BaseDTO.class.getDeclaredFields();
-		for(Field field: BaseDTOFields){
-			if(field.getName().equals(BaseDTO.KEYVALUES_ATTR_DESCRIPTOR)
-					|| field.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS)
-					|| field.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS)
+		EntityDescriptor descriptor = EntityDescriptorRegistry.getDescriptor(getClass(), BaseDTO.class);
+		for(EntityProperty property: descriptor.getBaseProperties()){
+			if(property.getName().equals(BaseDTO.KEYVALUES_ATTR_DESCRIPTOR)
+					|| property.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS)
+					|| property.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS)
 					){
 				continue;
 			}
-			if(field.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)){
+			if(property.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)){
 				if(null!=getRelatedObjectsIds()){
 					StringBuffer json = new StringBuffer();
 					String separator = "";
@@ -138,35 +138,13 @@ public class BaseDTO {
 					setRelatedObjectsIdsJson(json.toString());
 				}
 			}
-			String methodName = "get" + field.getName().substring(0,1).toUpperCase() + field.getName().substring(1);
-			Method method = null;
-			for(Method m: BaseDTOMethods){
-				if(m.getName().equals(methodName)){
-					method = m;
-					break;
-				}
-			}
-			if(null!=method){
-				@SuppressWarnings(value="all")
-				Object obj = method.invoke(this, null);
-				this.attrs.add(new KeyValue(field.getName(),obj));
+			if(property.hasGetter()){
+				this.attrs.add(new KeyValue(property.getName(),property.getValue(this)));
 			}
 		}
-		Method[] methods = getClass().getDeclaredMethods();
-		Field[] fields = getClass().getDeclaredFields();
-		for(Field field: fields){
-			String methodName = "get" + field.getName().substring(0,1).toUpperCase() + field.getName().substring(1);
-			Method method = null;
-			for(Method m: methods){
-				if(m.getName().equals(methodName)){
-					method = m;
-					break;
-				}
-			}
-			if(null!=method){
-				@SuppressWarnings(value="all")
-				Object obj = method.invoke(this, null);
-				this.attrs.add(new KeyValue(field.getName(),obj));
+		for(EntityProperty property: descriptor.getProperties()){
+			if(property.hasGetter()){
+				this.attrs.add(new KeyValue(property.getName(),property.getValue(this)));
 			}
 		}
 	}
@@ -237,96 +215,49 @@ public class BaseDTO {
 	public boolean matchKeyValues(List<KeyValue> keyValues) 
 			throws InvocationTargetException, IllegalAccessException, CouchDataException{
 		int matches = 0;
-		
-		Method[] baseDTOmethods = BaseDTO.class.getDeclaredMethods();
-		Field[] baseDTOfields = BaseDTO.class.getDeclaredFields();
-		for(Field field: baseDTOfields){
-			for(KeyValue keyValue: keyValues){
-				if(keyValue.getKey().equals(field.getName())){
-					String methodName = "get" + field.getName().substring(0,1).toUpperCase() + field.getName().substring(1);
-					Method method = null;
-					for(Method m: baseDTOmethods){
-						if(m.getName().equals(methodName)){
-							method = m;
-							break;
-						}
-					}
-					if(null!=method){
-						@SuppressWarnings(value="all")
-						Object obj = method.invoke(this, null);
-						if(field.getName().equals(KEYVALUES_ATTR_RELATED_OBJECTS_IDS)
-								|| field.getName().equals(KEYVALUES_ATTR_RELATED_OBJECTS)
-								|| field.getName().equals(KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)
-								|| field.getName().equals(KEYVALUES_ATTR_DESCRIPTOR)
-								){
-							throw new CouchDataException(INVALID_ATTR_MATCH_COMPARISON + " " + field.getName());
-						}else if(null!=obj){
-							if(obj.toString().equals(keyValue.getValue().toString())){
-								matches ++;
-							}
-						}
-					}
-				}
+		EntityDescriptor descriptor = EntityDescriptorRegistry.getDescriptor(getClass(), BaseDTO.class);
+		for(KeyValue keyValue: keyValues){
+			if(matchKeyValue(descriptor.getBaseProperty(keyValue.getKey()), keyValue)){
+				matches ++;
 			}
-		}
-		
-		Method[] methods = getClass().getDeclaredMethods();
-		Field[] fields = getClass().getDeclaredFields();
-		for(Field field: fields){
-			for(KeyValue keyValue: keyValues){
-				if(keyValue.getKey().equals(field.getName())){
-					String methodName = "get" + field.getName().substring(0,1).toUpperCase() + field.getName().substring(1);
-					Method method = null;
-					for(Method m: methods){
-						if(m.getName().equals(methodName)){
-							method = m;
-							break;
-						}
-					}
-					if(null!=method){
-						@SuppressWarnings(value="all")
-						Object obj = method.invoke(this, null);
-						if(field.getName().equals(KEYVALUES_ATTR_RELATED_OBJECTS_IDS)
-								|| field.getName().equals(KEYVALUES_ATTR_RELATED_OBJECTS)
-								|| field.getName().equals(KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)
-								|| field.getName().equals(KEYVALUES_ATTR_DESCRIPTOR)
-								){
-							throw new CouchDataException(INVALID_ATTR_MATCH_COMPARISON + " " + field.getName());
-						}else if(null!=obj){
-							if(obj.toString().equals(keyValue.getValue().toString())){
-								matches ++;
-							}
-						}
-					}
-				}
+			if(descriptor.getProperties() != descriptor.getBaseProperties() 
+					&& matchKeyValue(descriptor.getProperty(keyValue.getKey()), keyValue)){
+				matches ++;
 			}
 		}
 		return (matches == keyValues.size());
 	}
 	
+	/**
+	 * Verify that the value of a object attribute matches or not whit the desired value
+	 */
+	private boolean matchKeyValue(EntityProperty property, KeyValue keyValue) 
+			throws InvocationTargetException, IllegalAccessException, CouchDataException{
+		if(null==property || !property.hasGetter()){
+			return false;
+		}
+		Object obj = property.getValue(this);
+		if(property.getName().equals(KEYVALUES_ATTR_RELATED_OBJECTS_IDS)
+				|| property.getName().equals(KEYVALUES_ATTR_RELATED_OBJECTS)
+				|| property.getName().equals(KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)
+				|| property.getName().equals(KEYVALUES_ATTR_DESCRIPTOR)
+				){
+			throw new CouchDataException(INVALID_ATTR_MATCH_COMPARISON + " " + property.getName());
+		}
+		return (null!=obj && obj.toString().equals(keyValue.getValue().toString()));
+	}
+	
 	/**
 	 * Receives a list of KeyValue objects to set values in respective attributes
 	 */
 	public void setValues(List<KeyValue> keyValues) 
 			throws InvocationTargetException, IllegalAccessException, CouchDataException{
 		try {
-			Method[] methods = getClass().getDeclaredMethods();
-			Field[] fields = getClass().getDeclaredFields();
-			for(Field field: fields){
-				for(KeyValue keyValue: keyValues){
-					if(keyValue.getKey().equals(field.getName())){
-						String methodName = "set" + field.getName().substring(0,1).toUpperCase() + field.getName().substring(1);
-						Method method = null;
-						for(Method m: methods){
-							if(m.getName().equals(methodName)){
-								method = m;
-								break;
-							}
-						}
-						if(null!=method){
-							method.invoke(this, keyValue.getValue());
-						}
-					}
+			EntityDescriptor descriptor = EntityDescriptorRegistry.getDescriptor(getClass(), BaseDTO.class);
+			for(KeyValue keyValue: keyValues){
+				EntityProperty property = descriptor.getProperty(keyValue.getKey());
+				if(null!=property && property.hasSetter()){
+					property.setValue(this, keyValue.getValue());
 				}
 			}
 		} catch (Exception e) {
@@ -22,6 +22,11 @@ public class DynamoConfig {
 	 */
 	private DynamoDB dynamoDB;
 	
+	/**
+	 * DynamoDB low level client
+	 */
+	private AmazonDynamoDB amazonClient;
+	
 	/**
 	 * Mapper
 	 */
@@ -61,6 +66,7 @@ public class DynamoConfig {
 			builder.setCredentials(new AWSStaticCredentialsProvider(awsCreds));
 			dynamoClient = builder.build();
 		}
+		amazonClient = dynamoClient;
 		dynamoDB = new DynamoDB(dynamoClient);
 		mapper = new DynamoDBMapper(dynamoClient);
 		this.readUnits = readUnits;
@@ -81,6 +87,13 @@ public class DynamoConfig {
 		return dynamoDB;
 	}
 
+	/**
+	 * @return the DynamoDB low level client
+	 */
+	public AmazonDynamoDB getAmazonClient() {
+		return amazonClient;
+	}
+
 	/**
 	 * @return readUnits
 	 */
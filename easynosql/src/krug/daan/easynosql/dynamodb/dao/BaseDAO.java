@@ -8,18 +8,24 @@ import java.util.List;
 import java.util.Map;
 
 import krug.daan.easynosql.common.KeyValue;
+import krug.daan.easynosql.common.mapper.MapperRegistry;
 import krug.daan.easynosql.dynamodb.dao.RelationalIntegrityDAO;
 import krug.daan.easynosql.dynamodb.aws.AwsKeyValue;
 import krug.daan.easynosql.dynamodb.config.DynamoConfig;
 import krug.daan.easynosql.dynamodb.dto.BaseDTO;
 import krug.daan.easynosql.dynamodb.dto.RelationalIntegrityDTO;
 import krug.daan.easynosql.dynamodb.exception.DynamoDataException;
+import krug.daan.easynosql.dynamodb.mapper.AttributeMapper;
 import krug.daan.easynosql.dynamodb.type.ComparisonType;
 import krug.daan.easynosql.dynamodb.type.DataType;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
 
 /**
  * @author Daniel Augusto Krug
@@ -289,8 +295,11 @@ public class BaseDAO {
 				conditionExpression.append(BaseDTO.TABLE_NAME_ATTR_DESCRIPTOR + " = " +  keyParam);
 			}
 			List<BaseDTO> dtos = null;
-			Class clazz = dto.getClass();
-			if(isKeyExpression){
+			Class<BaseDTO> clazz = getDtoClass(dto);
+			AttributeMapper<BaseDTO> mapper = getAttributeMapper(clazz);
+			if(null!=mapper){
+				dtos = findAll(clazz, mapper, conditionExpression.toString(), eav, limit, isKeyExpression);
+			}else if(isKeyExpression){
 				DynamoDBQueryExpression<BaseDTO> queryExpression = new DynamoDBQueryExpression<BaseDTO>();
 				queryExpression.setKeyConditionExpression(conditionExpression.toString());
 				queryExpression.setExpressionAttributeValues(eav);
@@ -325,6 +334,69 @@ public class BaseDAO {
 		}
 	}
 	
+	/**
+	 * Return the class of the [dto], typed as the DynamoDBMapper expects
+	 */
+	@SuppressWarnings(value="unchecked")
+	private static Class<BaseDTO> getDtoClass(BaseDTO dto){
+		return (Class<BaseDTO>)dto.getClass();
+	}
+	
+	/**
+	 * Return the AttributeMapper generated on compile time for the [clazz], 
+	 * or null if dont exists.
+	 */
+	@SuppressWarnings(value="unchecked")
+	private static AttributeMapper<BaseDTO> getAttributeMapper(Class<BaseDTO> clazz){
+		return MapperRegistry.getMapper(clazz, AttributeMapper.class);
+	}
 	
+	/**
+	 * Search a object list by the DynamoDB low level client, converting the items 
+	 * by the AttributeMapper generated on compile time. The pages are read until 
+	 * the [limit] of objects is reached, or all pages when [limit] is not positive.
+	 */
+	private List<BaseDTO> findAll(Class<? extends BaseDTO> clazz, AttributeMapper<BaseDTO> mapper, String conditionExpression,
+			Map<String, AttributeValue> eav, Integer limit, boolean isKeyExpression) 
+					throws InstantiationException, IllegalAccessException, InvocationTargetException, 
+							NoSuchMethodException, DynamoDataException{
+		List<BaseDTO> dtos = new ArrayList<BaseDTO>();
+		Map<String, AttributeValue> lastEvaluatedKey = null;
+		do {
+			List<Map<String, AttributeValue>> items = null;
+			if(isKeyExpression){
+				QueryRequest queryRequest = new QueryRequest(mapper.getTableName());
+				queryRequest.setKeyConditionExpression(conditionExpression);
+				queryRequest.setExpressionAttributeValues(eav);
+				queryRequest.setExclusiveStartKey(lastEvaluatedKey);
+				if(null!=limit && limit > 0){
+					queryRequest.setLimit(limit);
+				}
+				QueryResult queryResult = dnc.getAmazonClient().query(queryRequest);
+				items = queryResult.getItems();
+				lastEvaluatedKey = queryResult.getLastEvaluatedKey();
+			}else{
+				ScanRequest scanRequest = new ScanRequest(mapper.getTableName());
+				scanRequest.setFilterExpression(conditionExpression);
+				scanRequest.setExpressionAttributeValues(eav);
+				scanRequest.setExclusiveStartKey(lastEvaluatedKey);
+				if(null!=limit && limit > 0){
+					scanRequest.setLimit(limit);
+				}
+				ScanResult scanResult = dnc.getAmazonClient().scan(scanRequest);
+				items = scanResult.getItems();
+				lastEvaluatedKey = scanResult.getLastEvaluatedKey();
+			}
+			for(Map<String, AttributeValue> item: items){
+				BaseDTO dto = clazz.getDeclaredConstructor().newInstance();
+				mapper.fromAttributeMap(item, dto);
+				dtos.add(dto);
+			}
+			if(null!=limit && limit > 0 && dtos.size() >= limit){
+				break;
+			}
+		} while(null!=lastEvaluatedKey && lastEvaluatedKey.size() > 0);
+		return dtos;
+	}
 
 }
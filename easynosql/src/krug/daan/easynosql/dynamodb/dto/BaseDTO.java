@@ -1,12 +1,13 @@
 package krug.daan.easynosql.dynamodb.dto;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
 import krug.daan.easynosql.common.KeyValue;
+import krug.daan.easynosql.common.metadata.EntityDescriptor;
+import krug.daan.easynosql.common.metadata.EntityDescriptorRegistry;
+import krug.daan.easynosql.common.metadata.EntityProperty;
 import krug.daan.easynosql.dynamodb.exception.DynamoDataException;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBIgnore;
@@ -195,23 +196,11 @@ public class BaseDTO {
 	public void setValues(List<KeyValue> keyValues) 
 			throws InvocationTargetException, IllegalAccessException, DynamoDataException{
 		try {
-			Method[] methods = getClass().getDeclaredMethods();
-			Field[] fields = getClass().getDeclaredFields();
-			for(Field field: fields){
-				for(KeyValue keyValue: keyValues){
-					if(keyValue.getKey().equals(field.getName())){
-						String methodName = "set" + field.getName().substring(0,1).toUpperCase() + field.getName().substring(1);
-						Method method = null;
-						for(Method m: methods){
-							if(m.getName().equals(methodName)){
-								method = m;
-								break;
-							}
-						}
-						if(null!=method){
-							method.invoke(this, keyValue.getValue());
-						}
-					}
+			EntityDescriptor descriptor = EntityDescriptorRegistry.getDescriptor(getClass(), BaseDTO.class);
+			for(KeyValue keyValue: keyValues){
+				EntityProperty property = descriptor.getProperty(keyValue.getKey());
+				if(null!=property && property.hasSetter()){
+					property.setValue(this, keyValue.getValue());
 				}
 			}
 		} catch (Exception e) {
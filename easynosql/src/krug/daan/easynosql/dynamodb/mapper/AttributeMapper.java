@@ -0,0 +1,32 @@
+package krug.daan.easynosql.dynamodb.mapper;
+
+import java.util.Map;
+
+import krug.daan.easynosql.dynamodb.dto.BaseDTO;
+import krug.daan.easynosql.dynamodb.exception.DynamoDataException;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Interface implemented by the mappers generated on compile time, to convert
+ * DynamoDB persistent objects to and from attribute maps without reflection.
+ */
+public interface AttributeMapper<T extends BaseDTO> {
+	
+	/**
+	 * @return the DynamoDB table name of the objects
+	 */
+	String getTableName();
+	
+	/**
+	 * Create the attribute map that represents the [dto] object
+	 */
+	Map<String, AttributeValue> toAttributeMap(T dto) throws DynamoDataException;
+	
+	/**
+	 * Set the [attributes] values on the [dto] object attributes
+	 */
+	void fromAttributeMap(Map<String, AttributeValue> attributes, T dto) throws DynamoDataException;
+}
@@ -0,0 +1,159 @@
+package krug.daan.easynosql.dynamodb.mapper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.TimeZone;
+
+import krug.daan.easynosql.dynamodb.exception.DynamoDataException;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Class to convert attribute values to and from AttributeValue objects, 
+ * in the same formats used by the DynamoDBMapper. Used by the generated AttributeMapper classes.
+ */
+public class AttributeValues {
+	
+	/**
+	 * DATE_FORMAT
+	 */
+	private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+	
+	/**
+	 * Constructor
+	 */
+	private AttributeValues(){
+		
+	}
+	
+	/**
+	 * Create a new date formatter, SimpleDateFormat is not thread safe
+	 */
+	private static SimpleDateFormat dateFormatter(){
+		SimpleDateFormat dateFormatter = new SimpleDateFormat(DATE_FORMAT);
+		dateFormatter.setTimeZone(TimeZone.getTimeZone("UTC"));
+		return dateFormatter;
+	}
+	
+	/**
+	 * Put the AttributeValue of [value] on [attributes], if [value] is not null
+	 */
+	public static void put(Map<String, AttributeValue> attributes, String name, Object value) throws DynamoDataException{
+		if(null==value){
+			return;
+		}
+		AttributeValue av = new AttributeValue();
+		if(value instanceof String){
+			av.setS((String)value);
+		}else if(value instanceof Date){
+			av.setS(dateFormatter().format((Date)value));
+		}else if(value instanceof Boolean){
+			av.setN(((Boolean)value) ? "1" : "0");
+		}else if(value instanceof Number){
+			av.setN(value.toString());
+		}else{
+			throw new DynamoDataException("Unsuported data type attribute: " + value.getClass());
+		}
+		attributes.put(name, av);
+	}
+	
+	/**
+	 * @return the String value of a attribute, or null if dont exists
+	 */
+	public static String getString(Map<String, AttributeValue> attributes, String name){
+		AttributeValue av = attributes.get(name);
+		return (null!=av ? av.getS() : null);
+	}
+	
+	/**
+	 * @return the number value (as String) of a attribute, or null if dont exists
+	 */
+	private static String getNumber(Map<String, AttributeValue> attributes, String name){
+		AttributeValue av = attributes.get(name);
+		return (null!=av ? av.getN() : null);
+	}
+	
+	/**
+	 * @return the Integer value of a attribute, or null if dont exists
+	 */
+	public static Integer getInteger(Map<String, AttributeValue> attributes, String name){
+		String n = getNumber(attributes, name);
+		return (null!=n ? Integer.valueOf(n) : null);
+	}
+	
+	/**
+	 * @return the Long value of a attribute, or null if dont exists
+	 */
+	public static Long getLong(Map<String, AttributeValue> attributes, String name){
+		String n = getNumber(attributes, name);
+		return (null!=n ? Long.valueOf(n) : null);
+	}
+	
+	/**
+	 * @return the Double value of a attribute, or null if dont exists
+	 */
+	public static Double getDouble(Map<String, AttributeValue> attributes, String name){
+		String n = getNumber(attributes, name);
+		return (null!=n ? Double.valueOf(n) : null);
+	}
+	
+	/**
+	 * @return the Float value of a attribute, or null if dont exists
+	 */
+	public static Float getFloat(Map<String, AttributeValue> attributes, String name){
+		String n = getNumber(attributes, name);
+		return (null!=n ? Float.valueOf(n) : null);
+	}
+	
+	/**
+	 * @return the BigInteger value of a attribute, or null if dont exists
+	 */
+	public static BigInteger getBigInteger(Map<String, AttributeValue> attributes, String name){
+		String n = getNumber(attributes, name);
+		return (null!=n ? new BigInteger(n) : null);
+	}
+	
+	/**
+	 * @return the BigDecimal value of a attribute, or null if dont exists
+	 */
+	public static BigDecimal getBigDecimal(Map<String, AttributeValue> attributes, String name){
+		String n = getNumber(attributes, name);
+		return (null!=n ? new BigDecimal(n) : null);
+	}
+	
+	/**
+	 * @return the Boolean value of a attribute, or null if dont exists.
+	 * Accept the number ("1" or "0") and the BOOL formats.
+	 */
+	public static Boolean getBoolean(Map<String, AttributeValue> attributes, String name){
+		AttributeValue av = attributes.get(name);
+		if(null==av){
+			return null;
+		}
+		if(null!=av.getBOOL()){
+			return av.getBOOL();
+		}
+		return (null!=av.getN() ? Boolean.valueOf(!"0".equals(av.getN())) : null);
+	}
+	
+	/**
+	 * @return the Date value of a attribute, or null if dont exists
+	 */
+	public static Date getDate(Map<String, AttributeValue> attributes, String name) throws DynamoDataException{
+		String s = getString(attributes, name);
+		if(null==s){
+			return null;
+		}
+		try {
+			return dateFormatter().parse(s);
+		} catch (ParseException pe) {
+			throw new DynamoDataException(pe);
+		}
+	}
+}
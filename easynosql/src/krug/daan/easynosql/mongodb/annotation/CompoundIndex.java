@@ -0,0 +1,29 @@
+package krug.daan.easynosql.mongodb.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * To annotate the object classes that should have a compound index on the MongoDB 
+ * collection. The [fields] are the attributes names, on the index order, and a 
+ * attribute name prefixed by "-" have descending order. 
+ * To declare more than one compound index use CompoundIndexes.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CompoundIndex {
+	
+	/**
+	 * Attributes names of the index
+	 */
+	String[] fields();
+	
+	/**
+	 * Unique index
+	 */
+	boolean unique() default false;
+}
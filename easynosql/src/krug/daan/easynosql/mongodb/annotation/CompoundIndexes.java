@@ -0,0 +1,22 @@
+package krug.daan.easynosql.mongodb.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * To annotate the object classes that should have more than one compound index
+ * on the MongoDB collection.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CompoundIndexes {
+	
+	/**
+	 * The compound indexes
+	 */
+	CompoundIndex[] value();
+}
@@ -0,0 +1,34 @@
+package krug.daan.easynosql.mongodb.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * To annotate the attributes of a object that should have a single field index
+ * on the MongoDB collection, to speed up the searches by the attribute.
+ * A TTL index (documents removed by MongoDB after [expireAfterSeconds]) is created 
+ * when [expireAfterSeconds] is not negative, on a java.util.Date attribute.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Indexed {
+	
+	/**
+	 * Unique index
+	 */
+	boolean unique() default false;
+	
+	/**
+	 * Descending index order
+	 */
+	boolean descending() default false;
+	
+	/**
+	 * Seconds to expire the documents (TTL index), or negative to not expire
+	 */
+	long expireAfterSeconds() default -1;
+}
@@ -0,0 +1,28 @@
+package krug.daan.easynosql.mongodb.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import krug.daan.easynosql.mongodb.type.RelatedObjectsStorage;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * To annotate a object class whose related objects ids should be stored whit other
+ * storage than the default STRING. Whit ARRAY storage the ids are stored as a native
+ * array whit a multikey index, so the objects that reference other object can be 
+ * searched on the server (see Criteria.references()), and the reads dont parse a String.
+ * The objects stored whit STRING storage before the annotation remain readable: the array
+ * is written on the next save, and takes precedence over the String when both exist.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RelatedObjectsStorageMode {
+	
+	/**
+	 * The storage of the related objects ids
+	 */
+	RelatedObjectsStorage value() default RelatedObjectsStorage.ARRAY;
+}
@@ -0,0 +1,347 @@
+package krug.daan.easynosql.mongodb.codec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import krug.daan.easynosql.common.KeyValue;
+import krug.daan.easynosql.common.mapper.MapperRegistry;
+import krug.daan.easynosql.common.metadata.EntityDescriptor;
+import krug.daan.easynosql.common.metadata.EntityDescriptorRegistry;
+import krug.daan.easynosql.common.metadata.EntityProperty;
+import krug.daan.easynosql.mongodb.annotation.RelatedObjectsStorageMode;
+import krug.daan.easynosql.mongodb.dto.BaseDTO;
+import krug.daan.easynosql.mongodb.mapper.DocumentMapper;
+import krug.daan.easynosql.mongodb.type.RelatedObjectsStorage;
+
+import org.bson.BSONException;
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.BsonTypeClassMap;
+import org.bson.codecs.Codec;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Codec to encode and decode MongoDB persistent objects directly to and from BSON,
+ * whithout the intermediate Document and List of KeyValue objects.
+ * The attributes are the same stored by the BaseDAO: "_id", [relatedObjectsIdsJson]
+ * and the attributes declared on the persistent object class. The unloaded attributes
+ * of a partially loaded object are not encoded.
+ * 
+ * The related objects ids are stored according the RelatedObjectsStorageMode of the class: 
+ * as the [relatedObjectsIdsJson] String (default), or as the [relatedObjectsIds] array of 
+ * {c: class, id: id} documents, clearing the String. Both are readable whit any storage: the
+ * array is used whit ARRAY storage when present, and whit STRING storage when the String is null.
+ * 
+ * When the DocumentMapper generated on compile time for the class exists, the attributes 
+ * declared on the class are read and written by the mapper, whithout reflection.
+ */
+public class BaseDTOCodec<T extends BaseDTO> implements CollectibleCodec<T> {
+	
+	/**
+	 * Default mapping from BSON types to Java classes, the same used by the Document class
+	 */
+	private static final BsonTypeClassMap BSON_TYPE_CLASS_MAP = new BsonTypeClassMap();
+	
+	/**
+	 * Persistent object class
+	 */
+	private Class<T> dtoClass;
+	
+	/**
+	 * Registry to obtain the codecs of the attribute values
+	 */
+	private CodecRegistry registry;
+	
+	/**
+	 * Cached attributes description of the [dtoClass]
+	 */
+	private EntityDescriptor descriptor;
+	
+	/**
+	 * The [relatedObjectsIdsJson] attribute
+	 */
+	private EntityProperty relatedObjectsIdsJsonProperty;
+	
+	/**
+	 * DocumentMapper generated on compile time for the [dtoClass], or null if dont exists
+	 */
+	private DocumentMapper<T> mapper;
+	
+	/**
+	 * Index on the [mapper] of the mapped attributes, by attribute name
+	 */
+	private Map<String, Integer> mapperIndexes;
+	
+	/**
+	 * Codecs to decode the attribute values, by BsonType
+	 */
+	private Codec<?>[] decoders;
+	
+	/**
+	 * Indicates that the related objects ids are stored as a array
+	 */
+	private boolean arrayStorage;
+	
+	/**
+	 * Constructor
+	 */
+	public BaseDTOCodec(Class<T> dtoClass, CodecRegistry registry){
+		this.dtoClass = dtoClass;
+		this.registry = registry;
+		this.descriptor = EntityDescriptorRegistry.getDescriptor(dtoClass, BaseDTO.class);
+		this.relatedObjectsIdsJsonProperty = descriptor.getBaseProperty(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON);
+		this.decoders = new Codec<?>[BsonType.values().length];
+		RelatedObjectsStorageMode storageMode = dtoClass.getAnnotation(RelatedObjectsStorageMode.class);
+		this.arrayStorage = (null!=storageMode && RelatedObjectsStorage.ARRAY==storageMode.value());
+		this.mapper = getDocumentMapper(dtoClass);
+		this.mapperIndexes = new HashMap<String, Integer>();
+		if(null!=mapper){
+			String[] attributeNames = mapper.getAttributeNames();
+			for(int i = 0; i < attributeNames.length; i++){
+				if(null!=descriptor.getProperty(attributeNames[i])){
+					mapperIndexes.put(attributeNames[i], i);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Return the DocumentMapper generated on compile time for the [dtoClass], 
+	 * or null if dont exists.
+	 */
+	@SuppressWarnings(value="unchecked")
+	private static <T extends BaseDTO> DocumentMapper<T> getDocumentMapper(Class<T> dtoClass){
+		return MapperRegistry.getMapper(dtoClass, DocumentMapper.class);
+	}
+	
+	/**
+	 * Return the index on the [mapper] of the attribute [name], or -1 if the attribute is not mapped
+	 */
+	private int getMapperIndex(String name){
+		Integer index = mapperIndexes.get(name);
+		return (null!=index ? index : -1);
+	}
+	
+	@Override
+	public Class<T> getEncoderClass() {
+		return dtoClass;
+	}
+	
+	@Override
+	public void encode(BsonWriter writer, T dto, EncoderContext encoderContext) {
+		try {
+			writer.writeStartDocument();
+			if(encoderContext.isEncodingCollectibleDocument() && null!=dto.getId()){
+				writer.writeObjectId(BaseDTO.ID_ATTR_DESCRIPTOR, dto.getId());
+			}
+			if(dto.isFieldLoaded(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)){
+				if(arrayStorage){
+					if(null==dto.getRelatedObjectsIds()){
+						dto.populateRelatedObjectsIds();
+					}
+					dto.populateRelatedObjectsIdsJson();
+					writeRelatedObjectsIds(writer, dto.getRelatedObjectsIds());
+					writer.writeNull(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON);
+				}else{
+					dto.populateRelatedObjectsIdsJson();
+					writeValue(writer, BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON, dto.getRelatedObjectsIdsJson(), encoderContext);
+				}
+			}
+			for(EntityProperty property: descriptor.getProperties()){
+				if(property.hasGetter()){
+					int mapperIndex = getMapperIndex(property.getName());
+					Object value = (mapperIndex >= 0 ? mapper.getValue(dto, mapperIndex) : property.getValue(dto));
+					if(dto.isFieldWritable(property.getName(), value)){
+						writeValue(writer, property.getName(), value, encoderContext);
+					}
+				}
+			}
+			writer.writeEndDocument();
+		}
+		catch (BSONException be){
+			throw (be);
+		}
+		catch (Exception e) {
+			throw new BSONException("Object of class " + dtoClass.getName() + " could not be encoded.", e);
+		}
+	}
+	
+	/**
+	 * Write the related objects ids as a array of {c: class, id: id} documents. 
+	 * The valid hexadecimal ids are written as ObjectId.
+	 */
+	private void writeRelatedObjectsIds(BsonWriter writer, List<KeyValue> relatedObjectsIds){
+		writer.writeStartArray(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS);
+		for(KeyValue keyValue: relatedObjectsIds){
+			writer.writeStartDocument();
+			writer.writeString(BaseDTO.RELATED_OBJECT_CLASS_ATTR_DESCRIPTOR, keyValue.getKey());
+			String id = String.valueOf(keyValue.getValue());
+			if(ObjectId.isValid(id)){
+				writer.writeObjectId(BaseDTO.RELATED_OBJECT_ID_ATTR_DESCRIPTOR, new ObjectId(id));
+			}else{
+				writer.writeString(BaseDTO.RELATED_OBJECT_ID_ATTR_DESCRIPTOR, id);
+			}
+			writer.writeEndDocument();
+		}
+		writer.writeEndArray();
+	}
+	
+	/**
+	 * Read the related objects ids from a array of {c: class, id: id} documents
+	 */
+	private List<KeyValue> readRelatedObjectsIds(BsonReader reader){
+		List<KeyValue> relatedObjectsIds = new ArrayList<KeyValue>();
+		reader.readStartArray();
+		while(reader.readBsonType() != BsonType.END_OF_DOCUMENT){
+			String className = null;
+			String id = null;
+			reader.readStartDocument();
+			while(reader.readBsonType() != BsonType.END_OF_DOCUMENT){
+				String name = reader.readName();
+				if(name.equals(BaseDTO.RELATED_OBJECT_CLASS_ATTR_DESCRIPTOR) && reader.getCurrentBsonType() == BsonType.STRING){
+					className = reader.readString();
+				}else if(name.equals(BaseDTO.RELATED_OBJECT_ID_ATTR_DESCRIPTOR) && reader.getCurrentBsonType() == BsonType.OBJECT_ID){
+					id = reader.readObjectId().toHexString();
+				}else if(name.equals(BaseDTO.RELATED_OBJECT_ID_ATTR_DESCRIPTOR) && reader.getCurrentBsonType() == BsonType.STRING){
+					id = reader.readString();
+				}else{
+					reader.skipValue();
+				}
+			}
+			reader.readEndDocument();
+			if(null!=className && null!=id){
+				relatedObjectsIds.add(new KeyValue(className, id));
+			}
+		}
+		reader.readEndArray();
+		return relatedObjectsIds;
+	}
+	
+	/**
+	 * Write a attribute value, by the codec of the value class
+	 */
+	@SuppressWarnings(value="unchecked")
+	private void writeValue(BsonWriter writer, String name, Object value, EncoderContext encoderContext){
+		writer.writeName(name);
+		if(null==value){
+			writer.writeNull();
+			return;
+		}
+		Codec<Object> codec = (Codec<Object>)registry.get(value.getClass());
+		encoderContext.encodeWithChildContext(codec, writer, value);
+	}
+	
+	@Override
+	public T decode(BsonReader reader, DecoderContext decoderContext) {
+		try {
+			T dto = dtoClass.getDeclaredConstructor().newInstance();
+			List<KeyValue> relatedObjectsIds = null;
+			reader.readStartDocument();
+			while(reader.readBsonType() != BsonType.END_OF_DOCUMENT){
+				String name = reader.readName();
+				if(name.equals(BaseDTO.ID_ATTR_DESCRIPTOR)){
+					if(reader.getCurrentBsonType() == BsonType.OBJECT_ID){
+						dto.setId(reader.readObjectId());
+					}else{
+						reader.skipValue();
+					}
+					continue;
+				}
+				if(name.equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS) && null==descriptor.getProperty(name)){
+					if(reader.getCurrentBsonType() == BsonType.ARRAY){
+						relatedObjectsIds = readRelatedObjectsIds(reader);
+					}else{
+						reader.skipValue();
+					}
+					continue;
+				}
+				EntityProperty property = descriptor.getProperty(name);
+				if(null==property && name.equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)){
+					property = relatedObjectsIdsJsonProperty;
+				}
+				if(null==property || !property.hasSetter()){
+					reader.skipValue();
+					continue;
+				}
+				int mapperIndex = getMapperIndex(name);
+				if(mapperIndex >= 0){
+					mapper.setValue(dto, mapperIndex, readValue(reader, decoderContext));
+				}else{
+					property.setValue(dto, readValue(reader, decoderContext));
+				}
+			}
+			reader.readEndDocument();
+			if(null!=relatedObjectsIds && (arrayStorage || null==dto.getRelatedObjectsIdsJson())){
+				dto.setRelatedObjectsIds(relatedObjectsIds);
+				dto.populateRelatedObjectsIdsJson();
+			}
+			dto.markRelatedObjectsIdsJsonPersisted();
+			return dto;
+		}
+		catch (BSONException be){
+			throw (be);
+		}
+		catch (Exception e) {
+			throw new BSONException("Object of class " + dtoClass.getName() + " could not be decoded.", e);
+		}
+	}
+	
+	/**
+	 * Read a attribute value, by the codec of the current BsonType. 
+	 * Arrays are read as List objects.
+	 */
+	private Object readValue(BsonReader reader, DecoderContext decoderContext){
+		BsonType bsonType = reader.getCurrentBsonType();
+		if(bsonType == BsonType.NULL){
+			reader.readNull();
+			return null;
+		}
+		if(bsonType == BsonType.ARRAY){
+			List<Object> list = new ArrayList<Object>();
+			reader.readStartArray();
+			while(reader.readBsonType() != BsonType.END_OF_DOCUMENT){
+				list.add(readValue(reader, decoderContext));
+			}
+			reader.readEndArray();
+			return list;
+		}
+		Codec<?> codec = decoders[bsonType.ordinal()];
+		if(null==codec){
+			codec = registry.get(BSON_TYPE_CLASS_MAP.get(bsonType));
+			decoders[bsonType.ordinal()] = codec;
+		}
+		return codec.decode(reader, decoderContext);
+	}
+	
+	@Override
+	public T generateIdIfAbsentFromDocument(T dto) {
+		if(!documentHasId(dto)){
+			dto.setId(new ObjectId());
+		}
+		return dto;
+	}
+	
+	@Override
+	public boolean documentHasId(T dto) {
+		return (null!=dto.getId());
+	}
+	
+	@Override
+	public BsonValue getDocumentId(T dto) {
+		if(!documentHasId(dto)){
+			throw new IllegalStateException("The object does not contain an _id");
+		}
+		return new BsonObjectId(dto.getId());
+	}
+}
@@ -0,0 +1,33 @@
+package krug.daan.easynosql.mongodb.codec;
+
+import krug.daan.easynosql.mongodb.dto.BaseDTO;
+
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Provides the BaseDTOCodec for the MongoDB persistent object classes (BaseDTO subclasses).
+ * The codecs are cached by the CodecRegistry, one per class.
+ */
+public class BaseDTOCodecProvider implements CodecProvider {
+	
+	@Override
+	@SuppressWarnings(value="unchecked")
+	public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry) {
+		if(BaseDTO.class.isAssignableFrom(clazz) && !BaseDTO.class.equals(clazz)){
+			// T is the BaseDTO subclass the codec is created for
+			return (Codec<T>)createCodec(clazz.asSubclass(BaseDTO.class), registry);
+		}
+		return null;
+	}
+	
+	/**
+	 * Create the BaseDTOCodec of the [clazz]
+	 */
+	private static <D extends BaseDTO> Codec<D> createCodec(Class<D> clazz, CodecRegistry registry){
+		return new BaseDTOCodec<D>(clazz, registry);
+	}
+}
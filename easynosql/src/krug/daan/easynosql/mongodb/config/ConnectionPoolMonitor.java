@@ -0,0 +1,127 @@
+package krug.daan.easynosql.mongodb.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionAddedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolListenerAdapter;
+import com.mongodb.event.ConnectionPoolOpenedEvent;
+import com.mongodb.event.ConnectionPoolWaitQueueEnteredEvent;
+import com.mongodb.event.ConnectionPoolWaitQueueExitedEvent;
+import com.mongodb.event.ConnectionRemovedEvent;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * ConnectionPoolListener registered on the clients of a single MongoConfig, counting the
+ * connections of each pool opened by those clients only.
+ */
+class ConnectionPoolMonitor extends ConnectionPoolListenerAdapter {
+
+	/**
+	 * Counters of the opened pools, by server
+	 */
+	private final ConcurrentMap<ServerId, PoolCounters> pools = new ConcurrentHashMap<ServerId, PoolCounters>();
+
+	@Override
+	public void connectionPoolOpened(ConnectionPoolOpenedEvent event) {
+		pools.put(event.getServerId(), new PoolCounters(event.getSettings().getMinSize(), event.getSettings().getMaxSize()));
+	}
+
+	@Override
+	public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+		pools.remove(event.getServerId());
+	}
+
+	@Override
+	public void connectionAdded(ConnectionAddedEvent event) {
+		PoolCounters counters = pools.get(event.getConnectionId().getServerId());
+		if(null!=counters){
+			counters.size.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void connectionRemoved(ConnectionRemovedEvent event) {
+		PoolCounters counters = pools.get(event.getConnectionId().getServerId());
+		if(null!=counters){
+			counters.size.decrementAndGet();
+		}
+	}
+
+	@Override
+	public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+		PoolCounters counters = pools.get(event.getConnectionId().getServerId());
+		if(null!=counters){
+			counters.checkedOutCount.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+		PoolCounters counters = pools.get(event.getConnectionId().getServerId());
+		if(null!=counters){
+			counters.checkedOutCount.decrementAndGet();
+		}
+	}
+
+	@Override
+	public void waitQueueEntered(ConnectionPoolWaitQueueEnteredEvent event) {
+		PoolCounters counters = pools.get(event.getServerId());
+		if(null!=counters){
+			counters.waitQueueSize.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void waitQueueExited(ConnectionPoolWaitQueueExitedEvent event) {
+		PoolCounters counters = pools.get(event.getServerId());
+		if(null!=counters){
+			counters.waitQueueSize.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Return a snapshot of the counters of each opened pool
+	 */
+	List<ConnectionPoolStatistics> getStatistics(){
+		List<ConnectionPoolStatistics> statistics = new ArrayList<ConnectionPoolStatistics>();
+		for(Map.Entry<ServerId, PoolCounters> entry: pools.entrySet()){
+			PoolCounters counters = entry.getValue();
+			statistics.add(new ConnectionPoolStatistics(
+								entry.getKey().getAddress().getHost(),
+								entry.getKey().getAddress().getPort(),
+								counters.minSize,
+								counters.maxSize,
+								counters.size.get(),
+								counters.checkedOutCount.get(),
+								counters.waitQueueSize.get()));
+		}
+		return statistics;
+	}
+
+	/**
+	 * Counters of a single pool
+	 */
+	private static class PoolCounters {
+
+		private final int minSize;
+		private final int maxSize;
+		private final AtomicInteger size = new AtomicInteger();
+		private final AtomicInteger checkedOutCount = new AtomicInteger();
+		private final AtomicInteger waitQueueSize = new AtomicInteger();
+
+		PoolCounters(int minSize, int maxSize){
+			this.minSize = minSize;
+			this.maxSize = maxSize;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package krug.daan.easynosql.mongodb.config;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Class to hold a snapshot of the statistics of the connection pool of a MongoDB server.
+ */
+public class ConnectionPoolStatistics {
+
+	/**
+	 * Server host
+	 */
+	private String host;
+
+	/**
+	 * Server port
+	 */
+	private int port;
+
+	/**
+	 * Configured minimum size of the pool
+	 */
+	private int minSize;
+
+	/**
+	 * Configured maximum size of the pool
+	 */
+	private int maxSize;
+
+	/**
+	 * Number of connections currently opened on the pool
+	 */
+	private int size;
+
+	/**
+	 * Number of connections currently checked out of the pool
+	 */
+	private int checkedOutCount;
+
+	/**
+	 * Number of threads currently waiting for a connection
+	 */
+	private int waitQueueSize;
+
+	/**
+	 * Constructor
+	 *
+	 * @param host
+	 * @param port
+	 * @param minSize
+	 * @param maxSize
+	 * @param size
+	 * @param checkedOutCount
+	 * @param waitQueueSize
+	 */
+	ConnectionPoolStatistics(String host, int port, int minSize, int maxSize, int size,
+							int checkedOutCount, int waitQueueSize){
+		this.host = host;
+		this.port = port;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.size = size;
+		this.checkedOutCount = checkedOutCount;
+		this.waitQueueSize = waitQueueSize;
+	}
+
+	/**
+	 * Return the host
+	 */
+	public String getHost() {
+		return host;
+	}
+
+	/**
+	 * Return the port
+	 */
+	public int getPort() {
+		return port;
+	}
+
+	/**
+	 * Return the minSize
+	 */
+	public int getMinSize() {
+		return minSize;
+	}
+
+	/**
+	 * Return the maxSize
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Return the size
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Return the checkedOutCount
+	 */
+	public int getCheckedOutCount() {
+		return checkedOutCount;
+	}
+
+	/**
+	 * Return the waitQueueSize
+	 */
+	public int getWaitQueueSize() {
+		return waitQueueSize;
+	}
+
+	/**
+	 * Return the number of opened connections available to be checked out
+	 */
+	public int getAvailableCount() {
+		return size - checkedOutCount;
+	}
+
+	@Override
+	public String toString() {
+		return host + ":" + port + " [size=" + size + ", checkedOut=" + checkedOutCount
+				+ ", waitQueue=" + waitQueueSize + ", min=" + minSize + ", max=" + maxSize + "]";
+	}
+}
@@ -1,98 +1,506 @@
 package krug.daan.easynosql.mongodb.config;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import krug.daan.easynosql.mongodb.codec.BaseDTOCodecProvider;
+import krug.daan.easynosql.mongodb.dto.BaseDTO;
+import krug.daan.easynosql.mongodb.type.MongoCompression;
 
 import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
 
 import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.MongoCompressor;
 import com.mongodb.MongoCredential;
+import com.mongodb.ReadPreference;
 import com.mongodb.ServerAddress;
+import com.mongodb.WriteConcern;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.async.client.MongoClientSettings;
+import com.mongodb.async.client.MongoClients;
+import com.mongodb.connection.ClusterSettings;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.SocketSettings;
 
 /**
  * @author Daniel Augusto Krug
- * 
+ *
  * Class to encapsulate the basic configuration parameters for a MongoDB mechanism.
+ *
+ * For more than one seed host, or to tune the connection pool, timeouts, read preference
+ * and write concern, use the MongoConfig.Builder:
+ *
+ * MongoConfig mgc = new MongoConfig.Builder("test1").addHost("mongo1", 27017).addHost("mongo2", 27017)
+ * 						.maxPoolSize(50).readPreference(ReadPreference.secondaryPreferred()).build();
  */
 public class MongoConfig {
 
 	/**
-	 * MongoDB Host
-	 */
-	private String host;
-	
-	/**
-	 * MongoDB port
+	 * MongoDB seed hosts
 	 */
-	private Integer port;
-	
+	private List<ServerAddress> servers;
+
 	/**
 	 * MongoDB useer
 	 */
 	private String user;
-	
+
 	/**
 	 * MongoDB password
 	 */
 	private String password;
-	
+
 	/**
 	 * MongoDB database name
 	 */
 	private String databaseName;
-	
+
+	/**
+	 * MongoDB client options (pool, timeouts, read preference and write concern)
+	 */
+	private MongoClientOptions options;
+
+	/**
+	 * Wire protocol compression requested
+	 */
+	private MongoCompression compression;
+
 	/**
 	 * MongoDatabase object
 	 */
 	private MongoDatabase db;
-	
+
 	/**
 	 * MongoClient object
 	 */
 	private MongoClient mongoClient;
-	
+
+	/**
+	 * Listener of the connection pools of the sync and async clients of this config
+	 */
+	private ConnectionPoolMonitor poolMonitor = new ConnectionPoolMonitor();
+
+	/**
+	 * Credential of the MongoDB user, shared by the sync and async clients, null whithout user
+	 */
+	private MongoCredential credential;
+
+	/**
+	 * Registry of the codecs, shared by the sync and async clients
+	 */
+	private CodecRegistry codecRegistry;
+
+	/**
+	 * Async MongoClient object, created on the first use of the async database
+	 */
+	private com.mongodb.async.client.MongoClient asyncMongoClient;
+
+	/**
+	 * Async MongoDatabase object, created on demand by getAsyncDatabase()
+	 */
+	private volatile com.mongodb.async.client.MongoDatabase asyncDb;
+
+	/**
+	 * The package name for logger
+	 */
+	private static final String packageLogName = "krug.daan.easynosql.mongodb";
+
 	/**
-	 * Constructor 
-	 * 
+	 * Log messages
+	 */
+	private static Logger LOG = Logger.getLogger(packageLogName);
+
+	/**
+	 * Exception messages
+	 */
+	private static final String HOSTS_EMPTY_EXCEPTION = "At least one host must be informed.";
+	private static final String DATABASE_NAME_PARAMETER_NULL_EXCEPTION = "Parameter databaseName could not be null.";
+
+	/**
+	 * Constructor
+	 *
 	 * @param host
 	 * @param port
 	 * @param databaseName
 	 * @param user
 	 * @param password
-	 * 
+	 *
 	 */
 	public MongoConfig(String host,Integer port,String databaseName, String user, String password){
-		this.host = host;
-		this.port = port;
-		this.databaseName = databaseName;
-		this.user = user;
-		this.password = password;
+		this(new Builder(databaseName).addHost(host, port).credentials(user, password));
+	}
+
+	/**
+	 * Constructor from a Builder
+	 *
+	 * @param builder
+	 */
+	private MongoConfig(Builder builder){
+		this.servers = new ArrayList<ServerAddress>(builder.servers);
+		this.databaseName = builder.databaseName;
+		this.user = builder.user;
+		this.password = builder.password;
+		this.compression = builder.compression;
+		this.options = MongoClientOptions.builder(builder.optionsBuilder.build())
+							.addConnectionPoolListener(poolMonitor)
+							.compressorList(getCompressors(compression)).build();
 		initialize();
 	}
-	
+
 	/**
 	 * Initialization of parameters on moment of construction
-	 * 
+	 *
 	 */
 	private void initialize() {
-		List<ServerAddress> servers = new ArrayList<ServerAddress>();
-		List<MongoCredential> credentials = new ArrayList<MongoCredential>();
 		if(null!=user && user.trim().length() > 0 && null!=password && password.trim().length() > 0){
-			MongoCredential mc = MongoCredential.createCredential(user, databaseName, password.toCharArray());
-			credentials.add(mc);
+			credential = MongoCredential.createCredential(user, databaseName, password.toCharArray());
+		}
+		if(null!=credential){
+			mongoClient = new MongoClient(servers,credential,options);
+		}else{
+			mongoClient = new MongoClient(servers,options);
+		}
+		codecRegistry = CodecRegistries.fromRegistries(
+				CodecRegistries.fromProviders(new BaseDTOCodecProvider()),
+				MongoClient.getDefaultCodecRegistry());
+		db = mongoClient.getDatabase(databaseName).withCodecRegistry(codecRegistry);
+	}
+
+	/**
+	 * Return the compressors of the wire protocol for the [compression] requested
+	 *
+	 * @param compression
+	 */
+	private static List<MongoCompressor> getCompressors(MongoCompression compression){
+		if(MongoCompression.SNAPPY==compression){
+			return Collections.singletonList(MongoCompressor.createSnappyCompressor());
+		}else if(MongoCompression.ZLIB==compression){
+			return Collections.singletonList(MongoCompressor.createZlibCompressor());
 		}
-		ServerAddress sa = new ServerAddress(host,port);
-		servers.add(sa);
-		mongoClient = new MongoClient(servers,credentials);
-		db = mongoClient.getDatabase(databaseName);
+		return Collections.emptyList();
 	}
-	
+
 	/**
 	 * Get a MongoCollection of Document by a table name
 	 */
 	public MongoCollection<Document> getCollection(String tableName){
 		return db.getCollection(tableName);
 	}
+
+	/**
+	 * Get a MongoCollection of BaseDTO objects by a table name. The objects are
+	 * encoded and decoded directly to and from BSON by the BaseDTOCodec.
+	 */
+	public <T extends BaseDTO> MongoCollection<T> getCollection(String tableName, Class<T> dtoClass){
+		return db.getCollection(tableName, dtoClass);
+	}
+
+	/**
+	 * Get a async MongoCollection of BaseDTO objects by a table name, encoded and decoded
+	 * by the BaseDTOCodec as the getCollection() Method.
+	 */
+	public <T extends BaseDTO> com.mongodb.async.client.MongoCollection<T> getAsyncCollection(String tableName, Class<T> dtoClass){
+		return getAsyncDatabase().getCollection(tableName, dtoClass);
+	}
+
+	/**
+	 * Get a async MongoCollection of Document by a table name
+	 */
+	public com.mongodb.async.client.MongoCollection<Document> getAsyncCollection(String tableName){
+		return getAsyncDatabase().getCollection(tableName);
+	}
+
+	/**
+	 * Return the async MongoDatabase, creating the async MongoClient on the first use. The async
+	 * client has its own connection pool, whit the same hosts, credentials, codecs and options 
+	 * (pool sizes, wait queue, timeouts, read preference, write concern and compression) of the sync client.
+	 * The operations that exceed the wait queue of the pool fail whit MongoWaitQueueFullException.
+	 */
+	private com.mongodb.async.client.MongoDatabase getAsyncDatabase(){
+		com.mongodb.async.client.MongoDatabase database = asyncDb;
+		if(null==database){
+			synchronized (this) {
+				database = asyncDb;
+				if(null==database){
+					MongoClientSettings.Builder settingsBuilder = MongoClientSettings.builder()
+							.clusterSettings(ClusterSettings.builder().hosts(servers)
+									.serverSelectionTimeout(options.getServerSelectionTimeout(), TimeUnit.MILLISECONDS).build())
+							.connectionPoolSettings(ConnectionPoolSettings.builder()
+									.minSize(options.getMinConnectionsPerHost())
+									.maxSize(options.getConnectionsPerHost())
+									.maxWaitQueueSize(options.getConnectionsPerHost() * options.getThreadsAllowedToBlockForConnectionMultiplier())
+									.maxWaitTime(options.getMaxWaitTime(), TimeUnit.MILLISECONDS)
+									.maxConnectionIdleTime(options.getMaxConnectionIdleTime(), TimeUnit.MILLISECONDS)
+									.addConnectionPoolListener(poolMonitor).build())
+							.socketSettings(SocketSettings.builder()
+									.connectTimeout(options.getConnectTimeout(), TimeUnit.MILLISECONDS)
+									.readTimeout(options.getSocketTimeout(), TimeUnit.MILLISECONDS).build())
+							.readPreference(options.getReadPreference())
+							.writeConcern(options.getWriteConcern())
+							.compressorList(options.getCompressorList())
+							.codecRegistry(codecRegistry);
+					if(null!=credential){
+						settingsBuilder.credential(credential);
+					}
+					asyncMongoClient = MongoClients.create(settingsBuilder.build());
+					database = asyncMongoClient.getDatabase(databaseName);
+					asyncDb = database;
+				}
+			}
+		}
+		return database;
+	}
+
+	/**
+	 * Return a snapshot of the connection pool statistics of each MongoDB server connected by the
+	 * sync and async clients of this config. The pools are created on demand, so a server appears
+	 * after its first use. The pools of other clients of the JVM are not reported.
+	 */
+	public List<ConnectionPoolStatistics> getConnectionPoolStatistics(){
+		return poolMonitor.getStatistics();
+	}
+
+	/**
+	 * Return the client options in use
+	 */
+	public MongoClientOptions getOptions() {
+		return options;
+	}
+
+	/**
+	 * Return the databaseName
+	 */
+	public String getDatabaseName() {
+		return databaseName;
+	}
+
+	/**
+	 * Log the warning msg, whit the [thrown] exception
+	 * @param msg
+	 * @param thrown
+	 */
+	public void logWarn(String msg, Throwable thrown){
+		LOG.log(Level.WARNING, msg, thrown);
+	}
+
+	/**
+	 * Shutdown the MongoDB mechanism, closing all pooled connections
+	 */
+	public void shutdown(){
+		if(null!=mongoClient){
+			mongoClient.close();
+		}
+		synchronized (this) {
+			if(null!=asyncMongoClient){
+				asyncMongoClient.close();
+				asyncMongoClient = null;
+				asyncDb = null;
+			}
+		}
+	}
+
+	/**
+	 * @author Daniel Augusto Krug
+	 *
+	 * Builder to assemble a MongoConfig whit multiple seed hosts and tuned client options.
+	 * Every option not informed keeps the MongoDB driver default.
+	 */
+	public static class Builder {
+
+		/**
+		 * MongoDB seed hosts
+		 */
+		private List<ServerAddress> servers = new ArrayList<ServerAddress>();
+
+		/**
+		 * MongoDB database name
+		 */
+		private String databaseName;
+
+		/**
+		 * MongoDB user
+		 */
+		private String user;
+
+		/**
+		 * MongoDB password
+		 */
+		private String password;
+
+		/**
+		 * Wire protocol compression requested
+		 */
+		private MongoCompression compression = MongoCompression.NONE;
+
+		/**
+		 * MongoDB driver options builder
+		 */
+		private MongoClientOptions.Builder optionsBuilder = MongoClientOptions.builder();
+
+		/**
+		 * Constructor
+		 *
+		 * @param databaseName
+		 */
+		public Builder(String databaseName){
+			if(null==databaseName){
+				throw new IllegalArgumentException(DATABASE_NAME_PARAMETER_NULL_EXCEPTION);
+			}
+			this.databaseName = databaseName;
+		}
+
+		/**
+		 * Add a seed host. When host or port is null the MongoDB default is used.
+		 *
+		 * @param host
+		 * @param port
+		 */
+		public Builder addHost(String host, Integer port){
+			servers.add(new ServerAddress(host, null!=port ? port : ServerAddress.defaultPort()));
+			return this;
+		}
+
+		/**
+		 * Set the credentials, ignored when user or password is empty
+		 *
+		 * @param user
+		 * @param password
+		 */
+		public Builder credentials(String user, String password){
+			this.user = user;
+			this.password = password;
+			return this;
+		}
+
+		/**
+		 * Set the minimum number of connections kept opened per host
+		 *
+		 * @param minPoolSize
+		 */
+		public Builder minPoolSize(int minPoolSize){
+			optionsBuilder.minConnectionsPerHost(minPoolSize);
+			return this;
+		}
+
+		/**
+		 * Set the maximum number of connections per host
+		 *
+		 * @param maxPoolSize
+		 */
+		public Builder maxPoolSize(int maxPoolSize){
+			optionsBuilder.connectionsPerHost(maxPoolSize);
+			return this;
+		}
+
+		/**
+		 * Set the multiplier of maxPoolSize that gives the maximum number of threads
+		 * allowed to wait for a connection
+		 *
+		 * @param waitQueueMultiple
+		 */
+		public Builder waitQueueMultiple(int waitQueueMultiple){
+			optionsBuilder.threadsAllowedToBlockForConnectionMultiplier(waitQueueMultiple);
+			return this;
+		}
+
+		/**
+		 * Set the maximum time in milliseconds a thread waits for a connection
+		 *
+		 * @param maxWaitTimeMS
+		 */
+		public Builder maxWaitTime(int maxWaitTimeMS){
+			optionsBuilder.maxWaitTime(maxWaitTimeMS);
+			return this;
+		}
+
+		/**
+		 * Set the maximum idle time in milliseconds of a pooled connection
+		 *
+		 * @param maxConnectionIdleTimeMS
+		 */
+		public Builder maxConnectionIdleTime(int maxConnectionIdleTimeMS){
+			optionsBuilder.maxConnectionIdleTime(maxConnectionIdleTimeMS);
+			return this;
+		}
+
+		/**
+		 * Set the connect timeout in milliseconds
+		 *
+		 * @param connectTimeoutMS
+		 */
+		public Builder connectTimeout(int connectTimeoutMS){
+			optionsBuilder.connectTimeout(connectTimeoutMS);
+			return this;
+		}
+
+		/**
+		 * Set the socket read timeout in milliseconds, 0 means no timeout
+		 *
+		 * @param socketTimeoutMS
+		 */
+		public Builder socketTimeout(int socketTimeoutMS){
+			optionsBuilder.socketTimeout(socketTimeoutMS);
+			return this;
+		}
+
+		/**
+		 * Set the server selection timeout in milliseconds
+		 *
+		 * @param serverSelectionTimeoutMS
+		 */
+		public Builder serverSelectionTimeout(int serverSelectionTimeoutMS){
+			optionsBuilder.serverSelectionTimeout(serverSelectionTimeoutMS);
+			return this;
+		}
+
+		/**
+		 * Set the read preference
+		 *
+		 * @param readPreference
+		 */
+		public Builder readPreference(ReadPreference readPreference){
+			optionsBuilder.readPreference(readPreference);
+			return this;
+		}
+
+		/**
+		 * Set the write concern
+		 *
+		 * @param writeConcern
+		 */
+		public Builder writeConcern(WriteConcern writeConcern){
+			optionsBuilder.writeConcern(writeConcern);
+			return this;
+		}
+
+		/**
+		 * Set the wire protocol compression. The compression is negotiated whit each server, and
+		 * requires a MongoDB server 3.4 or later (3.6 for ZLIB), otherwise the connection is made
+		 * uncompressed. SNAPPY requires the snappy-java library on the classpath.
+		 *
+		 * @param compression
+		 */
+		public Builder compression(MongoCompression compression){
+			this.compression = (null!=compression ? compression : MongoCompression.NONE);
+			return this;
+		}
+
+		/**
+		 * Build the MongoConfig, connecting to the seed hosts
+		 */
+		public MongoConfig build(){
+			if(servers.isEmpty()){
+				throw new IllegalArgumentException(HOSTS_EMPTY_EXCEPTION);
+			}
+			return new MongoConfig(this);
+		}
+	}
 }
@@ -0,0 +1,153 @@
+package krug.daan.easynosql.mongodb.dao;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import krug.daan.easynosql.mongodb.dto.BaseDTO;
+import krug.daan.easynosql.mongodb.type.AggregationOperator;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Class to describe a group by aggregation, executed on the server side as a MongoDB
+ * aggregation pipeline by the BaseDAO.aggregate() Method, so only the computed values
+ * are transferred. Each accumulator result is named by a alias.
+ *
+ * Number of users and average rating by name:
+ *
+ * new Aggregation("name").count("total").avg("rating", "avgRating")
+ */
+public class Aggregation {
+
+	/**
+	 * ALIAS_EMPTY_EXCEPTION
+	 */
+	private static final String ALIAS_EMPTY_EXCEPTION = "<alias> parameter couldnt be null, empty or \"" + BaseDTO.ID_ATTR_DESCRIPTOR + "\".";
+
+	/**
+	 * FIELD_NAME_EMPTY_EXCEPTION
+	 */
+	private static final String FIELD_NAME_EMPTY_EXCEPTION = "<field> parameter couldnt be null or empty.";
+
+	/**
+	 * ACCUMULATORS_EMPTY_EXCEPTION
+	 */
+	private static final String ACCUMULATORS_EMPTY_EXCEPTION = "At least one accumulator should be informed.";
+
+	/**
+	 * The group by field, null to aggregate all objects in a single group
+	 */
+	private String groupByField;
+
+	/**
+	 * The accumulators operators, by alias
+	 */
+	private Map<String, AggregationOperator> operators = new LinkedHashMap<String, AggregationOperator>();
+
+	/**
+	 * The accumulators fields, by alias
+	 */
+	private Map<String, String> fields = new LinkedHashMap<String, String>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param groupByField the group by field, null to aggregate all objects in a single group
+	 */
+	public Aggregation(String groupByField){
+		this.groupByField = groupByField;
+	}
+
+	/**
+	 * Number of objects of the group
+	 */
+	public Aggregation count(String alias){
+		return addAccumulator(alias, AggregationOperator.COUNT, null);
+	}
+
+	/**
+	 * Sum of the field values of the group
+	 */
+	public Aggregation sum(String field, String alias){
+		return addAccumulator(alias, AggregationOperator.SUM, field);
+	}
+
+	/**
+	 * Min field value of the group
+	 */
+	public Aggregation min(String field, String alias){
+		return addAccumulator(alias, AggregationOperator.MIN, field);
+	}
+
+	/**
+	 * Max field value of the group
+	 */
+	public Aggregation max(String field, String alias){
+		return addAccumulator(alias, AggregationOperator.MAX, field);
+	}
+
+	/**
+	 * Average of the field values of the group
+	 */
+	public Aggregation avg(String field, String alias){
+		return addAccumulator(alias, AggregationOperator.AVG, field);
+	}
+
+	/**
+	 * @return the group by field
+	 */
+	public String getGroupByField() {
+		return groupByField;
+	}
+
+	/**
+	 * Add a accumulator
+	 */
+	private Aggregation addAccumulator(String alias, AggregationOperator operator, String field){
+		if(null==alias || alias.trim().length() == 0 || BaseDTO.ID_ATTR_DESCRIPTOR.equals(alias)){
+			throw new IllegalArgumentException(ALIAS_EMPTY_EXCEPTION);
+		}
+		if(AggregationOperator.COUNT!=operator && (null==field || field.trim().length() == 0)){
+			throw new IllegalArgumentException(FIELD_NAME_EMPTY_EXCEPTION);
+		}
+		operators.put(alias, operator);
+		fields.put(alias, field);
+		return this;
+	}
+
+	/**
+	 * @return the accumulators aliases
+	 */
+	List<String> getAliases(){
+		return new ArrayList<String>(operators.keySet());
+	}
+
+	/**
+	 * Return the aggregation pipeline: a $match stage whit the [criteria] filter, when
+	 * informed, followed by the $group stage.
+	 */
+	List<Bson> toPipeline(Criteria criteria){
+		if(operators.isEmpty()){
+			throw new IllegalArgumentException(ACCUMULATORS_EMPTY_EXCEPTION);
+		}
+		List<Bson> pipeline = new ArrayList<Bson>();
+		if(null!=criteria){
+			Document filter = criteria.toFilter();
+			if(!filter.isEmpty()){
+				pipeline.add(new Document("$match", filter));
+			}
+		}
+		Document group = new Document(BaseDTO.ID_ATTR_DESCRIPTOR, null!=groupByField ? "$" + groupByField : null);
+		for(Map.Entry<String, AggregationOperator> entry: operators.entrySet()){
+			Object value = (AggregationOperator.COUNT==entry.getValue() ? 1 : "$" + fields.get(entry.getKey()));
+			group.put(entry.getKey(), new Document(entry.getValue().getOperator(), value));
+		}
+		pipeline.add(new Document("$group", group));
+		return pipeline;
+	}
+}
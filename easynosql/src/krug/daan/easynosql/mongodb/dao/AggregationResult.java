@@ -0,0 +1,63 @@
+package krug.daan.easynosql.mongodb.dao;
+
+import java.util.Map;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Result of a group on a BaseDAO.aggregate() operation
+ */
+public class AggregationResult {
+
+	/**
+	 * The group by field value, null when all objects are aggregated in a single group
+	 */
+	private Object groupKey;
+
+	/**
+	 * The accumulators values, by alias
+	 */
+	private Map<String, Object> values;
+
+	/**
+	 * Constructor
+	 */
+	AggregationResult(Object groupKey, Map<String, Object> values){
+		this.groupKey = groupKey;
+		this.values = values;
+	}
+
+	/**
+	 * @return the group by field value
+	 */
+	public Object getGroupKey() {
+		return groupKey;
+	}
+
+	/**
+	 * @return the accumulator value of the [alias]
+	 */
+	public Object getValue(String alias) {
+		return values.get(alias);
+	}
+
+	/**
+	 * @return the accumulator value of the [alias] as a Number, or null if it is not numeric
+	 */
+	public Number getNumber(String alias) {
+		Object value = values.get(alias);
+		return (value instanceof Number ? (Number)value : null);
+	}
+
+	/**
+	 * @return the accumulators values, by alias
+	 */
+	public Map<String, Object> getValues() {
+		return values;
+	}
+
+	@Override
+	public String toString() {
+		return groupKey + "=" + values;
+	}
+}
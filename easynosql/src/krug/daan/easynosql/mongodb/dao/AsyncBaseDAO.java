@@ -0,0 +1,731 @@
+package krug.daan.easynosql.mongodb.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import krug.daan.easynosql.common.KeyValue;
+import krug.daan.easynosql.mongodb.config.MongoConfig;
+import krug.daan.easynosql.mongodb.dto.BaseDTO;
+import krug.daan.easynosql.mongodb.dto.RelationalIntegrityDTO;
+import krug.daan.easynosql.mongodb.exception.MongoDataException;
+import krug.daan.easynosql.mongodb.type.SaveStatus;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.async.SingleResultCallback;
+import com.mongodb.async.client.FindIterable;
+import com.mongodb.async.client.MongoCollection;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Class to handle the basic CRUD operations on the MongoDB mechanism whithout block the
+ * caller thread: the operations are executed by the MongoDB async driver and each operation
+ * returns a CompletableFuture, completed whit the operation result or, exceptionally, whit
+ * the MongoDataException the BaseDAO Method throws.
+ *
+ * The objects are encoded and decoded by the same BaseDTOCodec of the BaseDAO, and the
+ * relational integrity and the related objects are handled by further async operations,
+ * chained on the driver callbacks, so no thread is blocked waiting the database.
+ * The requests in flight are limited by the connection pool of the async client (see
+ * MongoConfig.getAsyncCollection()). The creation of the indexes, on the first access
+ * to a collection, is executed on the caller thread.
+ */
+public class AsyncBaseDAO {
+
+	/**
+	 * TABLE_NAME_EMPTY_EXCEPTION
+	 */
+	private static final String TABLE_NAME_EMPTY_EXCEPTION = "<tableName> parameter couldnt be null or empty.";
+
+	/**
+	 * SEARCH_PARAMETERS_EMPTY_EXCEPTION
+	 */
+	private static final String SEARCH_PARAMETERS_EMPTY_EXCEPTION = "<searchParameters> parameter couldnt be null or empty.";
+
+	/**
+	 * UPDATE_PARAMETERS_EMPTY_EXCEPTION
+	 */
+	private static final String UPDATE_PARAMETERS_EMPTY_EXCEPTION = "<updateConditions> parameter couldnt be null or empty.";
+
+	/**
+	 * DTOS_PARAMETER_NULL_EXCEPTION
+	 */
+	private static final String DTOS_PARAMETER_NULL_EXCEPTION = "<dtos> parameter couldnt be null.";
+
+	/**
+	 * RELATED_CLASS_NOT_FOUND_WARNING
+	 */
+	private static final String RELATED_CLASS_NOT_FOUND_WARNING = "The related objects of a unknown class were ignored: ";
+
+	/**
+	 * MongoDB configuration Object
+	 */
+	private MongoConfig mgc;
+
+	/**
+	 * BaseDAO that shares the indexes creation, the queries and the results handling
+	 */
+	private BaseDAO dao;
+
+	/**
+	 * Singleton instance
+	 */
+	private static AsyncBaseDAO instance;
+
+	/**
+	 * Return the singleton instance
+	 */
+	public static synchronized AsyncBaseDAO getInstance(MongoConfig mgc){
+		if(null==instance){
+			instance = new AsyncBaseDAO(mgc);
+		}
+		return instance;
+	}
+
+	/**
+	 * Constructor
+	 */
+	protected AsyncBaseDAO(MongoConfig mgc){
+		this.mgc = mgc;
+		this.dao = BaseDAO.getInstance(mgc);
+	}
+
+	/**
+	 * Return a driver callback that completes the [future] whit the result, or exceptionally
+	 * whit the error wrapped on a MongoDataException
+	 */
+	private static <T> SingleResultCallback<T> complete(final CompletableFuture<T> future){
+		return new SingleResultCallback<T>() {
+			@Override
+			public void onResult(T result, Throwable t) {
+				if(null!=t){
+					future.completeExceptionally(toMongoDataException(t));
+				}else{
+					future.complete(result);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Return a future completed exceptionally whit the [t] error
+	 */
+	private static <T> CompletableFuture<T> failed(Throwable t){
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		future.completeExceptionally(toMongoDataException(t));
+		return future;
+	}
+
+	/**
+	 * Wrap the [t] error on a MongoDataException, if it is not one
+	 */
+	private static Throwable toMongoDataException(Throwable t){
+		if(t instanceof MongoDataException || !(t instanceof Exception)){
+			return t;
+		}
+		return new MongoDataException((Exception)t);
+	}
+
+	/**
+	 * Return a future completed whit null
+	 */
+	private static CompletableFuture<Void> done(){
+		return CompletableFuture.completedFuture(null);
+	}
+
+	/**
+	 * Create the indexes of the [dto] class and of the relational references by the async collections,
+	 * as the first access to a collection by the BaseDAO does. The returned future completes when the 
+	 * creation ends, a creation failure is logged and dont fail it.
+	 */
+	private CompletableFuture<Void> ensureIndexes(BaseDTO dto){
+		CompletableFuture<Void> ensured = ensureTableIndexes(dto);
+		if(!(dto instanceof RelationalIntegrityDTO)){
+			return CompletableFuture.allOf(ensured, ensureTableIndexes(new RelationalIntegrityDTO()));
+		}
+		return ensured;
+	}
+
+	/**
+	 * Create the indexes of the [dto] class by its async collection, if they were not created yet
+	 */
+	private CompletableFuture<Void> ensureTableIndexes(final BaseDTO dto){
+		List<IndexModel> indexes = dao.getIndexesToEnsure(dto);
+		if(null==indexes){
+			return done();
+		}
+		if(indexes.size() == 0){
+			dao.indexesEnsured(dto, null);
+			return done();
+		}
+		final CompletableFuture<Void> ensured = new CompletableFuture<Void>();
+		mgc.getAsyncCollection(dto.getTableName()).createIndexes(indexes, new SingleResultCallback<List<String>>() {
+			@Override
+			public void onResult(List<String> names, Throwable t) {
+				dao.indexesEnsured(dto, t);
+				ensured.complete(null);
+			}
+		});
+		return ensured;
+	}
+
+	/**
+	 * Return the async MongoCollection of the [dto] class, whit the objects encoded
+	 * and decoded by the BaseDTOCodec.
+	 */
+	@SuppressWarnings(value="unchecked")
+	private MongoCollection<BaseDTO> getTypedCollection(BaseDTO dto){
+		return (MongoCollection<BaseDTO>)mgc.getAsyncCollection(dto.getTableName(), dto.getClass());
+	}
+
+	/**
+	 * Asynchronous BaseDAO.saveOrUpdate()
+	 */
+	public CompletableFuture<Void> saveOrUpdate(final BaseDTO dto){
+		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+			return failed(new MongoDataException(TABLE_NAME_EMPTY_EXCEPTION));
+		}
+		return ensureIndexes(dto).thenCompose(new Function<Void, CompletableFuture<Void>>() {
+			@Override
+			public CompletableFuture<Void> apply(Void v) {
+				try {
+					if(null!=dto.getId() && dto.getId().toHexString().trim().length() > 0){
+						CompletableFuture<UpdateResult> updated = new CompletableFuture<UpdateResult>();
+						mgc.getAsyncCollection(dto.getTableName()).updateOne(new BasicDBObject(BaseDTO.ID_ATTR_DESCRIPTOR, dto.getId()),
+								new BasicDBObject("$set", dto), complete(updated));
+						return updated.thenCompose(new Function<UpdateResult, CompletableFuture<Void>>() {
+							@Override
+							public CompletableFuture<Void> apply(UpdateResult ur) {
+								if(ur.getModifiedCount() > 0 && !(dto instanceof RelationalIntegrityDTO)){
+									return updateRelationalIntegrity(Collections.singletonList(dto));
+								}
+								return done();
+							}
+						});
+					}
+					CompletableFuture<Void> inserted = new CompletableFuture<Void>();
+					getTypedCollection(dto).insertOne(dto, complete(inserted));
+					return inserted.thenCompose(new Function<Void, CompletableFuture<Void>>() {
+						@Override
+						public CompletableFuture<Void> apply(Void v) {
+							if(!(dto instanceof RelationalIntegrityDTO) && null!=dto.getRelatedObjectsIds() && dto.getRelatedObjectsIds().size() > 0){
+								return updateRelationalIntegrity(Collections.singletonList(dto));
+							}
+							return done();
+						}
+					});
+				} catch (Exception e) {
+					return failed(e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous BaseDAO.saveAll(), by ordered bulk writes of BaseDAO.DEFAULT_BATCH_SIZE objects.
+	 * The batches are written one after the other, and the first failure stops the processing.
+	 */
+	public CompletableFuture<List<SaveResult>> saveAll(Collection<? extends BaseDTO> dtos){
+		if(null==dtos){
+			return failed(new MongoDataException(DTOS_PARAMETER_NULL_EXCEPTION));
+		}
+		final List<SaveResult> results = new ArrayList<SaveResult>(dtos.size());
+		CompletableFuture<Boolean> chain = CompletableFuture.completedFuture(Boolean.TRUE);
+		try {
+			for(List<SaveResult> tableResults: dao.generateSaveResults(dtos, results).values()){
+				final BaseDTO tableDTO = tableResults.get(0).getDto();
+				chain = chain.thenCompose(new Function<Boolean, CompletableFuture<Boolean>>() {
+					@Override
+					public CompletableFuture<Boolean> apply(final Boolean succeeded) {
+						if(!succeeded){
+							return CompletableFuture.completedFuture(Boolean.FALSE);
+						}
+						return ensureIndexes(tableDTO).thenApply(new Function<Void, Boolean>() {
+							@Override
+							public Boolean apply(Void v) {
+								return succeeded;
+							}
+						});
+					}
+				});
+				for(int start = 0; start < tableResults.size(); start += BaseDAO.DEFAULT_BATCH_SIZE){
+					final List<SaveResult> batch = tableResults.subList(start, Math.min(start + BaseDAO.DEFAULT_BATCH_SIZE, tableResults.size()));
+					chain = chain.thenCompose(new Function<Boolean, CompletableFuture<Boolean>>() {
+						@Override
+						public CompletableFuture<Boolean> apply(Boolean succeeded) {
+							return (succeeded ? saveBatch(batch) : CompletableFuture.completedFuture(Boolean.FALSE));
+						}
+					});
+				}
+			}
+		} catch (Exception e) {
+			return failed(e);
+		}
+		return chain.thenApply(new Function<Boolean, List<SaveResult>>() {
+			@Override
+			public List<SaveResult> apply(Boolean succeeded) {
+				return results;
+			}
+		});
+	}
+
+	/**
+	 * Write a batch of objects of a same table by a single ordered bulk write, and update the
+	 * relational integrity of the saved objects. Completed whit false if some object failed.
+	 */
+	private CompletableFuture<Boolean> saveBatch(final List<SaveResult> batch){
+		final SaveStatus[] statuses = new SaveStatus[batch.size()];
+		final List<WriteModel<BaseDTO>> requests = dao.generateSaveRequests(batch, statuses);
+		final CompletableFuture<Boolean> written = new CompletableFuture<Boolean>();
+		getTypedCollection(batch.get(0).getDto()).bulkWrite(requests, new BulkWriteOptions().ordered(true),
+				new SingleResultCallback<BulkWriteResult>() {
+			@Override
+			public void onResult(BulkWriteResult result, Throwable t) {
+				if(t instanceof MongoBulkWriteException && ((MongoBulkWriteException)t).getWriteErrors().size() > 0){
+					dao.applyWriteErrors(batch, requests, statuses, (MongoBulkWriteException)t, true);
+					written.complete(Boolean.FALSE);
+				}else if(null!=t){
+					written.completeExceptionally(toMongoDataException(t));
+				}else{
+					written.complete(Boolean.TRUE);
+				}
+			}
+		});
+		return written.thenCompose(new Function<Boolean, CompletableFuture<Boolean>>() {
+			@Override
+			public CompletableFuture<Boolean> apply(final Boolean succeeded) {
+				return updateRelationalIntegrity(dao.applySaveStatuses(batch, statuses)).thenApply(new Function<Void, Boolean>() {
+					@Override
+					public Boolean apply(Void v) {
+						return succeeded;
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous BaseDAO.updateAll()
+	 */
+	public CompletableFuture<UpdateResult> updateAll(final BaseDTO dto, final List<KeyValue> searchParameters, final List<KeyValue> updateParameters){
+		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+			return failed(new MongoDataException(TABLE_NAME_EMPTY_EXCEPTION));
+		}
+		if(null==searchParameters || searchParameters.size() == 0){
+			return failed(new MongoDataException(SEARCH_PARAMETERS_EMPTY_EXCEPTION));
+		}
+		if(null==updateParameters || updateParameters.size() == 0){
+			return failed(new MongoDataException(UPDATE_PARAMETERS_EMPTY_EXCEPTION));
+		}
+		return ensureIndexes(dto).thenCompose(new Function<Void, CompletableFuture<UpdateResult>>() {
+			@Override
+			public CompletableFuture<UpdateResult> apply(Void v) {
+				CompletableFuture<UpdateResult> future = new CompletableFuture<UpdateResult>();
+				try {
+					BasicDBObject updateObject = new BasicDBObject();
+					for(KeyValue keyValue: updateParameters){
+						updateObject.append(keyValue.getKey(),keyValue.getValue());
+					}
+					BasicDBObject searchObject = new BasicDBObject();
+					for(KeyValue keyValue: searchParameters){
+						searchObject.append(keyValue.getKey(),keyValue.getValue());
+					}
+					mgc.getAsyncCollection(dto.getTableName()).updateMany(searchObject, new BasicDBObject("$set", updateObject), complete(future));
+				} catch (Exception e) {
+					return failed(e);
+				}
+				return future;
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous BaseDAO.find()
+	 */
+	public CompletableFuture<Collection<BaseDTO>> find(final BaseDTO dto, final List<KeyValue> searchParameters){
+		return ensureIndexes(dto).thenCompose(new Function<Void, CompletableFuture<Collection<BaseDTO>>>() {
+			@Override
+			public CompletableFuture<Collection<BaseDTO>> apply(Void v) {
+				try {
+					return readAll(getTypedCollection(dto).find(dao.generateSearchQuery(dto, searchParameters)), null, true);
+				} catch (Exception e) {
+					return failed(e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous BaseDAO.findByCriteria()
+	 */
+	public CompletableFuture<Collection<BaseDTO>> findByCriteria(final BaseDTO dto, final Criteria criteria){
+		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+			return failed(new MongoDataException(TABLE_NAME_EMPTY_EXCEPTION));
+		}
+		return ensureIndexes(dto).thenCompose(new Function<Void, CompletableFuture<Collection<BaseDTO>>>() {
+			@Override
+			public CompletableFuture<Collection<BaseDTO>> apply(Void v) {
+				try {
+					if(null==criteria){
+						return readAll(getTypedCollection(dto).find(), null, true);
+					}
+					FindIterable<BaseDTO> fit = getTypedCollection(dto).find(criteria.toFilter());
+					Document sort = criteria.toSort();
+					if(null!=sort){
+						fit.sort(sort);
+					}
+					if(criteria.getSkip() > 0){
+						fit.skip(criteria.getSkip());
+					}
+					if(criteria.getLimit() > 0){
+						fit.limit(criteria.getLimit());
+					}
+					return readAll(fit, BaseDAO.generateLoadedFields(criteria.getIncludedFields(), true), true);
+				} catch (Exception e) {
+					return failed(e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous BaseDAO.findById()
+	 */
+	public CompletableFuture<BaseDTO> findById(final BaseDTO dto, final Object oid, final boolean initializeRelatedObjects){
+		return ensureIndexes(dto).thenCompose(new Function<Void, CompletableFuture<BaseDTO>>() {
+			@Override
+			public CompletableFuture<BaseDTO> apply(Void v) {
+				try {
+					final ObjectId objectId = BaseDAO.toObjectId(oid);
+					List<KeyValue> searchParameters = new ArrayList<KeyValue>();
+					searchParameters.add(new KeyValue(BaseDTO.ID_ATTR_DESCRIPTOR, objectId));
+					FindIterable<BaseDTO> fit = getTypedCollection(dto).find(dao.generateSearchQuery(dto, searchParameters)).limit(2);
+					return readAll(fit, null, initializeRelatedObjects).thenApply(new Function<Collection<BaseDTO>, BaseDTO>() {
+						@Override
+						public BaseDTO apply(Collection<BaseDTO> dtos) {
+							try {
+								return BaseDAO.uniqueResult(objectId, dtos);
+							} catch (MongoDataException me) {
+								throw new CompletionException(me);
+							}
+						}
+					});
+				} catch (Exception e) {
+					return failed(e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous BaseDAO.count()
+	 */
+	public CompletableFuture<Long> count(final BaseDTO dto, final Criteria criteria){
+		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+			return failed(new MongoDataException(TABLE_NAME_EMPTY_EXCEPTION));
+		}
+		return ensureIndexes(dto).thenCompose(new Function<Void, CompletableFuture<Long>>() {
+			@Override
+			public CompletableFuture<Long> apply(Void v) {
+				CompletableFuture<Long> future = new CompletableFuture<Long>();
+				try {
+					if(null==criteria){
+						mgc.getAsyncCollection(dto.getTableName()).count(complete(future));
+						return future;
+					}
+					CountOptions options = new CountOptions();
+					if(criteria.getSkip() > 0){
+						options.skip(criteria.getSkip());
+					}
+					if(criteria.getLimit() > 0){
+						options.limit(criteria.getLimit());
+					}
+					mgc.getAsyncCollection(dto.getTableName()).count(criteria.toFilter(), options, complete(future));
+				} catch (Exception e) {
+					return failed(e);
+				}
+				return future;
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous BaseDAO.deleteAll(). The relational restrictions are verified before the deletion,
+	 * and the relational references owned by the deleted objects are removed after it.
+	 */
+	public CompletableFuture<DeleteResult> deleteAll(final BaseDTO dto, List<KeyValue> searchParameters){
+		final BasicDBObject deleteQuery;
+		final BasicDBObject searchQuery;
+		try {
+			List<KeyValue> parameters = BaseDAO.generateDeleteParameters(dto, searchParameters);
+			deleteQuery = BaseDAO.generateDeleteQuery(parameters);
+			searchQuery = dao.generateSearchQuery(dto, parameters);
+		} catch (Exception e) {
+			return failed(e);
+		}
+		return ensureIndexes(dto).thenCompose(new Function<Void, CompletableFuture<DeleteResult>>() {
+			@Override
+			public CompletableFuture<DeleteResult> apply(Void v) {
+				if(dto instanceof RelationalIntegrityDTO){
+					return deleteMany(dto, deleteQuery);
+				}
+				CompletableFuture<List<Document>> found = new CompletableFuture<List<Document>>();
+				mgc.getAsyncCollection(dto.getTableName()).find(searchQuery).projection(new BasicDBObject(BaseDTO.ID_ATTR_DESCRIPTOR, 1))
+						.into(new ArrayList<Document>(), complete(found));
+				return found.thenCompose(new Function<List<Document>, CompletableFuture<DeleteResult>>() {
+					@Override
+					public CompletableFuture<DeleteResult> apply(List<Document> documents) {
+						final List<String> ids = new ArrayList<String>();
+						final List<KeyValue> relationalIntegritiesToRemove = new ArrayList<KeyValue>();
+						for(Document document: documents){
+							String id = document.getObjectId(BaseDTO.ID_ATTR_DESCRIPTOR).toHexString();
+							ids.add(id);
+							relationalIntegritiesToRemove.add(new KeyValue(dto.getClass().getName(), id));
+						}
+						return getLockedByRelationalIntegrity(dto.getTableName(), ids)
+								.thenCompose(new Function<Map<String, List<RelationalIntegrityDTO>>, CompletableFuture<DeleteResult>>() {
+							@Override
+							public CompletableFuture<DeleteResult> apply(Map<String, List<RelationalIntegrityDTO>> locks) {
+								try {
+									BaseDAO.validateRelationalIntegrity(dto, ids, locks);
+								} catch (MongoDataException me) {
+									throw new CompletionException(me);
+								}
+								return deleteMany(dto, deleteQuery);
+							}
+						}).thenCompose(new Function<DeleteResult, CompletableFuture<DeleteResult>>() {
+							@Override
+							public CompletableFuture<DeleteResult> apply(final DeleteResult dr) {
+								try {
+									BaseDAO.validateDeletedCount(dr, relationalIntegritiesToRemove.size());
+								} catch (MongoDataException me) {
+									throw new CompletionException(me);
+								}
+								return removeRelationalIntegrity(relationalIntegritiesToRemove).thenApply(new Function<Void, DeleteResult>() {
+									@Override
+									public DeleteResult apply(Void v) {
+										return dr;
+									}
+								});
+							}
+						});
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Delete the objects of the [dto] table that matches the [query]
+	 */
+	private CompletableFuture<DeleteResult> deleteMany(BaseDTO dto, Bson query){
+		CompletableFuture<DeleteResult> future = new CompletableFuture<DeleteResult>();
+		mgc.getAsyncCollection(dto.getTableName()).deleteMany(query, complete(future));
+		return future;
+	}
+
+	/**
+	 * Read all objects of the [fit] search, as the BaseDTOCursor does: reading only the [loadedFields]
+	 * attributes (all when null), populating the related ids and, when [initializeRelatedObjects]
+	 * is true, initializing the related objects.
+	 */
+	private CompletableFuture<Collection<BaseDTO>> readAll(FindIterable<BaseDTO> fit, final Set<String> loadedFields,
+			final boolean initializeRelatedObjects){
+		if(null!=loadedFields){
+			fit.projection(BaseDAO.generateProjection(loadedFields));
+		}
+		CompletableFuture<List<BaseDTO>> found = new CompletableFuture<List<BaseDTO>>();
+		fit.into(new ArrayList<BaseDTO>(), complete(found));
+		return found.thenCompose(new Function<List<BaseDTO>, CompletableFuture<Collection<BaseDTO>>>() {
+			@Override
+			public CompletableFuture<Collection<BaseDTO>> apply(final List<BaseDTO> dtos) {
+				for(BaseDTO dto: dtos){
+					if(null!=loadedFields){
+						dto.markLoadedFields(loadedFields);
+					}
+					if(null==dto.getRelatedObjectsIds()){
+						dto.populateRelatedObjectsIds();
+					}
+				}
+				CompletableFuture<Void> loaded = (initializeRelatedObjects ? loadRelatedObjects(dtos) : done());
+				return loaded.thenApply(new Function<Void, Collection<BaseDTO>>() {
+					@Override
+					public Collection<BaseDTO> apply(Void v) {
+						return dtos;
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Initialize the related objects of the [dtos] as the RelatedObjectsLoader does, reading
+	 * each class of related objects by concurrent "$in" queries.
+	 */
+	private CompletableFuture<Void> loadRelatedObjects(final Collection<BaseDTO> dtos){
+		final RelatedObjectsLoader loader = new RelatedObjectsLoader(dao);
+		final Map<String, List<CompletableFuture<Collection<BaseDTO>>>> reads
+				= new HashMap<String, List<CompletableFuture<Collection<BaseDTO>>>>();
+		List<CompletableFuture<Collection<BaseDTO>>> futures = new ArrayList<CompletableFuture<Collection<BaseDTO>>>();
+		for(Map.Entry<String, Set<ObjectId>> entry: loader.getIdsToRead(dtos).entrySet()){
+			BaseDTO relatedDTO;
+			try {
+				relatedDTO = Class.forName(entry.getKey()).asSubclass(BaseDTO.class).getDeclaredConstructor().newInstance();
+			} catch (Exception e) {
+				mgc.logWarn(RELATED_CLASS_NOT_FOUND_WARNING + entry.getKey(), e);
+				continue;
+			}
+			List<CompletableFuture<Collection<BaseDTO>>> classReads = new ArrayList<CompletableFuture<Collection<BaseDTO>>>();
+			for(List<ObjectId> chunk: RelationalIntegrityDAO.splitInChunks(new ArrayList<ObjectId>(entry.getValue()))){
+				BasicDBObject query = new BasicDBObject(BaseDTO.ID_ATTR_DESCRIPTOR, new BasicDBObject("$in", chunk));
+				classReads.add(readAll(getTypedCollection(relatedDTO).find(query), null, false));
+			}
+			reads.put(entry.getKey(), classReads);
+			futures.addAll(classReads);
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+				.thenApply(new Function<Void, Void>() {
+			@Override
+			public Void apply(Void v) {
+				for(Map.Entry<String, List<CompletableFuture<Collection<BaseDTO>>>> entry: reads.entrySet()){
+					for(CompletableFuture<Collection<BaseDTO>> read: entry.getValue()){
+						for(BaseDTO related: read.join()){
+							loader.add(entry.getKey(), related);
+						}
+					}
+				}
+				loader.assign(dtos);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous RelationalIntegrityDAO.updateRelationalIntegrityDTOs(), whit the chunks
+	 * of IN_QUERY_CHUNK_SIZE objects written one after the other
+	 */
+	private CompletableFuture<Void> updateRelationalIntegrity(List<BaseDTO> dtos){
+		CompletableFuture<Void> chain = done();
+		for(final List<BaseDTO> chunk: RelationalIntegrityDAO.splitInChunks(RelationalIntegrityDAO.filterChangedDTOs(dtos))){
+			chain = chain.thenCompose(new Function<Void, CompletableFuture<Void>>() {
+				@Override
+				public CompletableFuture<Void> apply(Void v) {
+					return updateRelationalIntegrityChunk(chunk);
+				}
+			});
+		}
+		return chain;
+	}
+
+	/**
+	 * Write the added and removed relational references of a list of [dtos] of a same table,
+	 * by a single bulk write, after read the stored references.
+	 */
+	private CompletableFuture<Void> updateRelationalIntegrityChunk(final List<BaseDTO> dtos){
+		final RelationalIntegrityDTO ridto = new RelationalIntegrityDTO();
+		FindIterable<BaseDTO> fit;
+		try {
+			fit = getTypedCollection(ridto).find(
+					dao.generateSearchQuery(ridto, RelationalIntegrityDAO.generateOwnerSearchParameters(dtos)));
+		} catch (Exception e) {
+			return failed(e);
+		}
+		return readAll(fit, null, false).thenCompose(new Function<Collection<BaseDTO>, CompletableFuture<Void>>() {
+			@Override
+			public CompletableFuture<Void> apply(Collection<BaseDTO> stored) {
+				List<RelationalIntegrityDTO> storedRidtos = new ArrayList<RelationalIntegrityDTO>();
+				for(BaseDTO storedDTO: stored){
+					storedRidtos.add((RelationalIntegrityDTO)storedDTO);
+				}
+				List<WriteModel<BaseDTO>> requests = RelationalIntegrityDAO.generateRelationalIntegrityWrites(dtos, storedRidtos);
+				final CompletableFuture<Void> written = new CompletableFuture<Void>();
+				if(requests.size() == 0){
+					RelationalIntegrityDAO.markPersisted(dtos);
+					written.complete(null);
+					return written;
+				}
+				getTypedCollection(ridto).bulkWrite(requests, new BulkWriteOptions().ordered(false),
+						new SingleResultCallback<BulkWriteResult>() {
+					@Override
+					public void onResult(BulkWriteResult result, Throwable t) {
+						if(t instanceof MongoBulkWriteException){
+							written.completeExceptionally(RelationalIntegrityDAO.toSaveException((MongoBulkWriteException)t));
+						}else if(null!=t){
+							written.completeExceptionally(toMongoDataException(t));
+						}else{
+							RelationalIntegrityDAO.markPersisted(dtos);
+							written.complete(null);
+						}
+					}
+				});
+				return written;
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous RelationalIntegrityDAO.getLockedByRelationalIntegrity(), by concurrent "$in"
+	 * queries of IN_QUERY_CHUNK_SIZE [ids] each one
+	 */
+	private CompletableFuture<Map<String, List<RelationalIntegrityDTO>>> getLockedByRelationalIntegrity(String tableName,
+			List<String> ids){
+		final RelationalIntegrityDTO ridto = new RelationalIntegrityDTO();
+		final List<CompletableFuture<Collection<BaseDTO>>> futures = new ArrayList<CompletableFuture<Collection<BaseDTO>>>();
+		try {
+			for(List<String> chunk: RelationalIntegrityDAO.splitInChunks(ids)){
+				futures.add(readAll(getTypedCollection(ridto).find(
+						dao.generateSearchQuery(ridto, RelationalIntegrityDAO.generateRelatedSearchParameters(tableName, chunk))), null, false));
+			}
+		} catch (Exception e) {
+			return failed(e);
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+				.thenApply(new Function<Void, Map<String, List<RelationalIntegrityDTO>>>() {
+			@Override
+			public Map<String, List<RelationalIntegrityDTO>> apply(Void v) {
+				Map<String, List<RelationalIntegrityDTO>> locks = new HashMap<String, List<RelationalIntegrityDTO>>();
+				for(CompletableFuture<Collection<BaseDTO>> future: futures){
+					for(BaseDTO lock: future.join()){
+						RelationalIntegrityDAO.addLock(locks, (RelationalIntegrityDTO)lock);
+					}
+				}
+				return locks;
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous RelationalIntegrityDAO.removeRelationalIntegrityDTO(), by concurrent deletions
+	 */
+	private CompletableFuture<Void> removeRelationalIntegrity(List<KeyValue> relationalIntegrities){
+		RelationalIntegrityDTO ridto = new RelationalIntegrityDTO();
+		List<CompletableFuture<DeleteResult>> futures = new ArrayList<CompletableFuture<DeleteResult>>();
+		for(Map.Entry<String, List<Object>> entry: RelationalIntegrityDAO.groupOwnerIdsByTable(relationalIntegrities).entrySet()){
+			for(List<Object> chunk: RelationalIntegrityDAO.splitInChunks(entry.getValue())){
+				futures.add(deleteMany(ridto, BaseDAO.generateDeleteQuery(
+						RelationalIntegrityDAO.generateOwnerIdsSearchParameters(entry.getKey(), chunk))));
+			}
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+	}
+}
@@ -1,25 +1,44 @@
 package krug.daan.easynosql.mongodb.dao;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import krug.daan.easynosql.common.KeyValue;
+import krug.daan.easynosql.common.metadata.EntityDescriptorRegistry;
+import krug.daan.easynosql.common.metadata.EntityProperty;
 import krug.daan.easynosql.mongodb.config.MongoConfig;
 import krug.daan.easynosql.mongodb.dto.BaseDTO;
 import krug.daan.easynosql.mongodb.dto.RelationalIntegrityDTO;
 import krug.daan.easynosql.mongodb.exception.MongoDataException;
+import krug.daan.easynosql.mongodb.type.SaveStatus;
+import krug.daan.easynosql.mongodb.util.ContinuationTokenUtil;
+import krug.daan.easynosql.mongodb.util.IndexUtil;
 
 import org.bson.Document;
 import org.bson.types.ObjectId;
 
 import com.mongodb.BasicDBObject;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
 
@@ -71,11 +90,6 @@ public class BaseDAO {
 	 */
 	private static final String GHOST_OBJECT_ID_EXCEPTION = "The Object dont exist or was deleted. Searched object id: ";
 	
-	/**
-	 * RELATED_OBJECTS_ID_FIELD_JSON
-	 */
-	private static final String RELATED_OBJECTS_ID_FIELD_JSON = "relatedObjectsIdsJson";
-	
 	/**
 	 * RELATED_OBJECTS_INTEGRITY_EXCEPTION
 	 */
@@ -89,20 +103,73 @@ public class BaseDAO {
 						= "Relational References cannot was removed: deleted result dont equals to number of relational references to remove! ";
 	
 	
+	/**
+	 * DTOS_PARAMETER_NULL_EXCEPTION
+	 */
+	private static final String DTOS_PARAMETER_NULL_EXCEPTION = "<dtos> parameter couldnt be null.";
+	
+	/**
+	 * BATCH_SIZE_INVALID_EXCEPTION
+	 */
+	private static final String BATCH_SIZE_INVALID_EXCEPTION = "<batchSize> parameter should be greater than zero.";
+	
+	/**
+	 * AGGREGATION_PARAMETER_NULL_EXCEPTION
+	 */
+	private static final String AGGREGATION_PARAMETER_NULL_EXCEPTION = "<aggregation> parameter couldnt be null.";
+	
+	/**
+	 * PAGE_SIZE_INVALID_EXCEPTION
+	 */
+	private static final String PAGE_SIZE_INVALID_EXCEPTION = "<pageSize> parameter should be greater than zero.";
+	
+	/**
+	 * CONTINUATION_TOKEN_INVALID_EXCEPTION
+	 */
+	private static final String CONTINUATION_TOKEN_INVALID_EXCEPTION = "<continuationToken> parameter is not a valid token for this sort order.";
+	
+	/**
+	 * SORT_FIELD_INVALID_EXCEPTION
+	 */
+	private static final String SORT_FIELD_INVALID_EXCEPTION = "<sortField> parameter is not a readable attribute: ";
+	
+	/**
+	 * INDEXES_CREATION_FAILED_WARNING
+	 */
+	private static final String INDEXES_CREATION_FAILED_WARNING = "The indexes could not be created, will be tried again on the next access. Table: ";
+	
+	/**
+	 * Continuation token attributes
+	 */
+	private static final String TOKEN_SORT_FIELD = "s";
+	private static final String TOKEN_DESCENDING = "d";
+	private static final String TOKEN_KEY_VALUE = "k";
+	
+	/**
+	 * Default number of objects by bulk write on saveAll() Method
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+	
 	/**
 	 * Mongo DB configuration Object
 	 */
 	private MongoConfig mgc;
 	
+	/**
+	 * Tables that already had the indexes ensured
+	 */
+	private ConcurrentHashMap<String, Boolean> indexedTables = new ConcurrentHashMap<String, Boolean>();
+	
 	/**
 	 * Singleton instance
 	 */
 	private static BaseDAO instance;
 	
 	/**
-	 * Return the singleton instance
+	 * Return the singleton instance. Synchronized, as the DAOs are shared by the
+	 * caller threads and by the AsyncBaseDAO callbacks.
 	 */
-	public static BaseDAO getInstance(MongoConfig mgc){
+	public static synchronized BaseDAO getInstance(MongoConfig mgc){
 		if(null==instance){
 			instance = new BaseDAO(mgc);
 		}
@@ -116,6 +183,13 @@ public class BaseDAO {
 		this.mgc = mgc;
 	}
 	
+	/**
+	 * Return the MongoDB configuration of this DAO
+	 */
+	MongoConfig getMongoConfig(){
+		return mgc;
+	}
+	
 	/**
 	 * Creates a new Object.
 	 */
@@ -128,14 +202,53 @@ public class BaseDAO {
 				update(dto);
 				return;
 			}
-			MongoCollection<Document> table = mgc.getCollection(dto.getTableName());
-			Document document = new Document();
-			dto.generateKeyValues();
-			List<KeyValue> keyValues = dto.getAllAttributeValues();
-			for(KeyValue keyValue: keyValues){
-				document.put(keyValue.getKey(),keyValue.getValue());
+			getTypedCollection(dto).insertOne(dto);
+			if(!(dto instanceof RelationalIntegrityDTO) && null!=dto.getRelatedObjectsIds() && dto.getRelatedObjectsIds().size() > 0){
+				RelationalIntegrityDAO.getInstance(mgc).updateRelationalIntegrityDTO(dto);
+			}
+		} 
+		catch (MongoDataException me){
+			throw (me);
+		}
+		catch (Exception e) {
+			throw new MongoDataException(e);
+		}
+	}
+	
+	/**
+	 * Creates or updates a collection of objects, by ordered bulk writes of DEFAULT_BATCH_SIZE objects.
+	 */
+	public List<SaveResult> saveAll(Collection<? extends BaseDTO> dtos) throws MongoDataException{
+		return saveAll(dtos, DEFAULT_BATCH_SIZE, true);
+	}
+	
+	/**
+	 * Creates the new objects (whithout "_id") and updates (or re-creates, if was deleted) the 
+	 * existing objects of [dtos], by bulk writes of [batchSize] objects of a same table.
+	 * When [ordered] is true, the first failure stops the processing of the remaining objects, 
+	 * that stay whit the NOT_PROCESSED status. Otherwise all objects are processed.
+	 * The relational integrity of the saved objects is handled once by batch.
+	 * Return the result of each object, on the same order of [dtos].
+	 */
+	public List<SaveResult> saveAll(Collection<? extends BaseDTO> dtos, int batchSize, boolean ordered) throws MongoDataException{
+		if(null==dtos){
+			throw new MongoDataException(DTOS_PARAMETER_NULL_EXCEPTION);
+		}
+		if(batchSize <= 0){
+			throw new MongoDataException(BATCH_SIZE_INVALID_EXCEPTION);
+		}
+		List<SaveResult> results = new ArrayList<SaveResult>(dtos.size());
+		Map<String, List<SaveResult>> resultsByTable = generateSaveResults(dtos, results);
+		try {
+			for(List<SaveResult> tableResults: resultsByTable.values()){
+				for(int start = 0; start < tableResults.size(); start += batchSize){
+					List<SaveResult> batch = tableResults.subList(start, Math.min(start + batchSize, tableResults.size()));
+					if(!saveBatch(batch, ordered) && ordered){
+						return results;
+					}
+				}
 			}
-			table.insertOne(document);
+			return results;
 		} 
 		catch (MongoDataException me){
 			throw (me);
@@ -145,6 +258,123 @@ public class BaseDAO {
 		}
 	}
 	
+	/**
+	 * Create the result of each object of [dtos] on the [results] list, on the same order of [dtos],
+	 * and return the results grouped by table, on the order of the first object of each table.
+	 */
+	Map<String, List<SaveResult>> generateSaveResults(Collection<? extends BaseDTO> dtos, List<SaveResult> results) 
+			throws MongoDataException{
+		Map<String, List<SaveResult>> resultsByTable = new LinkedHashMap<String, List<SaveResult>>();
+		for(BaseDTO dto: dtos){
+			if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+				throw new MongoDataException(TABLE_NAME_EMPTY_EXCEPTION);
+			}
+			SaveResult result = new SaveResult(dto);
+			results.add(result);
+			List<SaveResult> tableResults = resultsByTable.get(dto.getTableName());
+			if(null==tableResults){
+				tableResults = new ArrayList<SaveResult>();
+				resultsByTable.put(dto.getTableName(), tableResults);
+			}
+			tableResults.add(result);
+		}
+		return resultsByTable;
+	}
+	
+	/**
+	 * Write a batch of objects of a same table by a single bulk write, and update the 
+	 * relational integrity of the saved objects.
+	 * Return false if some object of the batch failed.
+	 */
+	private boolean saveBatch(List<SaveResult> batch, boolean ordered) 
+			throws MongoDataException, InstantiationException, IllegalAccessException, InvocationTargetException{
+		SaveStatus[] statuses = new SaveStatus[batch.size()];
+		List<WriteModel<BaseDTO>> requests = generateSaveRequests(batch, statuses);
+		boolean succeeded = true;
+		try {
+			getTypedCollection(batch.get(0).getDto()).bulkWrite(requests, new BulkWriteOptions().ordered(ordered));
+		} catch (MongoBulkWriteException mbwe) {
+			if(mbwe.getWriteErrors().size() == 0){
+				throw (mbwe);
+			}
+			succeeded = false;
+			applyWriteErrors(batch, requests, statuses, mbwe, ordered);
+		}
+		List<BaseDTO> savedDTOs = applySaveStatuses(batch, statuses);
+		if(savedDTOs.size() > 0){
+			RelationalIntegrityDAO.getInstance(mgc).updateRelationalIntegrityDTOs(savedDTOs);
+		}
+		return succeeded;
+	}
+	
+	/**
+	 * Create the bulk write requests of a [batch] of objects: a insert for each new object and 
+	 * a upsert for each existing object. The expected status of each object is set on [statuses].
+	 */
+	List<WriteModel<BaseDTO>> generateSaveRequests(List<SaveResult> batch, SaveStatus[] statuses){
+		List<WriteModel<BaseDTO>> requests = new ArrayList<WriteModel<BaseDTO>>(batch.size());
+		UpdateOptions upsert = new UpdateOptions().upsert(true);
+		for(int i = 0; i < batch.size(); i++){
+			BaseDTO dto = batch.get(i).getDto();
+			if(null==dto.getId()){
+				statuses[i] = SaveStatus.INSERTED;
+				requests.add(new InsertOneModel<BaseDTO>(dto));
+			}else{
+				statuses[i] = SaveStatus.UPDATED;
+				requests.add(new UpdateOneModel<BaseDTO>(new BasicDBObject(BaseDTO.ID_ATTR_DESCRIPTOR, dto.getId()), 
+						new BasicDBObject("$set", dto), upsert));
+			}
+		}
+		return requests;
+	}
+	
+	/**
+	 * Set the FAILED status (and the error message) of the objects of the [batch] that failed on
+	 * the bulk write, and the NOT_PROCESSED status of the objects after the first failure when
+	 * [ordered] is true.
+	 * The "_id" generated by the codec for a new object is cleared when the object is not
+	 * inserted, so the object is inserted again when saved later.
+	 */
+	void applyWriteErrors(List<SaveResult> batch, List<WriteModel<BaseDTO>> requests, SaveStatus[] statuses, 
+			MongoBulkWriteException mbwe, boolean ordered){
+		int firstFailed = batch.size();
+		for(BulkWriteError error: mbwe.getWriteErrors()){
+			statuses[error.getIndex()] = SaveStatus.FAILED;
+			batch.get(error.getIndex()).setErrorMessage(error.getMessage());
+			firstFailed = Math.min(firstFailed, error.getIndex());
+		}
+		if(ordered){
+			for(int i = firstFailed + 1; i < batch.size(); i++){
+				statuses[i] = SaveStatus.NOT_PROCESSED;
+			}
+		}
+		for(int i = 0; i < batch.size(); i++){
+			if(requests.get(i) instanceof InsertOneModel && statuses[i] != SaveStatus.INSERTED){
+				batch.get(i).getDto().setId(null);
+			}
+		}
+	}
+	
+	/**
+	 * Set the [statuses] on the results of the [batch], and return the saved objects 
+	 * whose relational integrity should be updated.
+	 */
+	List<BaseDTO> applySaveStatuses(List<SaveResult> batch, SaveStatus[] statuses){
+		List<BaseDTO> savedDTOs = new ArrayList<BaseDTO>();
+		for(int i = 0; i < batch.size(); i++){
+			batch.get(i).setStatus(statuses[i]);
+			BaseDTO dto = batch.get(i).getDto();
+			if(dto instanceof RelationalIntegrityDTO){
+				continue;
+			}
+			if(statuses[i] == SaveStatus.UPDATED 
+					|| (statuses[i] == SaveStatus.INSERTED && null!=dto.getRelatedObjectsIds() && dto.getRelatedObjectsIds().size() > 0)){
+				savedDTOs.add(dto);
+			}
+		}
+		return savedDTOs;
+	}
+	
 	/**
 	 * Update values of attributes of a one specific Object.
 	 * The values will be updated according the actual values of a object.
@@ -176,17 +406,12 @@ public class BaseDAO {
 			throw new MongoDataException(UPDATE_PARAMETERS_EMPTY_EXCEPTION);
 		}
 		try {
-			MongoCollection<Document> table = mgc.getCollection(dto.getTableName());
+			MongoCollection<Document> table = getCollection(dto);
 			BasicDBObject query = new BasicDBObject();
 			for(KeyValue keyValue: updateConditions){
 				query.put(keyValue.getKey(),keyValue.getValue());
 			}
-			Document document = new Document();
-			dto.generateKeyValues();
-			for(KeyValue keyValue: dto.getAllAttributeValues()){
-				document.put(keyValue.getKey(),keyValue.getValue());
-			}
-			BasicDBObject set = new BasicDBObject("$set", document);
+			BasicDBObject set = new BasicDBObject("$set", dto);
 			UpdateResult ur =  table.updateOne(query,set);
 			if(ur.getModifiedCount() > 0){
 				if(!(dto instanceof RelationalIntegrityDTO)){
@@ -203,6 +428,70 @@ public class BaseDAO {
 		}
 	}
 	
+	/**
+	 * Return the MongoCollection of the [dto] class, whit the objects encoded 
+	 * and decoded by the BaseDTOCodec.
+	 */
+	@SuppressWarnings(value="unchecked")
+	MongoCollection<BaseDTO> getTypedCollection(BaseDTO dto){
+		MongoCollection<BaseDTO> table = (MongoCollection<BaseDTO>)mgc.getCollection(dto.getTableName(), dto.getClass());
+		ensureIndexes(dto, table);
+		return table;
+	}
+	
+	/**
+	 * Return the MongoCollection of Document of the [dto] class
+	 */
+	private MongoCollection<Document> getCollection(BaseDTO dto){
+		MongoCollection<Document> table = mgc.getCollection(dto.getTableName());
+		ensureIndexes(dto, table);
+		return table;
+	}
+	
+	/**
+	 * Create the indexes described by the annotations of the [dto] class, until the creation
+	 * succeeds a single time by collection. The creation failure is logged and do not stop 
+	 * the database access, the creation is tried again on the next access to the collection.
+	 * Creating a existing index has no effect, so concurrent creations are harmless.
+	 */
+	private void ensureIndexes(BaseDTO dto, MongoCollection<?> table){
+		List<IndexModel> indexes = getIndexesToEnsure(dto);
+		if(null==indexes){
+			return;
+		}
+		try {
+			if(indexes.size() > 0){
+				table.createIndexes(indexes);
+			}
+			indexesEnsured(dto, null);
+		} catch (Exception e) {
+			indexesEnsured(dto, e);
+		}
+	}
+	
+	/**
+	 * Return the indexes of the [dto] class to be created, or null when they were already created.
+	 * Shared whit the AsyncBaseDAO, that creates them by the async collection.
+	 */
+	List<IndexModel> getIndexesToEnsure(BaseDTO dto){
+		if(indexedTables.containsKey(dto.getTableName())){
+			return null;
+		}
+		return IndexUtil.generateIndexModels(dto.getClass());
+	}
+	
+	/**
+	 * Register the end of the creation of the indexes of the [dto] class: whithout error [t] 
+	 * they are not created again, otherwise the failure is logged.
+	 */
+	void indexesEnsured(BaseDTO dto, Throwable t){
+		if(null!=t){
+			mgc.logWarn(INDEXES_CREATION_FAILED_WARNING + dto.getTableName(), t);
+		}else{
+			indexedTables.put(dto.getTableName(), Boolean.TRUE);
+		}
+	}
+	
 	/**
 	 * Update all objects that matches [searchParameters] whit the [updateParameters] values.
 	 */
@@ -218,7 +507,7 @@ public class BaseDAO {
 			throw new MongoDataException(UPDATE_PARAMETERS_EMPTY_EXCEPTION);
 		}
 		try {
-			MongoCollection<Document> table = mgc.getCollection(dto.getTableName());
+			MongoCollection<Document> table = getCollection(dto);
 			BasicDBObject updateDocument = new BasicDBObject();
 			BasicDBObject updateObject = new BasicDBObject();
 			for(KeyValue keyValue: updateParameters){
@@ -239,28 +528,51 @@ public class BaseDAO {
 	 * Internal auxiliary Method to find() Method(s) uses.
 	 */
 	private FindIterable<Document> findIterable(BaseDTO dto,List<KeyValue> searchParameters) throws MongoDataException{
+		BasicDBObject searchQuery = generateSearchQuery(dto, searchParameters);
+		try {
+			MongoCollection<Document> table = getCollection(dto);
+			return table.find(searchQuery);
+		} 
+		catch (Exception e) {
+			throw new MongoDataException(e);
+		}
+	}
+	
+	/**
+	 * Internal auxiliary Method to find() Method(s) uses, that return the 
+	 * objects decoded by the BaseDTOCodec.
+	 */
+	private FindIterable<BaseDTO> findTypedIterable(BaseDTO dto,List<KeyValue> searchParameters) throws MongoDataException{
+		BasicDBObject searchQuery = generateSearchQuery(dto, searchParameters);
+		try {
+			return getTypedCollection(dto).find(searchQuery);
+		} 
+		catch (Exception e) {
+			throw new MongoDataException(e);
+		}
+	}
+	
+	/**
+	 * Create the search query object according the [searchParameters] values, or
+	 * the BaseDTO.getAllAttributeValues() Method values if [searchParameters] is empty.
+	 */
+	BasicDBObject generateSearchQuery(BaseDTO dto,List<KeyValue> searchParameters) throws MongoDataException{
 		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
 			throw new MongoDataException(TABLE_NAME_EMPTY_EXCEPTION);
 		}
-		try {
-			BasicDBObject searchQuery = new BasicDBObject();
-			if(null!=searchParameters && searchParameters.size() > 0){
-				for(KeyValue keyValue: searchParameters){
+		BasicDBObject searchQuery = new BasicDBObject();
+		if(null!=searchParameters && searchParameters.size() > 0){
+			for(KeyValue keyValue: searchParameters){
+				searchQuery.put(keyValue.getKey(),keyValue.getValue());
+			}
+		}else if(null!=dto.getAllAttributeValues() && dto.getAllAttributeValues().size() > 0){
+			for(KeyValue keyValue: dto.getAllAttributeValues()){
+				if(null!=keyValue.getValue()){
 					searchQuery.put(keyValue.getKey(),keyValue.getValue());
 				}
-			}else if(null!=dto.getAllAttributeValues() && dto.getAllAttributeValues().size() > 0){
-				for(KeyValue keyValue: dto.getAllAttributeValues()){
-					if(null!=keyValue.getValue()){
-						searchQuery.put(keyValue.getKey(),keyValue.getValue());
-					}
-				}
 			}
-			MongoCollection<Document> table = mgc.getCollection(dto.getTableName());
-			return table.find(searchQuery);
-		} 
-		catch (Exception e) {
-			throw new MongoDataException(e);
 		}
+		return searchQuery;
 	}
 	
 	/**
@@ -270,36 +582,356 @@ public class BaseDAO {
 	 */
 	public Collection<BaseDTO> find(BaseDTO dto,List<KeyValue> searchParameters) 
 			throws MongoDataException, InvocationTargetException, IllegalAccessException, InstantiationException{
-		FindIterable<Document> fit = findIterable(dto, searchParameters);
+		return find(dto, searchParameters, null);
+	}
+	
+	/**
+	 * Return all objects that matches whit the [searchParameters] values, as the find() Method,
+	 * reading only the [fields] attributes (and the "_id"). The objects are returned partially
+	 * loaded, see BaseDTO.markLoadedFields(). A null or empty [fields] reads all attributes.
+	 */
+	public Collection<BaseDTO> find(BaseDTO dto,List<KeyValue> searchParameters, Collection<String> fields) 
+			throws MongoDataException, InvocationTargetException, IllegalAccessException, InstantiationException{
 		Collection<BaseDTO> dtos = new ArrayList<BaseDTO>();
-		if(null!=fit){
-			Iterator<Document> it = fit.iterator();
-			Field[] BaseDTOFields = BaseDTO.class.getDeclaredFields();
-			Method[] BaseDTOMethods = BaseDTO.class.getDeclaredMethods();
-			Field[] fields = dto.getClass().getDeclaredFields();
-			Method[] methods = dto.getClass().getDeclaredMethods();
-			while(it.hasNext()){
-				BaseDTO dtoSearch = dto.getClass().newInstance();
-				Document doc = it.next();
-				dtoSearch.setId(doc.getObjectId(BaseDTO.ID_ATTR_DESCRIPTOR));
-				for(Field field: BaseDTOFields){
-					if(field.getName().equals(BaseDTO.TABLE_NAME_ATTR_DESCRIPTOR)
-							|| field.getName().equals(BaseDTO.KEYVALUES_ATTR_DESCRIPTOR)
-							|| field.getName().equals(BaseDTO.ID_ATTR_DESCRIPTOR)
-							|| field.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS)
-							|| field.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS)
-							){
-						continue;
+		BaseDTOCursor cursor = findCursor(dto, searchParameters, 0, true, fields);
+		try {
+			while(cursor.hasNext()){
+				dtos.add(cursor.next());
+			}
+		} finally {
+			cursor.close();
+		}
+		return dtos;
+	}
+	
+	/**
+	 * Return a cursor over all objects that matches whit the [searchParameters] values,
+	 * as the find() Method, but whithout load all objects on memory: the objects are 
+	 * obtained from the database by batches of [batchSize] objects (or the MongoDB default
+	 * batch size when [batchSize] is not positive). The cursor should be closed after use,
+	 * or consumed as a Stream by BaseDTOCursor.stream(), closing the Stream.
+	 */
+	public BaseDTOCursor findCursor(BaseDTO dto,List<KeyValue> searchParameters, int batchSize, boolean initializeRelatedObjects) 
+			throws MongoDataException{
+		return findCursor(dto, searchParameters, batchSize, initializeRelatedObjects, null);
+	}
+	
+	/**
+	 * Return a cursor as the findCursor() Method, reading only the [fields] attributes 
+	 * (and the "_id"). A null or empty [fields] reads all attributes.
+	 */
+	public BaseDTOCursor findCursor(BaseDTO dto,List<KeyValue> searchParameters, int batchSize, 
+			boolean initializeRelatedObjects, Collection<String> fields) throws MongoDataException{
+		return createCursor(findTypedIterable(dto, searchParameters), batchSize, initializeRelatedObjects, fields);
+	}
+	
+	/**
+	 * Return all objects that matches whit the [criteria] conditions, sorted, skipped and 
+	 * limited on the server side. A null [criteria] returns all objects of the table.
+	 */
+	public Collection<BaseDTO> findByCriteria(BaseDTO dto,Criteria criteria) throws MongoDataException{
+		Collection<BaseDTO> dtos = new ArrayList<BaseDTO>();
+		BaseDTOCursor cursor = findCursorByCriteria(dto, criteria, 0, true);
+		try {
+			while(cursor.hasNext()){
+				dtos.add(cursor.next());
+			}
+		} finally {
+			cursor.close();
+		}
+		return dtos;
+	}
+	
+	/**
+	 * Return a cursor over all objects that matches whit the [criteria] conditions,
+	 * as the findByCriteria() Method, obtaining the objects by batches as the findCursor() Method.
+	 * The cursor should be closed after use.
+	 */
+	public BaseDTOCursor findCursorByCriteria(BaseDTO dto,Criteria criteria, int batchSize, boolean initializeRelatedObjects) 
+			throws MongoDataException{
+		return createCursor(findTypedIterable(dto, criteria), batchSize, initializeRelatedObjects, 
+							(null!=criteria ? criteria.getIncludedFields() : null));
+	}
+	
+	/**
+	 * Return a page of at most [pageSize] objects that matches whit the [criteria] conditions,
+	 * ordered by the [sortField] attribute (and the "_id", to untie equal values), resuming after 
+	 * the last object of the previous page described by the [continuationToken]. A null [sortField]
+	 * orders by "_id", and a null [continuationToken] returns the first page.
+	 * 
+	 * The next page is located by a range condition over the sort values (keyset pagination), 
+	 * so a deep page costs the same as the first one when the [sortField] is indexed. The [sortField]
+	 * should exist on all objects. The [criteria] sort, skip and limit are not considered.
+	 */
+	public Page findPage(BaseDTO dto,Criteria criteria, String sortField, boolean descending, int pageSize, 
+			String continuationToken, boolean initializeRelatedObjects) throws MongoDataException{
+		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+			throw new MongoDataException(TABLE_NAME_EMPTY_EXCEPTION);
+		}
+		if(pageSize <= 0){
+			throw new MongoDataException(PAGE_SIZE_INVALID_EXCEPTION);
+		}
+		String key = (null!=sortField && sortField.trim().length() > 0 ? sortField : BaseDTO.ID_ATTR_DESCRIPTOR);
+		boolean sortById = key.equals(BaseDTO.ID_ATTR_DESCRIPTOR);
+		int direction = (descending ? -1 : 1);
+		Document filter = (null!=criteria ? criteria.toFilter() : new Document());
+		if(null!=continuationToken){
+			Document position = decodeContinuationToken(continuationToken, key, descending);
+			String operator = (descending ? "$lt" : "$gt");
+			Document seek = new Document(BaseDTO.ID_ATTR_DESCRIPTOR, new Document(operator, position.get(BaseDTO.ID_ATTR_DESCRIPTOR)));
+			if(!sortById){
+				List<Document> or = new ArrayList<Document>();
+				or.add(new Document(key, new Document(operator, position.get(TOKEN_KEY_VALUE))));
+				or.add(new Document(key, position.get(TOKEN_KEY_VALUE)).append(BaseDTO.ID_ATTR_DESCRIPTOR, 
+							new Document(operator, position.get(BaseDTO.ID_ATTR_DESCRIPTOR))));
+				seek = new Document("$or", or);
+			}
+			if(filter.isEmpty()){
+				filter = seek;
+			}else{
+				List<Document> and = new ArrayList<Document>();
+				and.add(filter);
+				and.add(seek);
+				filter = new Document("$and", and);
+			}
+		}
+		Document sort = new Document(key, direction);
+		if(!sortById){
+			sort.append(BaseDTO.ID_ATTR_DESCRIPTOR, direction);
+		}
+		List<String> fields = (null!=criteria ? criteria.getIncludedFields() : null);
+		if(null!=fields && !sortById && !fields.contains(key)){
+			fields = new ArrayList<String>(fields);
+			fields.add(key);
+		}
+		List<BaseDTO> items = new ArrayList<BaseDTO>();
+		FindIterable<BaseDTO> fit;
+		try {
+			fit = getTypedCollection(dto).find(filter).sort(sort).limit(pageSize + 1);
+		} 
+		catch (Exception e) {
+			throw new MongoDataException(e);
+		}
+		BaseDTOCursor cursor = createCursor(fit, pageSize + 1, initializeRelatedObjects, fields);
+		boolean hasNextPage = false;
+		try {
+			while(cursor.hasNext()){
+				BaseDTO item = cursor.next();
+				if(items.size() == pageSize){
+					hasNextPage = true;
+					break;
+				}
+				items.add(item);
+			}
+		} finally {
+			cursor.close();
+		}
+		String nextToken = null;
+		if(hasNextPage){
+			BaseDTO last = items.get(items.size() - 1);
+			Document position = new Document(TOKEN_SORT_FIELD, key).append(TOKEN_DESCENDING, descending)
+										.append(BaseDTO.ID_ATTR_DESCRIPTOR, last.getId());
+			if(!sortById){
+				try {
+					EntityProperty property = EntityDescriptorRegistry.getDescriptor(last.getClass(), BaseDTO.class).getProperty(key);
+					if(null==property || !property.hasGetter()){
+						throw new MongoDataException(SORT_FIELD_INVALID_EXCEPTION + key);
 					}
-					setFieldValueOnObject(doc, BaseDTOMethods, field, dtoSearch,true);
+					position.append(TOKEN_KEY_VALUE, property.getValue(last));
 				}
-				for(Field field: fields){
-					setFieldValueOnObject(doc, methods, field, dtoSearch,true);
+				catch (MongoDataException mde){
+					throw (mde);
+				}
+				catch (Exception e) {
+					throw new MongoDataException(e);
 				}
-				dtos.add(dtoSearch);
 			}
+			nextToken = ContinuationTokenUtil.encode(position);
 		}
-		return dtos;
+		return new Page(items, nextToken);
+	}
+	
+	/**
+	 * Decode a continuation token, validating that it was created for the same order
+	 */
+	private Document decodeContinuationToken(String continuationToken, String key, boolean descending) throws MongoDataException{
+		Document position;
+		try {
+			position = ContinuationTokenUtil.decode(continuationToken);
+		}
+		catch (IllegalArgumentException iae){
+			throw new MongoDataException(CONTINUATION_TOKEN_INVALID_EXCEPTION);
+		}
+		if(!key.equals(position.get(TOKEN_SORT_FIELD)) || !Boolean.valueOf(descending).equals(position.get(TOKEN_DESCENDING))
+				|| null==position.get(BaseDTO.ID_ATTR_DESCRIPTOR)){
+			throw new MongoDataException(CONTINUATION_TOKEN_INVALID_EXCEPTION);
+		}
+		return position;
+	}
+	
+	/**
+	 * Internal auxiliary Method to findCursor() Method(s) uses, that apply the [batchSize] and
+	 * the projection of the [fields] attributes. The [relatedObjectsIdsJson] and [relatedObjectsIds]
+	 * attributes are read together, and always when the related objects should be initialized.
+	 */
+	private BaseDTOCursor createCursor(FindIterable<BaseDTO> fit, int batchSize, 
+			boolean initializeRelatedObjects, Collection<String> fields) throws MongoDataException{
+		try {
+			if(batchSize > 0){
+				fit.batchSize(batchSize);
+			}
+			Set<String> loadedFields = generateLoadedFields(fields, initializeRelatedObjects);
+			if(null!=loadedFields){
+				fit.projection(generateProjection(loadedFields));
+			}
+			return new BaseDTOCursor(fit.iterator(), this, initializeRelatedObjects, loadedFields, batchSize);
+		} 
+		catch (Exception e) {
+			throw new MongoDataException(e);
+		}
+	}
+	
+	/**
+	 * Return the attributes to be read by a search of the [fields] attributes, or null when 
+	 * all attributes should be read (null or empty [fields]). The [relatedObjectsIdsJson] and 
+	 * [relatedObjectsIds] attributes are read together, and always when the related objects 
+	 * should be initialized.
+	 */
+	static Set<String> generateLoadedFields(Collection<String> fields, boolean initializeRelatedObjects){
+		if(null==fields || fields.size() == 0){
+			return null;
+		}
+		Set<String> loadedFields = new LinkedHashSet<String>(fields);
+		if(initializeRelatedObjects || loadedFields.contains(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS)
+				|| loadedFields.contains(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)){
+			loadedFields.add(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON);
+			loadedFields.add(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS);
+		}
+		return loadedFields;
+	}
+	
+	/**
+	 * Create the projection that reads only the [loadedFields] attributes (and the "_id")
+	 */
+	static BasicDBObject generateProjection(Set<String> loadedFields){
+		BasicDBObject projection = new BasicDBObject();
+		for(String field: loadedFields){
+			projection.put(field, 1);
+		}
+		return projection;
+	}
+	
+	/**
+	 * Internal auxiliary Method to findByCriteria() Method(s) uses, that apply the 
+	 * [criteria] filter, sort, skip and limit on the server side.
+	 */
+	private FindIterable<BaseDTO> findTypedIterable(BaseDTO dto,Criteria criteria) throws MongoDataException{
+		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+			throw new MongoDataException(TABLE_NAME_EMPTY_EXCEPTION);
+		}
+		try {
+			if(null==criteria){
+				return getTypedCollection(dto).find();
+			}
+			FindIterable<BaseDTO> fit = getTypedCollection(dto).find(criteria.toFilter());
+			Document sort = criteria.toSort();
+			if(null!=sort){
+				fit.sort(sort);
+			}
+			if(criteria.getSkip() > 0){
+				fit.skip(criteria.getSkip());
+			}
+			if(criteria.getLimit() > 0){
+				fit.limit(criteria.getLimit());
+			}
+			return fit;
+		} 
+		catch (Exception e) {
+			throw new MongoDataException(e);
+		}
+	}
+	
+	/**
+	 * Return the number of objects that matches whit the [criteria] conditions, counted on
+	 * the server side. The [criteria] skip and limit are considered, and a null [criteria]
+	 * counts all objects of the table.
+	 */
+	public long count(BaseDTO dto,Criteria criteria) throws MongoDataException{
+		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+			throw new MongoDataException(TABLE_NAME_EMPTY_EXCEPTION);
+		}
+		try {
+			MongoCollection<Document> table = getCollection(dto);
+			if(null==criteria){
+				return table.count();
+			}
+			CountOptions options = new CountOptions();
+			if(criteria.getSkip() > 0){
+				options.skip(criteria.getSkip());
+			}
+			if(criteria.getLimit() > 0){
+				options.limit(criteria.getLimit());
+			}
+			return table.count(criteria.toFilter(), options);
+		} 
+		catch (Exception e) {
+			throw new MongoDataException(e);
+		}
+	}
+	
+	/**
+	 * Return true if at least one object matches whit the [criteria] conditions. Only 
+	 * the "_id" of a single object is read from the database.
+	 */
+	public boolean exists(BaseDTO dto,Criteria criteria) throws MongoDataException{
+		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+			throw new MongoDataException(TABLE_NAME_EMPTY_EXCEPTION);
+		}
+		try {
+			Document filter = (null!=criteria ? criteria.toFilter() : new Document());
+			return null!=getCollection(dto).find(filter)
+							.projection(new BasicDBObject(BaseDTO.ID_ATTR_DESCRIPTOR, 1)).limit(1).first();
+		} 
+		catch (Exception e) {
+			throw new MongoDataException(e);
+		}
+	}
+	
+	/**
+	 * Execute the [aggregation] over the objects that matches whit the [criteria] conditions
+	 * (all objects of the table when [criteria] is null), as a server side aggregation pipeline.
+	 * The [criteria] sort, skip and limit are not considered. Return a result by group.
+	 */
+	public List<AggregationResult> aggregate(BaseDTO dto,Criteria criteria, Aggregation aggregation) throws MongoDataException{
+		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+			throw new MongoDataException(TABLE_NAME_EMPTY_EXCEPTION);
+		}
+		if(null==aggregation){
+			throw new MongoDataException(AGGREGATION_PARAMETER_NULL_EXCEPTION);
+		}
+		List<AggregationResult> results = new ArrayList<AggregationResult>();
+		MongoCursor<Document> cursor = null;
+		try {
+			List<String> aliases = aggregation.getAliases();
+			cursor = getCollection(dto).aggregate(aggregation.toPipeline(criteria)).iterator();
+			while(cursor.hasNext()){
+				Document group = cursor.next();
+				Map<String, Object> values = new LinkedHashMap<String, Object>();
+				for(String alias: aliases){
+					values.put(alias, group.get(alias));
+				}
+				results.add(new AggregationResult(group.get(BaseDTO.ID_ATTR_DESCRIPTOR), values));
+			}
+		} 
+		catch (Exception e) {
+			throw new MongoDataException(e);
+		}
+		finally {
+			if(null!=cursor){
+				cursor.close();
+			}
+		}
+		return results;
 	}
 	
 	/**
@@ -307,6 +939,36 @@ public class BaseDAO {
 	 */
 	public BaseDTO findById(BaseDTO dto,Object oid, boolean initializeRelatedObjects) 
 			throws MongoDataException, InvocationTargetException, IllegalAccessException, InstantiationException{
+		return findById(dto, oid, initializeRelatedObjects, null);
+	}
+	
+	/**
+	 * Return a object from a table that macht the specific "_id", as the findById() Method,
+	 * reading only the [fields] attributes. The object is returned partially loaded, see 
+	 * BaseDTO.markLoadedFields(). A null or empty [fields] reads all attributes.
+	 */
+	public BaseDTO findById(BaseDTO dto,Object oid, boolean initializeRelatedObjects, Collection<String> fields) 
+			throws MongoDataException, InvocationTargetException, IllegalAccessException, InstantiationException{
+		ObjectId objectId = toObjectId(oid);
+		List<KeyValue> searchParameters = new ArrayList<KeyValue>();
+		searchParameters.add(new KeyValue(BaseDTO.ID_ATTR_DESCRIPTOR, objectId));
+		FindIterable<BaseDTO> fit = findTypedIterable(dto, searchParameters).limit(2);
+		Collection<BaseDTO> dtos = new ArrayList<BaseDTO>();
+		BaseDTOCursor cursor = createCursor(fit, 0, initializeRelatedObjects, fields);
+		try {
+			while(cursor.hasNext()){
+				dtos.add(cursor.next());
+			}
+		} finally {
+			cursor.close();
+		}
+		return uniqueResult(objectId, dtos);
+	}
+	
+	/**
+	 * Convert the [oid] "_id" value, a ObjectId or a hexadecimal String, to ObjectId
+	 */
+	static ObjectId toObjectId(Object oid) throws MongoDataException{
 		if(null==oid){
 			throw new MongoDataException(OBJECT_ID_PARAMETER_EMPTY_EXCEPTION);
 		}
@@ -323,39 +985,14 @@ public class BaseDAO {
 		if(null==objectId){
 			throw new MongoDataException(OBJECT_ID_PARAMETER_INVALID_EXCEPTION);
 		}
-		FindIterable<Document> fit = findIterable(dto, null);
-		Collection<BaseDTO> dtos = new ArrayList<BaseDTO>();
-		if(null!=fit){
-			Iterator<Document> it = fit.iterator();
-			Field[] BaseDTOFields = BaseDTO.class.getDeclaredFields();
-			Method[] BaseDTOMethods = BaseDTO.class.getDeclaredMethods();
-			Field[] fields = dto.getClass().getDeclaredFields();
-			Method[] methods = dto.getClass().getDeclaredMethods();
-			while(it.hasNext()){
-				Document doc = it.next();
-				ObjectId id = doc.getObjectId(BaseDTO.ID_ATTR_DESCRIPTOR);
-				if(!(id.equals(objectId))){
-					continue;
-				}
-				BaseDTO dtoSearch = dto.getClass().newInstance();
-				dtoSearch.setId(id);
-				for(Field field: BaseDTOFields){
-					if(field.getName().equals(BaseDTO.TABLE_NAME_ATTR_DESCRIPTOR)
-							|| field.getName().equals(BaseDTO.KEYVALUES_ATTR_DESCRIPTOR)
-							|| field.getName().equals(BaseDTO.ID_ATTR_DESCRIPTOR)
-							|| field.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS)
-							|| field.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS)
-							){
-						continue;
-					}
-					setFieldValueOnObject(doc, BaseDTOMethods, field, dtoSearch, initializeRelatedObjects);
-				}
-				for(Field field: fields){
-					setFieldValueOnObject(doc, methods, field, dtoSearch, initializeRelatedObjects);
-				}
-				dtos.add(dtoSearch);
-			}
-		}
+		return objectId;
+	}
+	
+	/**
+	 * Return the single object of [dtos] found by the [objectId], or throws a exception 
+	 * if the object dont exists or is duplicated
+	 */
+	static BaseDTO uniqueResult(ObjectId objectId, Collection<BaseDTO> dtos) throws MongoDataException{
 		if(dtos.size() == 0){
 			throw new MongoDataException(GHOST_OBJECT_ID_EXCEPTION + " " + objectId);
 		}else if(dtos.size() > 1){
@@ -365,40 +1002,54 @@ public class BaseDAO {
 	}
 	
 	/**
-	 * Set the fields values on a object from a Document object, by reflection.
-	 */
-	private void setFieldValueOnObject(Document doc, Method[] methods, Field field, BaseDTO dto, boolean initializeRelatedObjects) 
-			throws InvocationTargetException, IllegalAccessException, InstantiationException{
-		Object fieldValue = doc.get(field.getName());
-		String methodName = "set" + field.getName().substring(0,1).toUpperCase() + field.getName().substring(1);
-		Method method = null;
-		for(Method m: methods){
-			if(m.getName().equals(methodName)){
-				method = m;
-				break;
-			}
-		}
-		if(null!=method){
-			if(field.getName().equals(RELATED_OBJECTS_ID_FIELD_JSON)){
-				method.invoke(dto, (String)fieldValue);
-				dto.populateRelatedObjectsIds();
-				if(initializeRelatedObjects){
-					dto.setRelatedObjects(new ArrayList<KeyValue>());
-					for(KeyValue keyValue: dto.getRelatedObjectsIds()){
-						try {
-							@SuppressWarnings(value="all")
-							Class clazz = Class.forName(keyValue.getKey());
-							BaseDTO relatedDTO = (BaseDTO)clazz.newInstance();
-							BaseDTO dtoToAdd = findById(relatedDTO, keyValue.getValue(), false);
-							dto.getRelatedObjects().add(new KeyValue(keyValue.getKey(), dtoToAdd));
-						} catch (Exception e) {
-							e.printStackTrace();
-						}
+	 * Return the objects from a table that match the [oids] "_id" values, by a single 
+	 * query. The objects are returned in the [oids] order, ignoring the not found ids.
+	 */
+	public Collection<BaseDTO> findByIds(BaseDTO dto,Collection<ObjectId> oids) throws MongoDataException{
+		return findByIds(dto, oids, false);
+	}
+	
+	/**
+	 * Return the objects from a table that match the [oids] "_id" values, by a single 
+	 * query. The objects are returned in the [oids] order, ignoring the not found ids.
+	 */
+	public Collection<BaseDTO> findByIds(BaseDTO dto,Collection<ObjectId> oids, boolean initializeRelatedObjects) 
+			throws MongoDataException{
+		if(null==oids){
+			throw new MongoDataException(OBJECT_ID_PARAMETER_EMPTY_EXCEPTION);
+		}
+		Collection<BaseDTO> dtos = new ArrayList<BaseDTO>();
+		if(oids.size() == 0){
+			return dtos;
+		}
+		try {
+			List<KeyValue> searchParameters = new ArrayList<KeyValue>();
+			searchParameters.add(new KeyValue(BaseDTO.ID_ATTR_DESCRIPTOR, new BasicDBObject("$in", oids)));
+			Map<ObjectId, BaseDTO> dtosById = new HashMap<ObjectId, BaseDTO>();
+			Iterator<BaseDTO> it = findTypedIterable(dto, searchParameters).iterator();
+			while(it.hasNext()){
+				BaseDTO dtoSearch = it.next();
+				dtosById.put(dtoSearch.getId(), dtoSearch);
+			}
+			for(ObjectId objectId: oids){
+				BaseDTO dtoSearch = dtosById.remove(objectId);
+				if(null!=dtoSearch){
+					if(null==dtoSearch.getRelatedObjectsIds()){
+						dtoSearch.populateRelatedObjectsIds();
 					}
+					dtos.add(dtoSearch);
 				}
-			}else{
-				method.invoke(dto,fieldValue);
 			}
+			if(initializeRelatedObjects){
+				new RelatedObjectsLoader(this).load(dtos);
+			}
+			return dtos;
+		} 
+		catch (MongoDataException me){
+			throw (me);
+		}
+		catch (Exception e) {
+			throw new MongoDataException(e);
 		}
 	}
 	
@@ -426,61 +1077,30 @@ public class BaseDAO {
 	 * BaseDTO.getAllAttributeValues() Method.
 	 */
 	public DeleteResult deleteAll(BaseDTO dto,List<KeyValue> searchParameters) throws MongoDataException{
-		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
-			throw new MongoDataException(TABLE_NAME_EMPTY_EXCEPTION);
-		}
-		if( (null==searchParameters || searchParameters.size() == 0) 
-				&& (null==dto.getAllAttributeValues() || dto.getAllAttributeValues().size() == 0)){
-			throw new MongoDataException(DELETE_ATTRIBUTES_EMPTY_EXCEPTION);
-		}
 		try {
-			if(null==searchParameters){
-				searchParameters = new ArrayList<KeyValue>();
-				dto.generateKeyValues();
-				for(KeyValue keyValue: dto.getAllAttributeValues()){
-					if(null!=keyValue.getValue()){
-						searchParameters.add(keyValue);
-					}
-				}
-			}
-			FindIterable<Document> fit = findIterable(dto, searchParameters);
-			Iterator<Document> it = fit.iterator();
-			StringBuffer exclusionRestrictionsMsgs = new StringBuffer();
+			searchParameters = generateDeleteParameters(dto, searchParameters);
 			List<KeyValue> relationalIntegritiesToRemove = new ArrayList<KeyValue>();
 			if(!(dto instanceof RelationalIntegrityDTO)){
-				while(it.hasNext()){
-					Document doc = it.next();
-					ObjectId id = doc.getObjectId(BaseDTO.ID_ATTR_DESCRIPTOR);
-					BaseDTO dtoExclusionValidate = dto.getClass().newInstance();
-					dtoExclusionValidate.setId(id);
-					relationalIntegritiesToRemove.add(new KeyValue(dto.getClass().getName(),id.toHexString()));
-					Collection<RelationalIntegrityDTO> ridtos = RelationalIntegrityDAO.getInstance(mgc).getLockedByRelationalIntegrity(dtoExclusionValidate);
-					if(null!=ridtos && ridtos.size() > 0){
-						exclusionRestrictionsMsgs.append("\nObject class: " + dto.getClass().getName() + " Object _id: " +  id.toHexString());
-						exclusionRestrictionsMsgs.append(" whit relational restrictions on:");
-						for(RelationalIntegrityDTO ridto: ridtos){
-							exclusionRestrictionsMsgs.append("\n\t class: " + ridto.getOwnerTableName() + " _id: " + ridto.getOwnerId());
-						}
+				FindIterable<Document> fit = findIterable(dto, searchParameters).projection(new BasicDBObject(BaseDTO.ID_ATTR_DESCRIPTOR, 1));
+				List<String> ids = new ArrayList<String>();
+				MongoCursor<Document> it = fit.iterator();
+				try {
+					while(it.hasNext()){
+						ObjectId id = it.next().getObjectId(BaseDTO.ID_ATTR_DESCRIPTOR);
+						ids.add(id.toHexString());
+						relationalIntegritiesToRemove.add(new KeyValue(dto.getClass().getName(),id.toHexString()));
 					}
+				} finally {
+					it.close();
 				}
-				if(exclusionRestrictionsMsgs.length() > 0){
-					throw new MongoDataException(RELATED_OBJECTS_INTEGRITY_EXCEPTION + exclusionRestrictionsMsgs.toString());
-				}
+				validateRelationalIntegrity(dto, ids, 
+						RelationalIntegrityDAO.getInstance(mgc).getLockedByRelationalIntegrity(dto.getTableName(), ids));
 			}
-			BasicDBObject searchQuery = new BasicDBObject();
-			for(KeyValue keyValue: searchParameters){
-				searchQuery.put(keyValue.getKey(),keyValue.getValue());
-			}
-			MongoCollection<Document> table = mgc.getCollection(dto.getTableName());
-			DeleteResult dr = table.deleteMany(searchQuery);
+			MongoCollection<Document> table = getCollection(dto);
+			DeleteResult dr = table.deleteMany(generateDeleteQuery(searchParameters));
 			if(!(dto instanceof RelationalIntegrityDTO)){
-				if(dr.getDeletedCount() == relationalIntegritiesToRemove.size()){
-					RelationalIntegrityDAO.getInstance(mgc).removeRelationalIntegrityDTO(relationalIntegritiesToRemove);
-				}else{
-					throw new MongoDataException(
-							DELETED_RESULT_NO_MATCH_REFERENCES_TO_REMOVE_EXCEPTION 
-							+ ("(" + dr.getDeletedCount() + " != " + relationalIntegritiesToRemove.size() + ")"));
-				}
+				validateDeletedCount(dr, relationalIntegritiesToRemove.size());
+				RelationalIntegrityDAO.getInstance(mgc).removeRelationalIntegrityDTO(relationalIntegritiesToRemove);
 			}
 			return dr;
 		} 
@@ -491,5 +1111,79 @@ public class BaseDAO {
 			throw new MongoDataException(e);
 		}
 	}
+	
+	/**
+	 * Validate the parameters of the deleteAll() Method, and return the [searchParameters], or
+	 * the BaseDTO.getAllAttributeValues() Method not null values if [searchParameters] is null.
+	 */
+	static List<KeyValue> generateDeleteParameters(BaseDTO dto,List<KeyValue> searchParameters) throws MongoDataException{
+		if(null==dto.getTableName() || dto.getTableName().trim().length() == 0){
+			throw new MongoDataException(TABLE_NAME_EMPTY_EXCEPTION);
+		}
+		if( (null==searchParameters || searchParameters.size() == 0) 
+				&& (null==dto.getAllAttributeValues() || dto.getAllAttributeValues().size() == 0)){
+			throw new MongoDataException(DELETE_ATTRIBUTES_EMPTY_EXCEPTION);
+		}
+		if(null!=searchParameters){
+			return searchParameters;
+		}
+		try {
+			List<KeyValue> parameters = new ArrayList<KeyValue>();
+			dto.generateKeyValues();
+			for(KeyValue keyValue: dto.getAllAttributeValues()){
+				if(null!=keyValue.getValue()){
+					parameters.add(keyValue);
+				}
+			}
+			return parameters;
+		}
+		catch (Exception e) {
+			throw new MongoDataException(e);
+		}
+	}
+	
+	/**
+	 * Create the query of the objects to be deleted, according the [searchParameters] values
+	 */
+	static BasicDBObject generateDeleteQuery(List<KeyValue> searchParameters){
+		BasicDBObject searchQuery = new BasicDBObject();
+		for(KeyValue keyValue: searchParameters){
+			searchQuery.put(keyValue.getKey(),keyValue.getValue());
+		}
+		return searchQuery;
+	}
+	
+	/**
+	 * Throws a exception describing the objects of [ids] that have relational restrictions on [locks]
+	 */
+	static void validateRelationalIntegrity(BaseDTO dto, List<String> ids, Map<String, List<RelationalIntegrityDTO>> locks) 
+			throws MongoDataException{
+		StringBuffer exclusionRestrictionsMsgs = new StringBuffer();
+		for(String id: ids){
+			List<RelationalIntegrityDTO> ridtos = locks.get(id);
+			if(null!=ridtos && ridtos.size() > 0){
+				exclusionRestrictionsMsgs.append("\nObject class: " + dto.getClass().getName() + " Object _id: " +  id);
+				exclusionRestrictionsMsgs.append(" whit relational restrictions on:");
+				for(RelationalIntegrityDTO ridto: ridtos){
+					exclusionRestrictionsMsgs.append("\n\t class: " + ridto.getOwnerTableName() + " _id: " + ridto.getOwnerId());
+				}
+			}
+		}
+		if(exclusionRestrictionsMsgs.length() > 0){
+			throw new MongoDataException(RELATED_OBJECTS_INTEGRITY_EXCEPTION + exclusionRestrictionsMsgs.toString());
+		}
+	}
+	
+	/**
+	 * Throws a exception if the number of deleted objects is not the number of objects 
+	 * whose relational references should be removed
+	 */
+	static void validateDeletedCount(DeleteResult dr, int referencesToRemove) throws MongoDataException{
+		if(dr.getDeletedCount() != referencesToRemove){
+			throw new MongoDataException(
+					DELETED_RESULT_NO_MATCH_REFERENCES_TO_REMOVE_EXCEPTION 
+					+ ("(" + dr.getDeletedCount() + " != " + referencesToRemove + ")"));
+		}
+	}
 
 }
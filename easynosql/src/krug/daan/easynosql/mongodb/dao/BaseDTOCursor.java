@@ -0,0 +1,139 @@
+package krug.daan.easynosql.mongodb.dao;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import krug.daan.easynosql.mongodb.dto.BaseDTO;
+import krug.daan.easynosql.mongodb.exception.MongoDataException;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCursor;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Iterator over the objects returned by a search, backed by the MongoDB cursor.
+ * The objects are decoded only when requested, a batch at a time, so the memory 
+ * used by the search is proportional to the batch size and not to the result size.
+ * When the related objects should be initialized, the objects are read in blocks of the 
+ * batch size, and the related objects of each block are read together by a RelatedObjectsLoader
+ * of its own, so the related objects kept in memory are only those of the actual block.
+ * A failure reading the related objects is thrown by next() as a MongoException.
+ * Should be closed after use, to release the server cursor.
+ * Can be consumed as a Stream (see stream()), closing the Stream closes the cursor.
+ */
+public class BaseDTOCursor implements Iterator<BaseDTO>, Closeable {
+	
+	/**
+	 * MongoDB cursor
+	 */
+	private MongoCursor<BaseDTO> cursor;
+	
+	/**
+	 * Default number of objects by block, when the batch size is not informed
+	 */
+	private static final int DEFAULT_BLOCK_SIZE = 1000;
+	
+	/**
+	 * Exception messages
+	 */
+	private static final String RELATED_OBJECTS_READ_EXCEPTION = "The related objects could not be read.";
+	
+	/**
+	 * BaseDAO to read the related objects, null if the related objects should not be initialized
+	 */
+	private BaseDAO dao;
+	
+	/**
+	 * Number of objects by block
+	 */
+	private int blockSize;
+	
+	/**
+	 * Objects already read from the cursor and not returned
+	 */
+	private LinkedList<BaseDTO> block = new LinkedList<BaseDTO>();
+	
+	/**
+	 * The attributes read by the search projection, or null when all attributes are read
+	 */
+	private Collection<String> loadedFields;
+	
+	/**
+	 * Constructor
+	 */
+	BaseDTOCursor(MongoCursor<BaseDTO> cursor, BaseDAO dao, boolean initializeRelatedObjects, 
+			Collection<String> loadedFields, int batchSize){
+		this.cursor = cursor;
+		this.dao = (initializeRelatedObjects ? dao : null);
+		this.loadedFields = loadedFields;
+		this.blockSize = (batchSize > 0 ? batchSize : DEFAULT_BLOCK_SIZE);
+	}
+	
+	@Override
+	public boolean hasNext() {
+		return (!block.isEmpty() || cursor.hasNext());
+	}
+	
+	@Override
+	public BaseDTO next() {
+		if(block.isEmpty()){
+			readBlock();
+		}
+		return block.removeFirst();
+	}
+	
+	/**
+	 * Read the next object (or the next block of objects, when the related objects 
+	 * should be initialized) from the cursor
+	 */
+	private void readBlock() {
+		List<BaseDTO> dtos = new ArrayList<BaseDTO>();
+		do {
+			BaseDTO dto = cursor.next();
+			if(null!=loadedFields){
+				dto.markLoadedFields(loadedFields);
+			}
+			if(null==dto.getRelatedObjectsIds()){
+				dto.populateRelatedObjectsIds();
+			}
+			dtos.add(dto);
+		} while(null!=dao && dtos.size() < blockSize && cursor.hasNext());
+		if(null!=dao){
+			try {
+				new RelatedObjectsLoader(dao).load(dtos);
+			} catch (MongoDataException e) {
+				throw new MongoException(RELATED_OBJECTS_READ_EXCEPTION, e);
+			}
+		}
+		block.addAll(dtos);
+	}
+	
+	/**
+	 * Return a sequential Stream over the objects of this cursor. The objects are read 
+	 * from the cursor as the Stream is consumed, and closing the Stream closes this cursor, 
+	 * so it should be used in a try-with-resources statement.
+	 */
+	public Stream<BaseDTO> stream() {
+		Spliterator<BaseDTO> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(this::close);
+	}
+	
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("remove");
+	}
+	
+	@Override
+	public void close() {
+		cursor.close();
+	}
+}
@@ -0,0 +1,321 @@
+package krug.daan.easynosql.mongodb.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import krug.daan.easynosql.mongodb.dto.BaseDTO;
+import krug.daan.easynosql.mongodb.type.CriteriaOperator;
+
+import org.bson.Document;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Class to describe a query whit typed conditions, sort, skip and limit, that is
+ * translated into a single server side MongoDB filter, sort and limit by the
+ * BaseDAO.findByCriteria() Method(s). All conditions are joined by AND, and more than one
+ * condition on the same field are merged (a range as gte and lt, for example).
+ *
+ * The 20 most recent users older than 30 years:
+ *
+ * new Criteria().gt("old", 30).sortDescending("created").limit(20)
+ *
+ * The same users, reading only the name and email attributes:
+ *
+ * new Criteria().gt("old", 30).sortDescending("created").limit(20).include("name", "email")
+ */
+public class Criteria {
+
+	/**
+	 * FIELD_NAME_EMPTY_EXCEPTION
+	 */
+	private static final String FIELD_NAME_EMPTY_EXCEPTION = "<field> parameter couldnt be null or empty.";
+
+	/**
+	 * IN_VALUES_NULL_EXCEPTION
+	 */
+	private static final String IN_VALUES_NULL_EXCEPTION = "<values> parameter couldnt be null.";
+
+	/**
+	 * PREFIX_NULL_EXCEPTION
+	 */
+	private static final String PREFIX_NULL_EXCEPTION = "<prefix> parameter couldnt be null.";
+
+	/**
+	 * RELATED_NULL_EXCEPTION
+	 */
+	private static final String RELATED_NULL_EXCEPTION = "<related> parameter couldnt be null or whithout \"_id\".";
+
+	/**
+	 * NEGATIVE_PARAMETER_EXCEPTION
+	 */
+	private static final String NEGATIVE_PARAMETER_EXCEPTION = "<skip> and <limit> parameters couldnt be negative.";
+
+	/**
+	 * Characters that have special meaning on a regular expression
+	 */
+	private static final String REGEX_SPECIAL_CHARACTERS = "\\^$.|?*+()[]{}";
+
+	/**
+	 * The conditions, by field name and operator
+	 */
+	private Map<String, Map<CriteriaOperator, Object>> conditions = new LinkedHashMap<String, Map<CriteriaOperator, Object>>();
+
+	/**
+	 * The sort fields, whit 1 to ascending and -1 to descending
+	 */
+	private Map<String, Integer> sortFields = new LinkedHashMap<String, Integer>();
+
+	/**
+	 * Number of objects to skip
+	 */
+	private int skip;
+
+	/**
+	 * Max number of objects to return, 0 means no limit
+	 */
+	private int limit;
+
+	/**
+	 * The attributes to read from the database, or null to read all attributes
+	 */
+	private List<String> includedFields;
+
+	/**
+	 * Field equals to value
+	 */
+	public Criteria eq(String field, Object value){
+		return addCondition(field, CriteriaOperator.EQ, value);
+	}
+
+	/**
+	 * Field not equals to value
+	 */
+	public Criteria ne(String field, Object value){
+		return addCondition(field, CriteriaOperator.NE, value);
+	}
+
+	/**
+	 * Field greater than value
+	 */
+	public Criteria gt(String field, Object value){
+		return addCondition(field, CriteriaOperator.GT, value);
+	}
+
+	/**
+	 * Field greater than or equals to value
+	 */
+	public Criteria gte(String field, Object value){
+		return addCondition(field, CriteriaOperator.GTE, value);
+	}
+
+	/**
+	 * Field less than value
+	 */
+	public Criteria lt(String field, Object value){
+		return addCondition(field, CriteriaOperator.LT, value);
+	}
+
+	/**
+	 * Field less than or equals to value
+	 */
+	public Criteria lte(String field, Object value){
+		return addCondition(field, CriteriaOperator.LTE, value);
+	}
+
+	/**
+	 * Field equals to any of the values
+	 */
+	public Criteria in(String field, Collection<?> values){
+		if(null==values){
+			throw new IllegalArgumentException(IN_VALUES_NULL_EXCEPTION);
+		}
+		return addCondition(field, CriteriaOperator.IN, new ArrayList<Object>(values));
+	}
+
+	/**
+	 * Field exists (or not) on the object
+	 */
+	public Criteria exists(String field, boolean exists){
+		return addCondition(field, CriteriaOperator.EXISTS, exists);
+	}
+
+	/**
+	 * Field (a String) starts whit the prefix. The prefix is escaped and anchored,
+	 * so the query can use a index on the field.
+	 */
+	public Criteria startsWith(String field, String prefix){
+		if(null==prefix){
+			throw new IllegalArgumentException(PREFIX_NULL_EXCEPTION);
+		}
+		return addCondition(field, CriteriaOperator.REGEX, "^" + escapeRegex(prefix));
+	}
+
+	/**
+	 * Object references the [related] object. Only the objects whose class has the ARRAY 
+	 * RelatedObjectsStorageMode are found, by the multikey index of the related objects ids.
+	 */
+	public Criteria references(BaseDTO related){
+		if(null==related || null==related.getId()){
+			throw new IllegalArgumentException(RELATED_NULL_EXCEPTION);
+		}
+		return addCondition(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS, CriteriaOperator.ELEM_MATCH, 
+					new Document(BaseDTO.RELATED_OBJECT_ID_ATTR_DESCRIPTOR, related.getId())
+						.append(BaseDTO.RELATED_OBJECT_CLASS_ATTR_DESCRIPTOR, related.getClass().getName()));
+	}
+
+	/**
+	 * Sort by field in ascending order. Each call adds a sort field.
+	 */
+	public Criteria sortAscending(String field){
+		validateField(field);
+		sortFields.put(field, 1);
+		return this;
+	}
+
+	/**
+	 * Sort by field in descending order. Each call adds a sort field.
+	 */
+	public Criteria sortDescending(String field){
+		validateField(field);
+		sortFields.put(field, -1);
+		return this;
+	}
+
+	/**
+	 * Skip the first [skip] objects
+	 */
+	public Criteria skip(int skip){
+		if(skip < 0){
+			throw new IllegalArgumentException(NEGATIVE_PARAMETER_EXCEPTION);
+		}
+		this.skip = skip;
+		return this;
+	}
+
+	/**
+	 * Return at most [limit] objects, 0 means no limit
+	 */
+	public Criteria limit(int limit){
+		if(limit < 0){
+			throw new IllegalArgumentException(NEGATIVE_PARAMETER_EXCEPTION);
+		}
+		this.limit = limit;
+		return this;
+	}
+
+	/**
+	 * Read only the [fields] attributes (and the "_id") of the objects, that are returned
+	 * partially loaded. Each call replaces the previous fields.
+	 */
+	public Criteria include(String... fields){
+		for(String field: fields){
+			validateField(field);
+		}
+		this.includedFields = (fields.length > 0 ? Arrays.asList(fields) : null);
+		return this;
+	}
+
+	/**
+	 * @return the number of objects to skip
+	 */
+	public int getSkip() {
+		return skip;
+	}
+
+	/**
+	 * @return the max number of objects to return
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * @return the attributes to read from the database, or null to read all attributes
+	 */
+	public List<String> getIncludedFields() {
+		return includedFields;
+	}
+
+	/**
+	 * Add a condition over a field, replacing a previous condition whit the same operator
+	 */
+	private Criteria addCondition(String field, CriteriaOperator operator, Object value){
+		validateField(field);
+		Map<CriteriaOperator, Object> fieldConditions = conditions.get(field);
+		if(null==fieldConditions){
+			fieldConditions = new LinkedHashMap<CriteriaOperator, Object>();
+			conditions.put(field, fieldConditions);
+		}
+		fieldConditions.put(operator, value);
+		return this;
+	}
+
+	/**
+	 * Validate a field name
+	 */
+	private void validateField(String field){
+		if(null==field || field.trim().length() == 0){
+			throw new IllegalArgumentException(FIELD_NAME_EMPTY_EXCEPTION);
+		}
+	}
+
+	/**
+	 * Escape the regular expression special characters of a literal value
+	 */
+	private static String escapeRegex(String literal){
+		StringBuilder sb = new StringBuilder(literal.length() + 8);
+		for(int i = 0; i < literal.length(); i++){
+			char c = literal.charAt(i);
+			if(REGEX_SPECIAL_CHARACTERS.indexOf(c) >= 0){
+				sb.append('\\');
+			}
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Return the MongoDB filter document. A field whit only a equality condition
+	 * is written as {field: value}, the other ones as {field: {$op: value, ...}}.
+	 */
+	Document toFilter(){
+		Document filter = new Document();
+		for(Map.Entry<String, Map<CriteriaOperator, Object>> entry: conditions.entrySet()){
+			Map<CriteriaOperator, Object> fieldConditions = entry.getValue();
+			if(fieldConditions.size() == 1 && fieldConditions.containsKey(CriteriaOperator.EQ)){
+				filter.put(entry.getKey(), fieldConditions.get(CriteriaOperator.EQ));
+				continue;
+			}
+			Document operators = new Document();
+			for(Map.Entry<CriteriaOperator, Object> condition: fieldConditions.entrySet()){
+				operators.put(condition.getKey().getOperator(), condition.getValue());
+			}
+			filter.put(entry.getKey(), operators);
+		}
+		return filter;
+	}
+
+	/**
+	 * Return the MongoDB sort document, or null if there is no sort field
+	 */
+	Document toSort(){
+		if(sortFields.isEmpty()){
+			return null;
+		}
+		Document sort = new Document();
+		for(Map.Entry<String, Integer> entry: sortFields.entrySet()){
+			sort.put(entry.getKey(), entry.getValue());
+		}
+		return sort;
+	}
+
+	@Override
+	public String toString() {
+		return "filter=" + toFilter().toJson() + ", sort=" + toSort() + ", skip=" + skip + ", limit=" + limit;
+	}
+}
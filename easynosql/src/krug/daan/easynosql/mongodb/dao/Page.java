@@ -0,0 +1,54 @@
+package krug.daan.easynosql.mongodb.dao;
+
+import java.util.List;
+
+import krug.daan.easynosql.mongodb.dto.BaseDTO;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * A page of objects returned by the BaseDAO.findPage() Method, whit the continuation
+ * token to obtain the next page.
+ */
+public class Page {
+
+	/**
+	 * The objects of the page
+	 */
+	private List<BaseDTO> items;
+
+	/**
+	 * The token to obtain the next page, null when this is the last page
+	 */
+	private String continuationToken;
+
+	/**
+	 * Constructor
+	 */
+	Page(List<BaseDTO> items, String continuationToken){
+		this.items = items;
+		this.continuationToken = continuationToken;
+	}
+
+	/**
+	 * @return the objects of the page
+	 */
+	public List<BaseDTO> getItems() {
+		return items;
+	}
+
+	/**
+	 * @return the opaque token to be passed to the BaseDAO.findPage() Method to obtain
+	 * the next page, or null when this is the last page
+	 */
+	public String getContinuationToken() {
+		return continuationToken;
+	}
+
+	/**
+	 * @return true if there is a next page
+	 */
+	public boolean hasNextPage() {
+		return (null!=continuationToken);
+	}
+}
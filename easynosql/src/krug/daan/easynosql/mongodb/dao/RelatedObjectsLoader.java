@@ -0,0 +1,169 @@
+package krug.daan.easynosql.mongodb.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import krug.daan.easynosql.common.KeyValue;
+import krug.daan.easynosql.mongodb.dto.BaseDTO;
+import krug.daan.easynosql.mongodb.exception.MongoDataException;
+
+import org.bson.types.ObjectId;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Class to initialize the related objects of a set of objects whit few queries: the related
+ * ids of all objects are grouped by class, and each class is read by "$in" queries of
+ * IN_QUERY_CHUNK_SIZE ids, instead of a query by related id of each object.
+ * The related objects already read are kept on a identity map, so a object related
+ * to many others is read and instantiated a single time by loader. The identity map 
+ * lives as long as the loader, so a loader should be used for a bounded set of objects
+ * (e.g. a block of a BaseDTOCursor).
+ * The AsyncBaseDAO reads the related objects by itself, using only the collect (getIdsToRead()),
+ * add() and assign() steps.
+ */
+class RelatedObjectsLoader {
+
+	/**
+	 * Maximum number of ids on a single "$in" query
+	 */
+	private static final int IN_QUERY_CHUNK_SIZE = 1000;
+
+	/**
+	 * Warning messages
+	 */
+	private static final String RELATED_CLASS_NOT_FOUND_WARNING = "The related objects of a unknown class were ignored: ";
+
+	/**
+	 * BaseDAO to read the related objects
+	 */
+	private BaseDAO dao;
+
+	/**
+	 * The related objects already read, by class name and id
+	 */
+	private Map<String, Map<ObjectId, BaseDTO>> identityMap = new HashMap<String, Map<ObjectId, BaseDTO>>();
+
+	/**
+	 * Constructor
+	 */
+	RelatedObjectsLoader(BaseDAO dao){
+		this.dao = dao;
+	}
+
+	/**
+	 * Initialize the related objects of the [dtos], whose related ids should be already populated.
+	 * The related objects that dont exist, or of a unknown class, are ignored.
+	 *
+	 * @throws MongoDataException when the related objects could not be read
+	 */
+	void load(Collection<BaseDTO> dtos) throws MongoDataException{
+		for(Map.Entry<String, Set<ObjectId>> entry: getIdsToRead(dtos).entrySet()){
+			read(entry.getKey(), new ArrayList<ObjectId>(entry.getValue()));
+		}
+		assign(dtos);
+	}
+
+	/**
+	 * Return the related ids of the [dtos] that are not on the identity map yet, by class name
+	 */
+	Map<String, Set<ObjectId>> getIdsToRead(Collection<BaseDTO> dtos){
+		Map<String, Set<ObjectId>> idsToRead = new LinkedHashMap<String, Set<ObjectId>>();
+		for(BaseDTO dto: dtos){
+			if(null==dto.getRelatedObjectsIds()){
+				continue;
+			}
+			for(KeyValue keyValue: dto.getRelatedObjectsIds()){
+				ObjectId objectId = toObjectId(keyValue.getValue());
+				if(null==objectId || getIdentities(keyValue.getKey()).containsKey(objectId)){
+					continue;
+				}
+				Set<ObjectId> ids = idsToRead.get(keyValue.getKey());
+				if(null==ids){
+					ids = new LinkedHashSet<ObjectId>();
+					idsToRead.put(keyValue.getKey(), ids);
+				}
+				ids.add(objectId);
+			}
+		}
+		return idsToRead;
+	}
+
+	/**
+	 * Set the related objects of the [dtos], from the identity map
+	 */
+	void assign(Collection<BaseDTO> dtos){
+		for(BaseDTO dto: dtos){
+			List<KeyValue> relatedObjects = new ArrayList<KeyValue>();
+			if(null!=dto.getRelatedObjectsIds()){
+				for(KeyValue keyValue: dto.getRelatedObjectsIds()){
+					ObjectId objectId = toObjectId(keyValue.getValue());
+					BaseDTO related = (null!=objectId ? getIdentities(keyValue.getKey()).get(objectId) : null);
+					if(null!=related){
+						relatedObjects.add(new KeyValue(keyValue.getKey(), related));
+					}
+				}
+			}
+			dto.setRelatedObjects(relatedObjects);
+		}
+	}
+
+	/**
+	 * Read the objects of the [className] class whit the [ids], by chunks, into the identity map.
+	 * A unknown [className] is logged as a warning and its objects are ignored.
+	 */
+	private void read(String className, List<ObjectId> ids) throws MongoDataException{
+		Map<ObjectId, BaseDTO> identities = getIdentities(className);
+		BaseDTO relatedDTO;
+		try {
+			relatedDTO = Class.forName(className).asSubclass(BaseDTO.class).getDeclaredConstructor().newInstance();
+		} catch (Exception e) {
+			dao.getMongoConfig().logWarn(RELATED_CLASS_NOT_FOUND_WARNING + className, e);
+			return;
+		}
+		for(int start = 0; start < ids.size(); start += IN_QUERY_CHUNK_SIZE){
+			List<ObjectId> chunk = ids.subList(start, Math.min(start + IN_QUERY_CHUNK_SIZE, ids.size()));
+			for(BaseDTO related: dao.findByIds(relatedDTO, chunk, false)){
+				identities.put(related.getId(), related);
+			}
+		}
+	}
+
+	/**
+	 * Add a [related] object of the [className] class, already read, to the identity map
+	 */
+	void add(String className, BaseDTO related){
+		getIdentities(className).put(related.getId(), related);
+	}
+
+	/**
+	 * Return the identity map of the [className] class
+	 */
+	private Map<ObjectId, BaseDTO> getIdentities(String className){
+		Map<ObjectId, BaseDTO> identities = identityMap.get(className);
+		if(null==identities){
+			identities = new HashMap<ObjectId, BaseDTO>();
+			identityMap.put(className, identities);
+		}
+		return identities;
+	}
+
+	/**
+	 * Convert a related id value to ObjectId, or null if it is not a valid id
+	 */
+	private static ObjectId toObjectId(Object value){
+		if(value instanceof ObjectId){
+			return (ObjectId)value;
+		}
+		if(value instanceof String && ObjectId.isValid((String)value)){
+			return new ObjectId((String)value);
+		}
+		return null;
+	}
+}
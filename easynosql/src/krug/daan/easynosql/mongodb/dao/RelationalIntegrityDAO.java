@@ -3,7 +3,10 @@ package krug.daan.easynosql.mongodb.dao;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import krug.daan.easynosql.common.KeyValue;
 import krug.daan.easynosql.mongodb.config.MongoConfig;
@@ -11,6 +14,15 @@ import krug.daan.easynosql.mongodb.dto.BaseDTO;
 import krug.daan.easynosql.mongodb.dto.RelationalIntegrityDTO;
 import krug.daan.easynosql.mongodb.exception.MongoDataException;
 
+import org.bson.types.ObjectId;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.WriteModel;
+
 /**
  * @author Daniel Augusto Krug
  * 
@@ -18,15 +30,25 @@ import krug.daan.easynosql.mongodb.exception.MongoDataException;
  */
 class RelationalIntegrityDAO extends BaseDAO{
 	
+	/**
+	 * RELATIONAL_INTEGRITY_SAVE_EXCEPTION
+	 */
+	private static final String RELATIONAL_INTEGRITY_SAVE_EXCEPTION = "Relational References cannot was saved: ";
+	
+	/**
+	 * Maximum number of ids on a single "$in" query
+	 */
+	private static final int IN_QUERY_CHUNK_SIZE = 1000;
+	
 	/**
 	 * Singleton instance
 	 */
 	private static RelationalIntegrityDAO instance;
 	
 	/**
-	 * Return the Singleton instance
+	 * Return the Singleton instance, created a single time when requested by concurrent threads
 	 */
-	public static RelationalIntegrityDAO getInstance(MongoConfig mgc){
+	public static synchronized RelationalIntegrityDAO getInstance(MongoConfig mgc){
 		if(null==instance){
 			instance = new RelationalIntegrityDAO(mgc);
 		}
@@ -52,38 +74,188 @@ class RelationalIntegrityDAO extends BaseDAO{
 	 */
 	public void updateRelationalIntegrityDTO(BaseDTO dto) 
 			throws InstantiationException, IllegalAccessException,InvocationTargetException, MongoDataException{
+		List<BaseDTO> dtos = new ArrayList<BaseDTO>();
+		dtos.add(dto);
+		updateRelationalIntegrityDTOs(dtos);
+	}
+	
+	/**
+	 * Updates the [RelationalIntegrityDTO] associated whit a list of [dtos] of a same table.
+	 * Only the objects whit changed [relatedObjectsIdsJson] are handled: the stored relational
+	 * references are compared whit the actual [relatedObjectsIds], and only the added and 
+	 * removed references are written, by a single bulk write for each IN_QUERY_CHUNK_SIZE objects.
+	 */
+	public void updateRelationalIntegrityDTOs(List<BaseDTO> dtos) 
+			throws InstantiationException, IllegalAccessException,InvocationTargetException, MongoDataException{
+		for(List<BaseDTO> chunk: splitInChunks(filterChangedDTOs(dtos))){
+			updateRelationalIntegrityDTOsChunk(chunk);
+		}
+	}
+	
+	/**
+	 * Return the objects of [dtos] whit changed [relatedObjectsIdsJson]
+	 */
+	static List<BaseDTO> filterChangedDTOs(List<BaseDTO> dtos){
+		List<BaseDTO> changedDTOs = new ArrayList<BaseDTO>();
+		for(BaseDTO dto: dtos){
+			dto.populateRelatedObjectsIdsJson();
+			if(dto.isRelatedObjectsIdsJsonChanged()){
+				changedDTOs.add(dto);
+			}
+		}
+		return changedDTOs;
+	}
+	
+	/**
+	 * Split the [values] in lists of at most IN_QUERY_CHUNK_SIZE values, for "$in" queries
+	 */
+	static <T> List<List<T>> splitInChunks(List<T> values){
+		List<List<T>> chunks = new ArrayList<List<T>>();
+		for(int start = 0; start < values.size(); start += IN_QUERY_CHUNK_SIZE){
+			chunks.add(new ArrayList<T>(values.subList(start, Math.min(start + IN_QUERY_CHUNK_SIZE, values.size()))));
+		}
+		return chunks;
+	}
+	
+	/**
+	 * Write the added and removed relational references of a list of [dtos] of a same table,
+	 * by a single bulk write.
+	 */
+	private void updateRelationalIntegrityDTOsChunk(List<BaseDTO> dtos) throws MongoDataException{
+		List<RelationalIntegrityDTO> storedRidtos = new ArrayList<RelationalIntegrityDTO>();
+		BaseDTOCursor cursor = findCursor(new RelationalIntegrityDTO(), generateOwnerSearchParameters(dtos), 0, false);
+		try {
+			while(cursor.hasNext()){
+				storedRidtos.add((RelationalIntegrityDTO)cursor.next());
+			}
+		} finally {
+			cursor.close();
+		}
+		List<WriteModel<BaseDTO>> requests = generateRelationalIntegrityWrites(dtos, storedRidtos);
+		if(requests.size() > 0){
+			try {
+				getTypedCollection(new RelationalIntegrityDTO()).bulkWrite(requests, new BulkWriteOptions().ordered(false));
+			} catch (MongoBulkWriteException mbwe) {
+				throw toSaveException(mbwe);
+			}
+		}
+		markPersisted(dtos);
+	}
+	
+	/**
+	 * Create the search parameters of the stored relational references owned by the [dtos] of a same table
+	 */
+	static List<KeyValue> generateOwnerSearchParameters(List<BaseDTO> dtos){
+		List<String> ownerIds = new ArrayList<String>();
+		for(BaseDTO dto: dtos){
+			ownerIds.add(dto.getId().toHexString());
+		}
 		List<KeyValue> searchParameters = new ArrayList<KeyValue>();
-		searchParameters.add(new KeyValue(RelationalIntegrityDTO.OWNER_ID,dto.getId().toHexString()));
-		searchParameters.add(new KeyValue(RelationalIntegrityDTO.OWNER_TABLE_NAME,dto.getTableName()));
-		deleteAll(new RelationalIntegrityDTO(), searchParameters);
-		if(null!=dto.getRelatedObjectsIds() && dto.getRelatedObjectsIds().size() > 0){
-			List<RelationalIntegrityDTO> newRelations = new ArrayList<RelationalIntegrityDTO>();
+		searchParameters.add(new KeyValue(RelationalIntegrityDTO.OWNER_ID,new BasicDBObject("$in", ownerIds)));
+		searchParameters.add(new KeyValue(RelationalIntegrityDTO.OWNER_TABLE_NAME,dtos.get(0).getTableName()));
+		return searchParameters;
+	}
+	
+	/**
+	 * Compare the [storedRidtos] relational references owned by the [dtos] whit the actual
+	 * [relatedObjectsIds] of the [dtos], and create the writes of the added and removed references.
+	 */
+	static List<WriteModel<BaseDTO>> generateRelationalIntegrityWrites(List<BaseDTO> dtos, 
+			List<RelationalIntegrityDTO> storedRidtos){
+		Map<String, List<RelationalIntegrityDTO>> storedRelations = new HashMap<String, List<RelationalIntegrityDTO>>();
+		for(RelationalIntegrityDTO ridto: storedRidtos){
+			String key = ridto.getOwnerId() + ";" + ridto.getRelatedTableName() + "," + ridto.getRelatedId();
+			List<RelationalIntegrityDTO> ridtos = storedRelations.get(key);
+			if(null==ridtos){
+				ridtos = new ArrayList<RelationalIntegrityDTO>();
+				storedRelations.put(key, ridtos);
+			}
+			ridtos.add(ridto);
+		}
+		List<WriteModel<BaseDTO>> requests = new ArrayList<WriteModel<BaseDTO>>();
+		for(BaseDTO dto: dtos){
+			if(null==dto.getRelatedObjectsIds()){
+				continue;
+			}
 			for(KeyValue keyValue: dto.getRelatedObjectsIds()){
+				String key = dto.getId().toHexString() + ";" + keyValue.getKey() + "," + keyValue.getValue();
+				List<RelationalIntegrityDTO> ridtos = storedRelations.get(key);
+				if(null!=ridtos && ridtos.size() > 0){
+					ridtos.remove(ridtos.size() - 1);
+					continue;
+				}
 				RelationalIntegrityDTO ridto = new RelationalIntegrityDTO();
 				ridto.setOwnerId(dto.getId().toHexString());
 				ridto.setOwnerTableName(dto.getTableName());
 				ridto.setRelatedTableName(keyValue.getKey());
 				ridto.setRelatedId((String)keyValue.getValue());
-				newRelations.add(ridto);
+				requests.add(new InsertOneModel<BaseDTO>(ridto));
 			}
-			if(newRelations.size() > 0){
-				for(RelationalIntegrityDTO ridto: newRelations){
-					saveOrUpdate(ridto);
-				}
+		}
+		List<ObjectId> removedIds = new ArrayList<ObjectId>();
+		for(List<RelationalIntegrityDTO> ridtos: storedRelations.values()){
+			for(RelationalIntegrityDTO ridto: ridtos){
+				removedIds.add(ridto.getId());
 			}
 		}
+		if(removedIds.size() > 0){
+			requests.add(new DeleteManyModel<BaseDTO>(
+					new BasicDBObject(BaseDTO.ID_ATTR_DESCRIPTOR, new BasicDBObject("$in", removedIds))));
+		}
+		return requests;
+	}
+	
+	/**
+	 * Return the exception of a failed write of relational references
+	 */
+	static MongoDataException toSaveException(MongoBulkWriteException mbwe){
+		return new MongoDataException(RELATIONAL_INTEGRITY_SAVE_EXCEPTION + mbwe.getMessage());
+	}
+	
+	/**
+	 * Mark the [relatedObjectsIdsJson] of the [dtos] as persisted, after the write of the references
+	 */
+	static void markPersisted(List<BaseDTO> dtos){
+		for(BaseDTO dto: dtos){
+			dto.markRelatedObjectsIdsJsonPersisted();
+		}
 	}
 	
 	/**
 	 * Remove the [relationalIntegrityDTO] objects that machtes whit [relationalIntegrities]
 	 */
 	public void removeRelationalIntegrityDTO(List<KeyValue> relationalIntegrities) throws MongoDataException{
+		for(Map.Entry<String, List<Object>> entry: groupOwnerIdsByTable(relationalIntegrities).entrySet()){
+			for(List<Object> chunk: splitInChunks(entry.getValue())){
+				deleteAll(new RelationalIntegrityDTO(), generateOwnerIdsSearchParameters(entry.getKey(), chunk));
+			}
+		}
+	}
+	
+	/**
+	 * Group the owner ids of the [relationalIntegrities] (table name, owner id) by table name
+	 */
+	static Map<String, List<Object>> groupOwnerIdsByTable(List<KeyValue> relationalIntegrities){
+		Map<String, List<Object>> ownerIdsByTable = new LinkedHashMap<String, List<Object>>();
 		for(KeyValue keyValue: relationalIntegrities){
-			List<KeyValue> searchParameters = new ArrayList<KeyValue>();
-			searchParameters.add(new KeyValue(RelationalIntegrityDTO.OWNER_ID,keyValue.getValue()));
-			searchParameters.add(new KeyValue(RelationalIntegrityDTO.OWNER_TABLE_NAME,keyValue.getKey()));
-			deleteAll(new RelationalIntegrityDTO(), searchParameters);
+			List<Object> ownerIds = ownerIdsByTable.get(keyValue.getKey());
+			if(null==ownerIds){
+				ownerIds = new ArrayList<Object>();
+				ownerIdsByTable.put(keyValue.getKey(), ownerIds);
+			}
+			ownerIds.add(keyValue.getValue());
 		}
+		return ownerIdsByTable;
+	}
+	
+	/**
+	 * Create the search parameters of the relational references owned by the [ownerIds] of the [tableName]
+	 */
+	static List<KeyValue> generateOwnerIdsSearchParameters(String tableName, List<Object> ownerIds){
+		List<KeyValue> searchParameters = new ArrayList<KeyValue>();
+		searchParameters.add(new KeyValue(RelationalIntegrityDTO.OWNER_ID,new BasicDBObject("$in", ownerIds)));
+		searchParameters.add(new KeyValue(RelationalIntegrityDTO.OWNER_TABLE_NAME,tableName));
+		return searchParameters;
 	}
 	
 	/**
@@ -102,5 +274,48 @@ class RelationalIntegrityDAO extends BaseDAO{
 		}
 		return ridtos;
 	}
+	
+	/**
+	 * Verify if the objects of a table can be deleted by Relational Integrity Rule,
+	 * by "$in" queries of IN_QUERY_CHUNK_SIZE [ids] each one.
+	 * Return the RelationalIntegrityDTO that lock each object, by the object id.
+	 */
+	public Map<String, List<RelationalIntegrityDTO>> getLockedByRelationalIntegrity(String tableName, List<String> ids) 
+			throws MongoDataException{
+		Map<String, List<RelationalIntegrityDTO>> locks = new HashMap<String, List<RelationalIntegrityDTO>>();
+		for(List<String> chunk: splitInChunks(ids)){
+			BaseDTOCursor cursor = findCursor(new RelationalIntegrityDTO(), generateRelatedSearchParameters(tableName, chunk), 0, false);
+			try {
+				while(cursor.hasNext()){
+					addLock(locks, (RelationalIntegrityDTO)cursor.next());
+				}
+			} finally {
+				cursor.close();
+			}
+		}
+		return locks;
+	}
+	
+	/**
+	 * Create the search parameters of the relational references to the [relatedIds] of the [tableName]
+	 */
+	static List<KeyValue> generateRelatedSearchParameters(String tableName, List<String> relatedIds){
+		List<KeyValue> searchParameters = new ArrayList<KeyValue>();
+		searchParameters.add(new KeyValue(RelationalIntegrityDTO.RELATED_ID,new BasicDBObject("$in", relatedIds)));
+		searchParameters.add(new KeyValue(RelationalIntegrityDTO.RELATED_TABLE_NAME,tableName));
+		return searchParameters;
+	}
+	
+	/**
+	 * Add the [ridto] to the [locks] of its related object id
+	 */
+	static void addLock(Map<String, List<RelationalIntegrityDTO>> locks, RelationalIntegrityDTO ridto){
+		List<RelationalIntegrityDTO> ridtos = locks.get(ridto.getRelatedId());
+		if(null==ridtos){
+			ridtos = new ArrayList<RelationalIntegrityDTO>();
+			locks.put(ridto.getRelatedId(), ridtos);
+		}
+		ridtos.add(ridto);
+	}
 
 }
@@ -0,0 +1,79 @@
+package krug.daan.easynosql.mongodb.dao;
+
+import krug.daan.easynosql.mongodb.dto.BaseDTO;
+import krug.daan.easynosql.mongodb.type.SaveStatus;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Result of a object on a BaseDAO.saveAll() operation
+ */
+public class SaveResult {
+	
+	/**
+	 * The saved object
+	 */
+	private BaseDTO dto;
+	
+	/**
+	 * The operation result
+	 */
+	private SaveStatus status;
+	
+	/**
+	 * The error message, when [status] is FAILED
+	 */
+	private String errorMessage;
+	
+	/**
+	 * Constructor
+	 */
+	SaveResult(BaseDTO dto){
+		this.dto = dto;
+		this.status = SaveStatus.NOT_PROCESSED;
+	}
+
+	/**
+	 * @return the saved object
+	 */
+	public BaseDTO getDto() {
+		return dto;
+	}
+
+	/**
+	 * @return status
+	 */
+	public SaveStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * Set the status
+	 * @param status
+	 */
+	void setStatus(SaveStatus status) {
+		this.status = status;
+	}
+
+	/**
+	 * @return errorMessage
+	 */
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+
+	/**
+	 * Set the errorMessage
+	 * @param errorMessage
+	 */
+	void setErrorMessage(String errorMessage) {
+		this.errorMessage = errorMessage;
+	}
+	
+	/**
+	 * @return true if the object was inserted or updated
+	 */
+	public boolean isSaved(){
+		return (status == SaveStatus.INSERTED || status == SaveStatus.UPDATED);
+	}
+}
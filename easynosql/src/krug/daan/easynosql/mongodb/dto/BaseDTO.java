@@ -1,12 +1,19 @@
 package krug.daan.easynosql.mongodb.dto;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import krug.daan.easynosql.common.KeyValue;
+import krug.daan.easynosql.common.metadata.EntityDescriptor;
+import krug.daan.easynosql.common.metadata.EntityDescriptorRegistry;
+import krug.daan.easynosql.common.metadata.EntityProperty;
 
 import org.bson.types.ObjectId;
 
@@ -48,6 +55,16 @@ public class BaseDTO {
 	 */
 	public static final String KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON = "relatedObjectsIdsJson";
 	
+	/**
+	 * RELATED_OBJECT_CLASS_ATTR_DESCRIPTOR, the class name of a related object on ARRAY storage
+	 */
+	public static final String RELATED_OBJECT_CLASS_ATTR_DESCRIPTOR = "c";
+	
+	/**
+	 * RELATED_OBJECT_ID_ATTR_DESCRIPTOR, the id of a related object on ARRAY storage
+	 */
+	public static final String RELATED_OBJECT_ID_ATTR_DESCRIPTOR = "id";
+	
 	/**
 	 * The table name mapping. A object of a class [User] 
 	 * in a package "abc.cde.fgh" will be stored in a table named
@@ -84,6 +101,30 @@ public class BaseDTO {
 	 */
 	protected String relatedObjectsIdsJson;
 	
+	/**
+	 * The [relatedObjectsIdsJson] value as was read from (or last written to) the database,
+	 * to detect if the related objects was changed. Null when unknown.
+	 */
+	private String persistedRelatedObjectsIdsJson;
+	
+	/**
+	 * The attributes read from the database by a projection, or null when all 
+	 * attributes was read.
+	 */
+	private Set<String> loadedFields;
+	
+	/**
+	 * The values of the unloaded attributes when the object was marked as partially loaded,
+	 * to detect the unloaded attributes changed later. Null when all attributes was read.
+	 */
+	private Map<String, Object> unloadedValues;
+	
+	/**
+	 * Exception messages
+	 */
+	private static final String UNLOADED_VALUES_EXCEPTION = "The values of the unloaded attributes couldnt be read.";
+	private static final String RELATED_OBJECTS_NOT_LOADED_EXCEPTION = "The related objects ids was not loaded, so they couldnt be changed.";
+	
 	/**
 	 * Constructor
 	 */
@@ -112,58 +153,43 @@ public class BaseDTO {
 	 */
 	public void generateKeyValues() throws InvocationTargetException, IllegalAccessException{
 		this.attrs = new ArrayList<KeyValue>();
-		Method[] BaseDTOMethods = BaseDTO.class.getDeclaredMethods();
-		Field[] BaseDTOFields = BaseDTO.class.getDeclaredFields();
-		for(Field field: BaseDTOFields){
-			if(field.getName().equals(BaseDTO.TABLE_NAME_ATTR_DESCRIPTOR)
-					|| field.getName().equals(BaseDTO.KEYVALUES_ATTR_DESCRIPTOR)
-					|| field.getName().equals(BaseDTO.ID_ATTR_DESCRIPTOR)
-					|| field.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS)
-					|| field.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS)
+		EntityDescriptor descriptor = EntityDescriptorRegistry.getDescriptor(getClass(), BaseDTO.class);
+		for(EntityProperty property: descriptor.getBaseProperties()){
+			if(property.getName().equals(BaseDTO.TABLE_NAME_ATTR_DESCRIPTOR)
+					|| property.getName().equals(BaseDTO.KEYVALUES_ATTR_DESCRIPTOR)
+					|| property.getName().equals(BaseDTO.ID_ATTR_DESCRIPTOR)
+					|| property.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS)
+					|| property.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS)
 					){
 				continue;
 			}
-			if(field.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)){
-				if(null!=getRelatedObjectsIds()){
-					String json = "";
-					String separator = "";
-					for(KeyValue keyValue : getRelatedObjectsIds()){
-						json += separator + keyValue.getKey() + "," + keyValue.getValue();
-						separator = ";";
-					}
-					setRelatedObjectsIdsJson(json);
-				}
-			}
-			String methodName = "get" + field.getName().substring(0,1).toUpperCase() + field.getName().substring(1);
-			Method method = null;
-			for(Method m: BaseDTOMethods){
-				if(m.getName().equals(methodName)){
-					method = m;
-					break;
-				}
+			if(property.getName().equals(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)){
+				populateRelatedObjectsIdsJson();
 			}
-			if(null!=method){
-				@SuppressWarnings(value="all")
-				Object obj = method.invoke(this, null);
-				this.attrs.add(new KeyValue(field.getName(),obj));
+			if(property.hasGetter()){
+				this.attrs.add(new KeyValue(property.getName(),property.getValue(this)));
 			}
 		}
-		Method[] methods = getClass().getDeclaredMethods();
-		Field[] fields = getClass().getDeclaredFields();
-		for(Field field: fields){
-			String methodName = "get" + field.getName().substring(0,1).toUpperCase() + field.getName().substring(1);
-			Method method = null;
-			for(Method m: methods){
-				if(m.getName().equals(methodName)){
-					method = m;
-					break;
-				}
+		for(EntityProperty property: descriptor.getProperties()){
+			if(property.hasGetter()){
+				this.attrs.add(new KeyValue(property.getName(),property.getValue(this)));
 			}
-			if(null!=method){
-				@SuppressWarnings(value="all")
-				Object obj = method.invoke(this, null);
-				this.attrs.add(new KeyValue(field.getName(),obj));
+		}
+	}
+	
+	/**
+	 * Convert the List of KeyValue [relatedObjectsIds] attribute into the 
+	 * KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON String value.
+	 */
+	public void populateRelatedObjectsIdsJson(){
+		if(null!=relatedObjectsIds){
+			StringBuffer json = new StringBuffer();
+			String separator = "";
+			for(KeyValue keyValue : relatedObjectsIds){
+				json.append(separator).append(keyValue.getKey()).append(",").append(keyValue.getValue());
+				separator = ";";
 			}
+			relatedObjectsIdsJson = json.toString();
 		}
 	}
 	
@@ -184,6 +210,95 @@ public class BaseDTO {
 		}
 	}
 
+	/**
+	 * Register the actual [relatedObjectsIdsJson] value as the value stored on the database.
+	 */
+	public void markRelatedObjectsIdsJsonPersisted(){
+		this.persistedRelatedObjectsIdsJson = relatedObjectsIdsJson;
+	}
+	
+	/**
+	 * @return true if the [relatedObjectsIdsJson] value differs from the value stored on 
+	 * the database, or if the stored value is unknown. Always false when the object was
+	 * partially loaded whithout the [relatedObjectsIdsJson] attribute.
+	 */
+	public boolean isRelatedObjectsIdsJsonChanged(){
+		if(!isFieldLoaded(KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)){
+			return false;
+		}
+		return (null==persistedRelatedObjectsIdsJson || !persistedRelatedObjectsIdsJson.equals(relatedObjectsIdsJson));
+	}
+
+	/**
+	 * Register the object as partially loaded, whit only the [fields] attributes read from
+	 * the database. The other attributes are unloaded: when the object is updated they are
+	 * written only if its value was changed after this call, otherwise the stored values are 
+	 * kept (see isFieldWritable()). A null [fields] marks the object as fully loaded.
+	 * The [relatedObjectsIds] and [relatedObjectsIdsJson] attributes are loaded together.
+	 */
+	public void markLoadedFields(Collection<String> fields){
+		this.loadedFields = (null!=fields ? new HashSet<String>(fields) : null);
+		this.unloadedValues = null;
+		if(null!=loadedFields){
+			if(loadedFields.contains(KEYVALUES_ATTR_RELATED_OBJECTS_IDS) 
+					|| loadedFields.contains(KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)){
+				loadedFields.add(KEYVALUES_ATTR_RELATED_OBJECTS_IDS);
+				loadedFields.add(KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON);
+			}
+			unloadedValues = new HashMap<String, Object>();
+			try{
+				for(EntityProperty property: EntityDescriptorRegistry.getDescriptor(getClass(), BaseDTO.class).getProperties()){
+					if(property.hasGetter() && !loadedFields.contains(property.getName())){
+						unloadedValues.put(property.getName(), property.getValue(this));
+					}
+				}
+			}catch(Exception e){
+				throw new IllegalStateException(UNLOADED_VALUES_EXCEPTION, e);
+			}
+		}
+	}
+	
+	/**
+	 * Register the [field] attribute of a partially loaded object as changed, so it is written
+	 * when the object is updated. Required only to write a unloaded attribute whit the same 
+	 * value it had when the object was read (e.g. set it back to null), or changed in place.
+	 */
+	public void markFieldChanged(String field){
+		if(null!=loadedFields && null!=field){
+			loadedFields.add(field);
+			if(field.equals(KEYVALUES_ATTR_RELATED_OBJECTS_IDS) || field.equals(KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON)){
+				loadedFields.add(KEYVALUES_ATTR_RELATED_OBJECTS_IDS);
+				loadedFields.add(KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON);
+			}
+		}
+	}
+	
+	/**
+	 * @return true if the [field] attribute was read from the database (or the object is not
+	 * a partially loaded one)
+	 */
+	public boolean isFieldLoaded(String field){
+		return (null==loadedFields || loadedFields.contains(field));
+	}
+	
+	/**
+	 * @return true if the [field] attribute, whit the actual [value], should be written when the 
+	 * object is updated: the attribute was loaded, or it was unloaded and its value changed.
+	 */
+	public boolean isFieldWritable(String field, Object value){
+		if(isFieldLoaded(field)){
+			return true;
+		}
+		return (null!=unloadedValues && unloadedValues.containsKey(field) && !Objects.equals(unloadedValues.get(field), value));
+	}
+	
+	/**
+	 * @return true if the object was read by a projection, whit only some attributes loaded
+	 */
+	public boolean isPartiallyLoaded(){
+		return (null!=loadedFields);
+	}
+
 	/**
 	 * @return the table name
 	 */
@@ -219,6 +334,7 @@ public class BaseDTO {
 	 */
 	public void setRelatedObjectsIds(List<KeyValue> relatedObjectsIds) {
 		this.relatedObjectsIds = relatedObjectsIds;
+		markFieldChanged(KEYVALUES_ATTR_RELATED_OBJECTS_IDS);
 	}
 
 	/**
@@ -243,8 +359,12 @@ public class BaseDTO {
 	 * A(this) -> B(other class),
 	 * A(this) -> C(other class),
 	 * A(this) -> D(other class),
+	 * Throws IllegalStateException when the object was partially loaded whithout the related objects ids.
 	 */
 	public boolean addRelatedObject(Object oid,BaseDTO dto){
+		if(!isFieldLoaded(KEYVALUES_ATTR_RELATED_OBJECTS_IDS)){
+			throw new IllegalStateException(RELATED_OBJECTS_NOT_LOADED_EXCEPTION);
+		}
 		ObjectId objectId = null;
 		if(oid instanceof ObjectId){
 			objectId = (ObjectId)oid;
@@ -274,8 +394,12 @@ public class BaseDTO {
 	
 	/**
 	 * Remove a object association from this.
+	 * Throws IllegalStateException when the object was partially loaded whithout the related objects ids.
 	 */
 	public boolean removeRelatedObject(Object oid,BaseDTO dto){
+		if(!isFieldLoaded(KEYVALUES_ATTR_RELATED_OBJECTS_IDS)){
+			throw new IllegalStateException(RELATED_OBJECTS_NOT_LOADED_EXCEPTION);
+		}
 		if(null!=dto && null!=relatedObjectsIds && relatedObjectsIds.size() > 0){
 			String hexadecimalId = null;
 			if(oid instanceof ObjectId){
@@ -307,5 +431,6 @@ public class BaseDTO {
 	 */
 	public void setRelatedObjectsIdsJson(String relatedObjectsIdsJson) {
 		this.relatedObjectsIdsJson = relatedObjectsIdsJson;
+		markFieldChanged(KEYVALUES_ATTR_RELATED_OBJECTS_IDS_JSON);
 	}
 }
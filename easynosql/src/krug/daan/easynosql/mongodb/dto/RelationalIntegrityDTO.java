@@ -1,10 +1,18 @@
 package krug.daan.easynosql.mongodb.dto;
 
+import krug.daan.easynosql.mongodb.annotation.CompoundIndex;
+import krug.daan.easynosql.mongodb.annotation.CompoundIndexes;
+
 /**
  * @author Daniel Augusto Krug
  * 
  * Class to handling of relations between stored objects.
+ * Indexed by owner and by related object, the keys of the relational integrity searches.
  */
+@CompoundIndexes({
+	@CompoundIndex(fields={RelationalIntegrityDTO.OWNER_ID, RelationalIntegrityDTO.OWNER_TABLE_NAME}),
+	@CompoundIndex(fields={RelationalIntegrityDTO.RELATED_ID, RelationalIntegrityDTO.RELATED_TABLE_NAME})
+})
 public class RelationalIntegrityDTO extends BaseDTO {
 	
 	/**
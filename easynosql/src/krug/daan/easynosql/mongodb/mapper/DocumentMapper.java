@@ -0,0 +1,32 @@
+package krug.daan.easynosql.mongodb.mapper;
+
+import krug.daan.easynosql.mongodb.dto.BaseDTO;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Interface implemented by the mappers generated on compile time, to read and write
+ * the attributes of MongoDB persistent objects without reflection. Used by the BaseDTOCodec
+ * to encode and decode the objects directly to and from BSON.
+ * Handles only the attributes declared on the object class, the "_id" and the related
+ * objects ids (according the RelatedObjectsStorageMode) are handled by the BaseDTOCodec.
+ */
+public interface DocumentMapper<T extends BaseDTO> {
+	
+	/**
+	 * @return the attribute names, in the same order of the getValue() and setValue() indexes
+	 */
+	String[] getAttributeNames();
+	
+	/**
+	 * Return the value of the attribute at [index] of getAttributeNames() from the [dto] object.
+	 * Throws IllegalArgumentException if the attribute dont have a "get" method.
+	 */
+	Object getValue(T dto, int index);
+	
+	/**
+	 * Set the [value] on the attribute at [index] of getAttributeNames() of the [dto] object.
+	 * Throws IllegalArgumentException if the attribute dont have a "set" method.
+	 */
+	void setValue(T dto, int index, Object value);
+}
@@ -0,0 +1,29 @@
+package krug.daan.easynosql.mongodb.type;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Enum to describe the accumulators of a Aggregation, whit the correspondent MongoDB $group operator
+ */
+public enum AggregationOperator {
+	COUNT("$sum"),SUM("$sum"),MIN("$min"),MAX("$max"),AVG("$avg");
+
+	/**
+	 * The MongoDB $group accumulator operator
+	 */
+	private String operator;
+
+	/**
+	 * Constructor
+	 */
+	private AggregationOperator(String operator){
+		this.operator = operator;
+	}
+
+	/**
+	 * @return the MongoDB $group accumulator operator
+	 */
+	public String getOperator() {
+		return operator;
+	}
+}
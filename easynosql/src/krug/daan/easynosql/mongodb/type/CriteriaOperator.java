@@ -0,0 +1,29 @@
+package krug.daan.easynosql.mongodb.type;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Enum to describe the comparison operators of a Criteria, whit the correspondent MongoDB query operator
+ */
+public enum CriteriaOperator {
+	EQ("$eq"),NE("$ne"),GT("$gt"),GTE("$gte"),LT("$lt"),LTE("$lte"),IN("$in"),EXISTS("$exists"),REGEX("$regex"),ELEM_MATCH("$elemMatch");
+
+	/**
+	 * The MongoDB query operator
+	 */
+	private String operator;
+
+	/**
+	 * Constructor
+	 */
+	private CriteriaOperator(String operator){
+		this.operator = operator;
+	}
+
+	/**
+	 * @return the MongoDB query operator
+	 */
+	public String getOperator() {
+		return operator;
+	}
+}
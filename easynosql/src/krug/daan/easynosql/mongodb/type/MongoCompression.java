@@ -0,0 +1,10 @@
+package krug.daan.easynosql.mongodb.type;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Enum to describe the wire protocol compression requested for a MongoDB connection
+ */
+public enum MongoCompression {
+	NONE,SNAPPY,ZLIB;
+}
@@ -0,0 +1,12 @@
+package krug.daan.easynosql.mongodb.type;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Enum to describe how the related objects ids of a object are stored on MongoDB:
+ * STRING as the [relatedObjectsIdsJson] "class,id;class,id" String, ARRAY as the 
+ * [relatedObjectsIds] array of {c: class, id: id} documents.
+ */
+public enum RelatedObjectsStorage {
+	STRING,ARRAY;
+}
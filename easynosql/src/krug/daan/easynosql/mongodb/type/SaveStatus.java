@@ -0,0 +1,10 @@
+package krug.daan.easynosql.mongodb.type;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Enum to describe the result of a object on a bulk save operation
+ */
+public enum SaveStatus {
+	INSERTED,UPDATED,FAILED,NOT_PROCESSED;
+}
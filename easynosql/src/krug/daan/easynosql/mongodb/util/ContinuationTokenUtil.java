@@ -0,0 +1,86 @@
+package krug.daan.easynosql.mongodb.util;
+
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Class to convert the position of a paged search into a opaque continuation token
+ * and back. The position is stored as BSON, so the values keep their types (ObjectId,
+ * Date, Long...), and written as a hexadecimal String.
+ */
+public class ContinuationTokenUtil {
+
+	/**
+	 * Hexadecimal digits
+	 */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Codec of the position Document
+	 */
+	private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+
+	/**
+	 * INVALID_TOKEN_EXCEPTION
+	 */
+	private static final String INVALID_TOKEN_EXCEPTION = "Invalid continuation token.";
+
+	/**
+	 * Constructor
+	 */
+	private ContinuationTokenUtil(){
+
+	}
+
+	/**
+	 * Return the continuation token of the [position]
+	 */
+	public static String encode(Document position){
+		BasicOutputBuffer buffer = new BasicOutputBuffer();
+		BsonBinaryWriter writer = new BsonBinaryWriter(buffer);
+		try {
+			DOCUMENT_CODEC.encode(writer, position, EncoderContext.builder().build());
+		} finally {
+			writer.close();
+		}
+		byte[] bytes = buffer.toByteArray();
+		char[] hex = new char[bytes.length * 2];
+		for(int i = 0; i < bytes.length; i++){
+			hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+			hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+		}
+		return new String(hex);
+	}
+
+	/**
+	 * Return the position of the continuation [token]
+	 *
+	 * @throws IllegalArgumentException if the [token] was not created by the encode() Method
+	 */
+	public static Document decode(String token){
+		if(null==token || token.length() == 0 || token.length() % 2 != 0){
+			throw new IllegalArgumentException(INVALID_TOKEN_EXCEPTION);
+		}
+		byte[] bytes = new byte[token.length() / 2];
+		for(int i = 0; i < bytes.length; i++){
+			int high = Character.digit(token.charAt(i * 2), 16);
+			int low = Character.digit(token.charAt(i * 2 + 1), 16);
+			if(high < 0 || low < 0){
+				throw new IllegalArgumentException(INVALID_TOKEN_EXCEPTION);
+			}
+			bytes[i] = (byte)((high << 4) | low);
+		}
+		try {
+			return new RawBsonDocument(bytes).decode(DOCUMENT_CODEC);
+		}
+		catch (RuntimeException e){
+			throw new IllegalArgumentException(INVALID_TOKEN_EXCEPTION);
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package krug.daan.easynosql.mongodb.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import krug.daan.easynosql.common.metadata.EntityDescriptorRegistry;
+import krug.daan.easynosql.common.metadata.EntityProperty;
+import krug.daan.easynosql.mongodb.annotation.CompoundIndex;
+import krug.daan.easynosql.mongodb.annotation.CompoundIndexes;
+import krug.daan.easynosql.mongodb.annotation.Indexed;
+import krug.daan.easynosql.mongodb.annotation.RelatedObjectsStorageMode;
+import krug.daan.easynosql.mongodb.dto.BaseDTO;
+import krug.daan.easynosql.mongodb.type.RelatedObjectsStorage;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+
+/**
+ * @author Daniel Augusto Krug
+ *
+ * Class to create the MongoDB indexes description of a BaseDTO class, 
+ * according the Indexed, CompoundIndex and CompoundIndexes annotations, and the
+ * multikey index of the related objects ids whit ARRAY RelatedObjectsStorageMode.
+ */
+public class IndexUtil {
+	
+	/**
+	 * DESCENDING_PREFIX
+	 */
+	private static final String DESCENDING_PREFIX = "-";
+	
+	/**
+	 * Cache of the indexes, by class
+	 */
+	private static final ConcurrentHashMap<Class<?>, List<IndexModel>> indexesByClass = new ConcurrentHashMap<Class<?>, List<IndexModel>>();
+	
+	/**
+	 * Constructor
+	 */
+	private IndexUtil(){
+		
+	}
+	
+	/**
+	 * Return the indexes that should exist on the collection of the [dtoClass] objects
+	 */
+	public static List<IndexModel> generateIndexModels(Class<? extends BaseDTO> dtoClass){
+		List<IndexModel> indexes = indexesByClass.get(dtoClass);
+		if(null==indexes){
+			indexes = new ArrayList<IndexModel>();
+			for(EntityProperty property: EntityDescriptorRegistry.getDescriptor(dtoClass, BaseDTO.class).getPropertiesWith(Indexed.class)){
+				Indexed indexed = property.getField().getAnnotation(Indexed.class);
+				IndexOptions options = new IndexOptions().background(true).unique(indexed.unique());
+				if(indexed.expireAfterSeconds() >= 0){
+					options.expireAfter(indexed.expireAfterSeconds(), TimeUnit.SECONDS);
+				}
+				indexes.add(new IndexModel(new BasicDBObject(property.getName(), (indexed.descending() ? -1 : 1)), options));
+			}
+			CompoundIndex compoundIndex = dtoClass.getAnnotation(CompoundIndex.class);
+			if(null!=compoundIndex){
+				indexes.add(generateIndexModel(compoundIndex));
+			}
+			CompoundIndexes compoundIndexes = dtoClass.getAnnotation(CompoundIndexes.class);
+			if(null!=compoundIndexes){
+				for(CompoundIndex index: compoundIndexes.value()){
+					indexes.add(generateIndexModel(index));
+				}
+			}
+			RelatedObjectsStorageMode storageMode = dtoClass.getAnnotation(RelatedObjectsStorageMode.class);
+			if(null!=storageMode && RelatedObjectsStorage.ARRAY==storageMode.value()){
+				BasicDBObject keys = new BasicDBObject(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS + "." + BaseDTO.RELATED_OBJECT_ID_ATTR_DESCRIPTOR, 1)
+						.append(BaseDTO.KEYVALUES_ATTR_RELATED_OBJECTS_IDS + "." + BaseDTO.RELATED_OBJECT_CLASS_ATTR_DESCRIPTOR, 1);
+				indexes.add(new IndexModel(keys, new IndexOptions().background(true)));
+			}
+			indexes = Collections.unmodifiableList(indexes);
+			indexesByClass.putIfAbsent(dtoClass, indexes);
+		}
+		return indexes;
+	}
+	
+	/**
+	 * Create the index description of a CompoundIndex annotation
+	 */
+	private static IndexModel generateIndexModel(CompoundIndex compoundIndex){
+		BasicDBObject keys = new BasicDBObject();
+		for(String field: compoundIndex.fields()){
+			if(field.startsWith(DESCENDING_PREFIX)){
+				keys.append(field.substring(DESCENDING_PREFIX.length()), -1);
+			}else{
+				keys.append(field, 1);
+			}
+		}
+		return new IndexModel(keys, new IndexOptions().background(true).unique(compoundIndex.unique()));
+	}
+}